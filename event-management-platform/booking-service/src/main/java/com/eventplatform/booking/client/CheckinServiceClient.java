@@ -0,0 +1,35 @@
+package com.eventplatform.booking.client;
+
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Bulkhead(name = "checkinService")
+public class CheckinServiceClient {
+    
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
+    
+    public CheckinServiceClient(RestTemplate restTemplate,
+                                @Value("${booking.clients.checkin-service.url:http://checkin-service}") String baseUrl) {
+        this.restTemplate = restTemplate;
+        this.baseUrl = baseUrl;
+    }
+    
+    public void generateAndEmailQRCodes(Map<String, Object> emailRequest) {
+        restTemplate.postForObject(baseUrl + "/api/qr-codes/generate-and-email-multiple", emailRequest, Map.class);
+    }
+    
+    public void deleteQRCodesForBooking(Long bookingId) {
+        restTemplate.delete(baseUrl + "/api/qr-codes/booking/{bookingId}", bookingId);
+    }
+    
+    public void deleteQRCodesForBookings(List<Long> bookingIds) {
+        restTemplate.postForObject(baseUrl + "/api/qr-codes/bookings/delete", Map.of("bookingIds", bookingIds), Map.class);
+    }
+}
@@ -0,0 +1,77 @@
+package com.eventplatform.booking.client;
+
+import com.eventplatform.booking.dto.EventDTO;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * The {@link EventClient} injected everywhere in booking-service. Event and ticket type lookups for
+ * the same id share one in-flight call and reuse its result for a few hundred milliseconds, which
+ * bounds the upstream rate for a hot id at roughly one call per TTL. Only the leading call goes
+ * through the bulkhead, so waiting callers don't hold permits. Results are shared between callers
+ * and must be treated as read-only. Reservations, releases and availability checks always pass
+ * straight through.
+ * <p>
+ * This must stay the only primary {@code EventClient}: the Feign proxy is declared with
+ * {@code primary = false} and the bulkhead decorator is only reachable by its qualifier.
+ */
+@Component
+@Primary
+public class CoalescingEventClient implements EventClient {
+    
+    private final EventClient delegate;
+    private final SingleFlight<Long, EventDTO> events;
+    private final SingleFlight<Long, Map<String, Object>> ticketTypes;
+    
+    public CoalescingEventClient(@Qualifier("bulkheadEventClient") EventClient delegate,
+                                 @Value("${booking.event-client.coalescing.ttl-ms:250}") long ttlMillis,
+                                 @Value("${booking.event-client.coalescing.max-entries:10000}") int maxEntries) {
+        this.delegate = delegate;
+        this.events = new SingleFlight<>(ttlMillis, maxEntries);
+        this.ticketTypes = new SingleFlight<>(ttlMillis, maxEntries);
+    }
+    
+    @Override
+    public EventDTO getEventById(Long id) {
+        return events.get(id, () -> delegate.getEventById(id));
+    }
+    
+    @Override
+    public Map<String, Boolean> checkAvailability(Long id, Integer quantity) {
+        return delegate.checkAvailability(id, quantity);
+    }
+    
+    @Override
+    public Map<String, Object> reserveTickets(Long id, Integer quantity, String reservationId) {
+        return delegate.reserveTickets(id, quantity, reservationId);
+    }
+    
+    @Override
+    public void releaseTickets(Long id, Integer quantity, String reservationId) {
+        delegate.releaseTickets(id, quantity, reservationId);
+    }
+    
+    @Override
+    public Map<String, Object> reserveTicketType(Long ticketTypeId, Integer quantity, String reservationId) {
+        return delegate.reserveTicketType(ticketTypeId, quantity, reservationId);
+    }
+    
+    @Override
+    public void releaseTicketType(Long ticketTypeId, Integer quantity, String reservationId) {
+        delegate.releaseTicketType(ticketTypeId, quantity, reservationId);
+    }
+    
+    @Override
+    public Map<String, Boolean> checkTicketTypeAvailability(Long ticketTypeId, Integer quantity) {
+        return delegate.checkTicketTypeAvailability(ticketTypeId, quantity);
+    }
+    
+    @Override
+    public Map<String, Object> getTicketTypeById(Long ticketTypeId) {
+        return ticketTypes.get(ticketTypeId, () -> delegate.getTicketTypeById(ticketTypeId));
+    }
+}
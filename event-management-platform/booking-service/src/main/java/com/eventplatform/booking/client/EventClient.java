@@ -7,7 +7,7 @@ import com.eventplatform.booking.dto.EventDTO;
 
 import java.util.Map;
 
-@FeignClient(name = "event-service")
+@FeignClient(name = "event-service", qualifiers = "eventServiceFeignClient", primary = false)
 public interface EventClient {
     
     @GetMapping("/api/events/{id}")
@@ -19,29 +19,58 @@ public interface EventClient {
         @RequestParam("quantity") Integer quantity
     );
     
+    /**
+     * Reserves under {@code reservationId} when one is given, so the call can be retried and later
+     * released by that id without taking or giving back tickets twice.
+     */
     @PostMapping("/api/events/{id}/reserve")
     Map<String, Object> reserveTickets(
         @PathVariable("id") Long id, 
-        @RequestParam("quantity") Integer quantity
+        @RequestParam("quantity") Integer quantity,
+        @RequestParam(value = "reservationId", required = false) String reservationId
     );
     
+    default Map<String, Object> reserveTickets(Long id, Integer quantity) {
+        return reserveTickets(id, quantity, null);
+    }
+    
+    /**
+     * Releases the reservation made under {@code reservationId}, once; releasing an id that was
+     * never reserved gives nothing back and blocks a late reserve under that id.
+     */
     @PostMapping("/api/events/{id}/release")
     void releaseTickets(
         @PathVariable("id") Long id, 
-        @RequestParam("quantity") Integer quantity
+        @RequestParam("quantity") Integer quantity,
+        @RequestParam(value = "reservationId", required = false) String reservationId
     );
-       @PostMapping("/api/events/ticket-types/{ticketTypeId}/reserve")
+    
+    default void releaseTickets(Long id, Integer quantity) {
+        releaseTickets(id, quantity, null);
+    }
+    
+    @PostMapping("/api/events/ticket-types/{ticketTypeId}/reserve")
     Map<String, Object> reserveTicketType(
         @PathVariable("ticketTypeId") Long ticketTypeId, 
-        @RequestParam("quantity") Integer quantity
+        @RequestParam("quantity") Integer quantity,
+        @RequestParam(value = "reservationId", required = false) String reservationId
     );
     
+    default Map<String, Object> reserveTicketType(Long ticketTypeId, Integer quantity) {
+        return reserveTicketType(ticketTypeId, quantity, null);
+    }
+    
     @PostMapping("/api/events/ticket-types/{ticketTypeId}/release")
     void releaseTicketType(
         @PathVariable("ticketTypeId") Long ticketTypeId, 
-        @RequestParam("quantity") Integer quantity
+        @RequestParam("quantity") Integer quantity,
+        @RequestParam(value = "reservationId", required = false) String reservationId
     );
     
+    default void releaseTicketType(Long ticketTypeId, Integer quantity) {
+        releaseTicketType(ticketTypeId, quantity, null);
+    }
+    
     @GetMapping("/api/events/ticket-types/{ticketTypeId}/availability")
     Map<String, Boolean> checkTicketTypeAvailability(
         @PathVariable("ticketTypeId") Long ticketTypeId, 
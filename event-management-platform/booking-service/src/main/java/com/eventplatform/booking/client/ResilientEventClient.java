@@ -0,0 +1,71 @@
+package com.eventplatform.booking.client;
+
+import com.eventplatform.booking.dto.EventDTO;
+import com.eventplatform.booking.service.SoldOutCache;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Caps concurrent calls to event-service in their own bulkhead, so a slow event-service only
+ * rejects the paths that need it. Wrapped by {@link CoalescingEventClient}.
+ */
+@Component("bulkheadEventClient")
+@Bulkhead(name = "eventService")
+public class ResilientEventClient implements EventClient {
+    
+    private final EventClient delegate;
+    private final SoldOutCache soldOutCache;
+    
+    public ResilientEventClient(@Qualifier("eventServiceFeignClient") EventClient delegate,
+                                SoldOutCache soldOutCache) {
+        this.delegate = delegate;
+        this.soldOutCache = soldOutCache;
+    }
+    
+    @Override
+    public EventDTO getEventById(Long id) {
+        return delegate.getEventById(id);
+    }
+    
+    @Override
+    public Map<String, Boolean> checkAvailability(Long id, Integer quantity) {
+        return delegate.checkAvailability(id, quantity);
+    }
+    
+    @Override
+    public Map<String, Object> reserveTickets(Long id, Integer quantity, String reservationId) {
+        return delegate.reserveTickets(id, quantity, reservationId);
+    }
+    
+    @Override
+    public void releaseTickets(Long id, Integer quantity, String reservationId) {
+        delegate.releaseTickets(id, quantity, reservationId);
+    }
+    
+    @Override
+    public Map<String, Object> reserveTicketType(Long ticketTypeId, Integer quantity, String reservationId) {
+        return delegate.reserveTicketType(ticketTypeId, quantity, reservationId);
+    }
+    
+    @Override
+    public void releaseTicketType(Long ticketTypeId, Integer quantity, String reservationId) {
+        try {
+            delegate.releaseTicketType(ticketTypeId, quantity, reservationId);
+        } finally {
+            soldOutCache.invalidate(ticketTypeId);
+        }
+    }
+    
+    @Override
+    public Map<String, Boolean> checkTicketTypeAvailability(Long ticketTypeId, Integer quantity) {
+        return delegate.checkTicketTypeAvailability(ticketTypeId, quantity);
+    }
+    
+    @Override
+    public Map<String, Object> getTicketTypeById(Long ticketTypeId) {
+        return delegate.getTicketTypeById(ticketTypeId);
+    }
+}
@@ -0,0 +1,84 @@
+package com.eventplatform.booking.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of the same key into one call. The first caller runs the loader, later
+ * callers wait for its result; a successful result is then reused for {@code ttlMillis}. Failures
+ * are handed to the callers that were waiting and never cached.
+ */
+final class SingleFlight<K, V> {
+    
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int maxEntries;
+    
+    SingleFlight(long ttlMillis, int maxEntries) {
+        this.ttlMillis = Math.max(0, ttlMillis);
+        this.maxEntries = maxEntries;
+    }
+    
+    V get(K key, Supplier<V> loader) {
+        while (true) {
+            Flight<V> flight = flights.get(key);
+            if (flight != null && flight.isExpired()) {
+                flights.remove(key, flight);
+                flight = null;
+            }
+            if (flight != null) {
+                return flight.await();
+            }
+            
+            Flight<V> mine = new Flight<>();
+            if (flights.putIfAbsent(key, mine) == null) {
+                return load(key, mine, loader);
+            }
+        }
+    }
+    
+    private V load(K key, Flight<V> flight, Supplier<V> loader) {
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.future.completeExceptionally(e);
+            throw e;
+        }
+        
+        flight.expiresAt = System.currentTimeMillis() + ttlMillis;
+        flight.future.complete(value);
+        if (ttlMillis == 0) {
+            flights.remove(key, flight);
+        } else if (flights.size() > maxEntries) {
+            flights.values().removeIf(Flight::isExpired);
+        }
+        return value;
+    }
+    
+    private static final class Flight<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile long expiresAt = Long.MAX_VALUE;
+        
+        private boolean isExpired() {
+            return expiresAt < System.currentTimeMillis();
+        }
+        
+        private V await() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
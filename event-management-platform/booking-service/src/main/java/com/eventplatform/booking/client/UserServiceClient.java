@@ -0,0 +1,27 @@
+package com.eventplatform.booking.client;
+
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+
+@Component
+@Bulkhead(name = "userService")
+public class UserServiceClient {
+    
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
+    
+    public UserServiceClient(RestTemplate restTemplate,
+                             @Value("${booking.clients.user-service.url:http://user-service}") String baseUrl) {
+        this.restTemplate = restTemplate;
+        this.baseUrl = baseUrl;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getUserById(Long userId) {
+        return restTemplate.getForObject(baseUrl + "/api/users/{id}", Map.class, userId);
+    }
+}
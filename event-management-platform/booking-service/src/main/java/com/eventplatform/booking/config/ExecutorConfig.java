@@ -0,0 +1,51 @@
+package com.eventplatform.booking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfig {
+    
+    public static final String BULK_JOB_EXECUTOR = "bulkJobExecutor";
+    public static final String BULK_CHUNK_EXECUTOR = "bulkChunkExecutor";
+    
+    @Bean(name = BULK_JOB_EXECUTOR)
+    public ThreadPoolTaskExecutor bulkJobExecutor(
+            @Value("${booking.bulk.executor.pool-size:4}") int poolSize,
+            @Value("${booking.bulk.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("bulk-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Runs the chunks of a bulk job in parallel. Kept apart from {@link #BULK_JOB_EXECUTOR} so a job
+     * waiting on its chunks never occupies the threads they need; when the queue is full the
+     * submitting job thread runs the chunk itself.
+     */
+    @Bean(name = BULK_CHUNK_EXECUTOR)
+    public ThreadPoolTaskExecutor bulkChunkExecutor(
+            @Value("${booking.bulk.chunk-executor.pool-size:4}") int poolSize,
+            @Value("${booking.bulk.chunk-executor.queue-capacity:16}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("bulk-chunk-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
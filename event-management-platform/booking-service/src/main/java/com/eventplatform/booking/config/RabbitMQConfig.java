@@ -20,6 +20,14 @@ public class RabbitMQConfig {
     
     public static final String BOOKING_CREATED_ROUTING_KEY = "booking.created";
     public static final String BOOKING_CANCELLED_ROUTING_KEY = "booking.cancelled";
+    public static final String BOOKING_CANCELLED_BATCH_ROUTING_KEY = "booking.cancelled.batch";
+    public static final String REFUND_APPROVED_BATCH_ROUTING_KEY = "refund.approved.batch";
+    public static final String REFUND_REJECTED_BATCH_ROUTING_KEY = "refund.rejected.batch";
+    
+    public static final String EVENT_EXCHANGE = "event.exchange";
+    public static final String EVENT_SNAPSHOT_QUEUE = "booking.event-snapshot.queue";
+    public static final String EVENT_SNAPSHOT_DELETED_QUEUE = "booking.event-snapshot.deleted.queue";
+    public static final String TICKET_AVAILABILITY_ROUTING_KEY = "ticket-type.availability";
     
     @Bean
     public TopicExchange bookingExchange() {
@@ -50,6 +58,57 @@ public class RabbitMQConfig {
                 .with(BOOKING_CANCELLED_ROUTING_KEY);
     }
     
+    @Bean
+    public TopicExchange eventExchange() {
+        return new TopicExchange(EVENT_EXCHANGE);
+    }
+    
+    @Bean
+    public Queue eventSnapshotQueue() {
+        return new Queue(EVENT_SNAPSHOT_QUEUE, true);
+    }
+    
+    @Bean
+    public Queue eventSnapshotDeletedQueue() {
+        return new Queue(EVENT_SNAPSHOT_DELETED_QUEUE, true);
+    }
+    
+    @Bean
+    public Binding eventSnapshotCreatedBinding() {
+        return BindingBuilder.bind(eventSnapshotQueue())
+                .to(eventExchange())
+                .with("event.created");
+    }
+    
+    @Bean
+    public Binding eventSnapshotUpdatedBinding() {
+        return BindingBuilder.bind(eventSnapshotQueue())
+                .to(eventExchange())
+                .with("event.updated");
+    }
+    
+    @Bean
+    public Binding eventSnapshotDeletedBinding() {
+        return BindingBuilder.bind(eventSnapshotDeletedQueue())
+                .to(eventExchange())
+                .with("event.deleted");
+    }
+    
+    /**
+     * Every replica keeps its own sold-out cache, so each one gets a private auto-delete queue.
+     */
+    @Bean
+    public Queue ticketAvailabilityQueue() {
+        return new AnonymousQueue();
+    }
+    
+    @Bean
+    public Binding ticketAvailabilityBinding() {
+        return BindingBuilder.bind(ticketAvailabilityQueue())
+                .to(eventExchange())
+                .with(TICKET_AVAILABILITY_ROUTING_KEY);
+    }
+    
     @Bean
     public MessageConverter jsonMessageConverter() {
         ObjectMapper objectMapper = new ObjectMapper();
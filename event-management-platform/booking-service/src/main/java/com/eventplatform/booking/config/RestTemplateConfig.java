@@ -1,14 +1,64 @@
 package com.eventplatform.booking.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * Outbound HTTP for calls that do not go through Feign. Connections are pooled and kept alive,
+ * every call is bounded by timeouts, host names are Eureka service ids resolved by the load
+ * balancer, and building through {@link RestTemplateBuilder} records {@code http.client.requests}
+ * timers tagged with the target service.
+ */
 @Configuration
 public class RestTemplateConfig {
     
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient outboundHttpClient(
+            @Value("${booking.http.max-connections:200}") int maxConnections,
+            @Value("${booking.http.max-connections-per-route:50}") int maxConnectionsPerRoute,
+            @Value("${booking.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${booking.http.read-timeout-ms:5000}") long readTimeoutMs,
+            @Value("${booking.http.pool-timeout-ms:1000}") long poolTimeoutMs) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+        
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .evictExpiredConnections()
+                .build();
+    }
+    
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    @LoadBalanced
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient outboundHttpClient) {
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(outboundHttpClient))
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,25 @@
 package com.eventplatform.booking.controller;
 
+import com.eventplatform.booking.dto.BookingPageDTO;
+import com.eventplatform.booking.dto.EventSalesStatsDTO;
+import com.eventplatform.booking.dto.UserBookingViewDTO;
 import com.eventplatform.booking.entity.Booking;
+import com.eventplatform.booking.entity.BookingEvent;
+import com.eventplatform.booking.entity.Booking.BookingStatus;
+import com.eventplatform.booking.entity.BulkCancellationJob;
+import com.eventplatform.booking.service.BookingQueryService;
 import com.eventplatform.booking.service.BookingService;
+import com.eventplatform.booking.service.BookingTimelineService;
+import com.eventplatform.booking.service.BulkCancellationService;
+import com.eventplatform.booking.service.IdempotencyService;
+import com.eventplatform.booking.service.SalesStatsService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -16,40 +29,121 @@ import java.util.List;
 public class BookingController {
     
     private final BookingService bookingService;
+    private final IdempotencyService idempotencyService;
+    private final BookingQueryService bookingQueryService;
+    private final BulkCancellationService bulkCancellationService;
+    private final SalesStatsService salesStatsService;
+    private final BookingTimelineService timelineService;
     
     @GetMapping
     public ResponseEntity<List<Booking>> getAllBookings() {
         return ResponseEntity.ok(bookingService.getAllBookings());
     }
     
+    @GetMapping("/page")
+    public ResponseEntity<BookingPageDTO> getBookingsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(bookingQueryService.getBookings(cursor, limit));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Booking> getBookingById(@PathVariable Long id) {
         return ResponseEntity.ok(bookingService.getBookingById(id));
     }
     
+    @GetMapping("/{id}/timeline")
+    public ResponseEntity<List<BookingEvent>> getBookingTimeline(@PathVariable Long id) {
+        return ResponseEntity.ok(timelineService.getTimeline(id));
+    }
+    
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<Booking>> getBookingsByUserId(@PathVariable Long userId) {
         return ResponseEntity.ok(bookingService.getBookingsByUserId(userId));
     }
     
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<BookingPageDTO> getBookingsPageByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(bookingQueryService.getBookingsByUserId(userId, cursor, limit));
+    }
+    
+    @GetMapping("/user/{userId}/view")
+    public ResponseEntity<List<UserBookingViewDTO>> getUserBookingView(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(bookingQueryService.getUserBookingView(userId, limit));
+    }
+    
     @GetMapping("/event/{eventId}")
     public ResponseEntity<List<Booking>> getBookingsByEventId(@PathVariable Long eventId) {
         return ResponseEntity.ok(bookingService.getBookingsByEventId(eventId));
     }
     
+    @GetMapping("/event/{eventId}/page")
+    public ResponseEntity<BookingPageDTO> getBookingsPageByEventId(
+            @PathVariable Long eventId,
+            @RequestParam(required = false) BookingStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(bookingQueryService.getBookingsByEventId(eventId, status, cursor, limit));
+    }
+    
+    @GetMapping("/event/{eventId}/stats")
+    public ResponseEntity<EventSalesStatsDTO> getEventSalesStats(@PathVariable Long eventId) {
+        return ResponseEntity.ok(salesStatsService.getStats(eventId));
+    }
+    
+    @PostMapping("/event/{eventId}/stats/rebuild")
+    public ResponseEntity<EventSalesStatsDTO> rebuildEventSalesStats(@PathVariable Long eventId) {
+        return ResponseEntity.ok(salesStatsService.rebuild(eventId));
+    }
+    
+    @GetMapping("/event/{eventId}/export")
+    public ResponseEntity<StreamingResponseBody> exportBookingsByEventId(@PathVariable Long eventId) {
+        StreamingResponseBody body = out -> bookingQueryService.exportBookingsByEventId(eventId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+    
+    @GetMapping("/status/{status}/page")
+    public ResponseEntity<BookingPageDTO> getBookingsPageByStatus(
+            @PathVariable BookingStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(bookingQueryService.getBookingsByStatus(status, cursor, limit));
+    }
+    
     @GetMapping("/confirmation/{code}")
     public ResponseEntity<Booking> getBookingByConfirmationCode(@PathVariable String code) {
         return ResponseEntity.ok(bookingService.getBookingByConfirmationCode(code));
     }
     
     @PostMapping
-    public ResponseEntity<Booking> createBooking(@Valid @RequestBody Booking booking) {
+    public ResponseEntity<Booking> createBooking(
+            @Valid @RequestBody Booking booking,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(bookingService.createBooking(booking));
+                .body(idempotencyService.execute(idempotencyKey, booking,
+                        () -> bookingService.createBooking(booking)));
     }
     
     @PutMapping("/{id}/cancel")
     public ResponseEntity<Booking> cancelBooking(@PathVariable Long id) {
         return ResponseEntity.ok(bookingService.cancelBooking(id));
     }
+    
+    @PostMapping("/event/{eventId}/cancel-all")
+    public ResponseEntity<BulkCancellationJob> cancelAllBookingsForEvent(@PathVariable Long eventId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(bulkCancellationService.cancelAllForEvent(eventId));
+    }
+    
+    @GetMapping("/cancellation-jobs/{jobId}")
+    public ResponseEntity<BulkCancellationJob> getCancellationJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(bulkCancellationService.getJob(jobId));
+    }
 }
\ No newline at end of file
@@ -1,10 +1,14 @@
 package com.eventplatform.booking.controller;
 
+import com.eventplatform.booking.dto.BulkRefundJobDTO;
+import com.eventplatform.booking.dto.BulkRefundRequestDTO;
 import com.eventplatform.booking.dto.RefundRequestDTO;
 import com.eventplatform.booking.entity.Booking;
 import com.eventplatform.booking.service.BookingService;
+import com.eventplatform.booking.service.BulkRefundService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,6 +21,7 @@ import java.util.Map;
 public class RefundController {
     
     private final BookingService bookingService;
+    private final BulkRefundService bulkRefundService;
     
     @PostMapping("/request")
     public ResponseEntity<Booking> requestRefund(@Valid @RequestBody RefundRequestDTO request) {
@@ -51,6 +56,17 @@ public class RefundController {
         return ResponseEntity.ok(booking);
     }
     
+    @PostMapping("/bulk-process")
+    public ResponseEntity<BulkRefundJobDTO> processRefundsInBulk(@RequestBody BulkRefundRequestDTO request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(bulkRefundService.startBulkRefund(request));
+    }
+    
+    @GetMapping("/bulk-jobs/{jobId}")
+    public ResponseEntity<BulkRefundJobDTO> getBulkRefundJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(bulkRefundService.getJob(jobId));
+    }
+    
     @GetMapping("/pending")
     public ResponseEntity<List<Booking>> getPendingRefunds() {
         return ResponseEntity.ok(bookingService.getPendingRefunds());
@@ -0,0 +1,16 @@
+package com.eventplatform.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingBatchMessageDTO {
+    private Long eventId;
+    private String reason;
+    private List<BookingMessageDTO> bookings;
+}
@@ -0,0 +1,17 @@
+package com.eventplatform.booking.dto;
+
+import com.eventplatform.booking.entity.Booking;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingPageDTO {
+    private List<Booking> content;
+    private String nextCursor;
+    private boolean hasMore;
+}
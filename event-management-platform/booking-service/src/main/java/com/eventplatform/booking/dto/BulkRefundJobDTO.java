@@ -0,0 +1,32 @@
+package com.eventplatform.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRefundJobDTO {
+    private String jobId;
+    private String status;
+    private boolean approve;
+    private int totalBookings;
+    private int processedBookings;
+    private int succeededBookings;
+    private int releasedTickets;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private List<Failure> failures;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Failure {
+        private Long bookingId;
+        private String message;
+    }
+}
@@ -0,0 +1,17 @@
+package com.eventplatform.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRefundRequestDTO {
+    private Long eventId;
+    private List<Long> bookingIds;
+    private Boolean approve;
+    private String adminNotes;
+}
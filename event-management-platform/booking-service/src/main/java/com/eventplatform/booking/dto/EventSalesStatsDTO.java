@@ -0,0 +1,23 @@
+package com.eventplatform.booking.dto;
+
+import com.eventplatform.booking.entity.EventSalesStats;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventSalesStatsDTO {
+    private Long eventId;
+    private long soldBookings;
+    private long soldTickets;
+    private long cancelledTickets;
+    private long refundedTickets;
+    private long checkedInTickets;
+    private double revenue;
+    private double refundedAmount;
+    private List<EventSalesStats> ticketTypes;
+}
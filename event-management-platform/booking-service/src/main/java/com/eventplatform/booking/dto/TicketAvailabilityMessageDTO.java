@@ -0,0 +1,19 @@
+package com.eventplatform.booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TicketAvailabilityMessageDTO {
+    private Long ticketTypeId;
+    private Long eventId;
+    private String name;
+    private Integer availableTickets;
+    private Boolean active;
+    private Long timestamp;
+}
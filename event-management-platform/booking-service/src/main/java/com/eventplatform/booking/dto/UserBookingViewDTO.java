@@ -0,0 +1,28 @@
+package com.eventplatform.booking.dto;
+
+import com.eventplatform.booking.entity.Booking.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBookingViewDTO {
+    private Long id;
+    private String confirmationCode;
+    private Long eventId;
+    private Long ticketTypeId;
+    private Integer quantity;
+    private Double totalPrice;
+    private BookingStatus status;
+    private LocalDateTime bookingDate;
+    private LocalDateTime cancelledDate;
+    private String eventName;
+    private LocalDateTime eventDate;
+    private String eventLocation;
+    private String eventStatus;
+    private Boolean eventDeleted;
+}
@@ -8,7 +8,12 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_bookings_event_status", columnList = "eventId, status"),
+    @Index(name = "idx_bookings_user_booking_date", columnList = "userId, bookingDate"),
+    @Index(name = "idx_bookings_status", columnList = "status"),
+    @Index(name = "idx_bookings_status_expires_at", columnList = "status, expiresAt")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -60,6 +65,9 @@ private String refundRejectionReason;
     @Column(length = 500)
     private String notes;
     
+    @Column
+    private LocalDateTime expiresAt;
+    
     @PrePersist
     protected void onCreate() {
         bookingDate = LocalDateTime.now();
@@ -0,0 +1,62 @@
+package com.eventplatform.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a booking's append-only timeline. Ids come from a pooled sequence so that many
+ * entries written in one transaction go out as a single JDBC batch.
+ */
+@Entity
+@Table(name = "booking_events", indexes = {
+    @Index(name = "idx_booking_events_booking_id", columnList = "bookingId, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_events_seq")
+    @SequenceGenerator(name = "booking_events_seq", sequenceName = "booking_events_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long bookingId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private BookingEventType type;
+    
+    @Column(length = 100)
+    private String actor;
+    
+    @Column(length = 500)
+    private String details;
+    
+    @Column(nullable = false)
+    private LocalDateTime occurredAt = LocalDateTime.now();
+    
+    public BookingEvent(Long bookingId, BookingEventType type, String actor, String details, LocalDateTime occurredAt) {
+        this.bookingId = bookingId;
+        this.type = type;
+        this.actor = actor;
+        this.details = details;
+        this.occurredAt = occurredAt;
+    }
+    
+    public enum BookingEventType {
+        CONFIRMED,
+        CANCELLED,
+        EXPIRED,
+        REFUND_REQUESTED,
+        REFUND_APPROVED,
+        REFUND_REJECTED,
+        PAYMENT_REFUNDED,
+        CHECKED_IN
+    }
+}
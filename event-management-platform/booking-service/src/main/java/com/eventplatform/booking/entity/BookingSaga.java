@@ -0,0 +1,70 @@
+package com.eventplatform.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "booking_sagas", indexes = {
+    @Index(name = "idx_booking_sagas_booking_id", columnList = "bookingId", unique = true),
+    @Index(name = "idx_booking_sagas_step_updated", columnList = "step, updatedAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSaga {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long bookingId;
+    
+    @Column(nullable = false)
+    private Long eventId;
+    
+    @Column
+    private Long ticketTypeId;
+    
+    @Column(nullable = false)
+    private Integer quantity;
+    
+    // Sent to event-service with the reserve and the release; null for sagas that predate it
+    @Column(length = 64)
+    private String reservationId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SagaStep step = SagaStep.STARTED;
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(length = 500)
+    private String lastError;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+    
+    public enum SagaStep {
+        STARTED,
+        RESERVED,
+        CONFIRMED,
+        ABORTED,
+        COMPENSATING,
+        COMPENSATED
+    }
+}
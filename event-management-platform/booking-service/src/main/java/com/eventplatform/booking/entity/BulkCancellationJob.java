@@ -0,0 +1,69 @@
+package com.eventplatform.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "bulk_cancellation_jobs", indexes = {
+    @Index(name = "idx_bulk_cancellation_jobs_event_status", columnList = "eventId, status"),
+    @Index(name = "idx_bulk_cancellation_jobs_status_updated", columnList = "status, updatedAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCancellationJob {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long eventId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobStatus status = JobStatus.RUNNING;
+    
+    @Column(nullable = false)
+    private Long lastBookingId = 0L;
+    
+    @Column(nullable = false)
+    private Integer processedBookings = 0;
+    
+    @Column(nullable = false)
+    private Integer cancelledBookings = 0;
+    
+    @Column(nullable = false)
+    private Integer releasedTickets = 0;
+    
+    @Column(nullable = false)
+    private Integer chunks = 0;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime startedAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @Column
+    private LocalDateTime completedAt;
+    
+    @Column(length = 500)
+    private String errorMessage;
+    
+    @PrePersist
+    protected void onCreate() {
+        startedAt = LocalDateTime.now();
+        updatedAt = startedAt;
+    }
+    
+    public enum JobStatus {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
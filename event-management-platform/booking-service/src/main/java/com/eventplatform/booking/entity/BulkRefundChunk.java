@@ -0,0 +1,53 @@
+package com.eventplatform.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of one chunk of a {@link BulkRefundJob}, written in the chunk's own transaction. The
+ * unique key makes a chunk count once even if two replicas run it.
+ */
+@Entity
+@Table(name = "bulk_refund_chunks", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_bulk_refund_chunks_job_chunk", columnNames = {"jobId", "chunkIndex"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRefundChunk {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 36)
+    private String jobId;
+    
+    @Column(nullable = false)
+    private Integer chunkIndex;
+    
+    @Column(nullable = false)
+    private Integer processedBookings = 0;
+    
+    @Column(nullable = false)
+    private Integer succeededBookings = 0;
+    
+    @Column(nullable = false)
+    private Integer releasedTickets = 0;
+    
+    // One "bookingId:message" per line
+    @Column(columnDefinition = "TEXT")
+    private String failures;
+    
+    @Column(nullable = false)
+    private LocalDateTime completedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        completedAt = LocalDateTime.now();
+    }
+}
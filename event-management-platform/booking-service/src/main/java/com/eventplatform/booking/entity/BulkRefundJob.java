@@ -0,0 +1,74 @@
+package com.eventplatform.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A bulk refund decision. The selected booking ids are stored with the job so a replica taking it
+ * over after a crash processes exactly the same chunks; progress lives in {@link BulkRefundChunk}.
+ */
+@Entity
+@Table(name = "bulk_refund_jobs", indexes = {
+    @Index(name = "idx_bulk_refund_jobs_status_updated", columnList = "status, updatedAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRefundJob {
+    
+    @Id
+    @Column(length = 36)
+    private String id;
+    
+    @Column
+    private Long eventId;
+    
+    @Column(nullable = false)
+    private Boolean approve;
+    
+    @Column(length = 1000)
+    private String adminNotes;
+    
+    // Comma separated, sorted
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String bookingIds;
+    
+    @Column(nullable = false)
+    private Integer totalBookings;
+    
+    @Column(nullable = false)
+    private Integer chunkSize;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobStatus status = JobStatus.RUNNING;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime startedAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @Column
+    private LocalDateTime completedAt;
+    
+    @Column(length = 500)
+    private String errorMessage;
+    
+    @PrePersist
+    protected void onCreate() {
+        startedAt = LocalDateTime.now();
+        updatedAt = startedAt;
+    }
+    
+    public enum JobStatus {
+        RUNNING,
+        COMPLETED,
+        COMPLETED_WITH_FAILURES,
+        FAILED
+    }
+}
@@ -0,0 +1,58 @@
+package com.eventplatform.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running sales counters for one ticket type of an event. Bookings without a ticket type are
+ * counted under ticketTypeId 0. Event totals are the sum of an event's rows.
+ */
+@Entity
+@Table(name = "event_sales_stats", indexes = {
+    @Index(name = "idx_event_sales_stats_event_ticket_type", columnList = "eventId, ticketTypeId", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventSalesStats {
+    
+    public static final long NO_TICKET_TYPE = 0L;
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long eventId;
+    
+    @Column(nullable = false)
+    private Long ticketTypeId;
+    
+    @Column(nullable = false)
+    private long soldBookings;
+    
+    @Column(nullable = false)
+    private long soldTickets;
+    
+    @Column(nullable = false)
+    private long cancelledTickets;
+    
+    @Column(nullable = false)
+    private long refundedTickets;
+    
+    @Column(nullable = false)
+    private long checkedInTickets;
+    
+    @Column(nullable = false)
+    private double revenue;
+    
+    @Column(nullable = false)
+    private double refundedAmount;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,44 @@
+package com.eventplatform.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Local copy of the event fields shown next to a booking, kept up to date from event.exchange so
+ * booking listings never call event-service.
+ */
+@Entity
+@Table(name = "event_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventSnapshot {
+    
+    @Id
+    private Long id;
+    
+    @Column(nullable = false)
+    private String name;
+    
+    @Column
+    private LocalDateTime date;
+    
+    @Column
+    private String location;
+    
+    @Column
+    private String category;
+    
+    @Column
+    private String status;
+    
+    @Column(nullable = false)
+    private boolean deleted = false;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,44 @@
+package com.eventplatform.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+    @Index(name = "idx_idempotency_keys_expires_at", columnList = "expiresAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    
+    @Id
+    @Column(length = 100)
+    private String idempotencyKey;
+    
+    @Column(nullable = false, length = 200)
+    private String requestFingerprint;
+    
+    @Column
+    private Long bookingId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private IdempotencyStatus status;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Lease end while IN_PROGRESS, so a claim whose owner died can be taken over; TTL once COMPLETED
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    
+    public enum IdempotencyStatus {
+        IN_PROGRESS,
+        COMPLETED
+    }
+}
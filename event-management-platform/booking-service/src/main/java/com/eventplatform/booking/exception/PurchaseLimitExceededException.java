@@ -0,0 +1,15 @@
+package com.eventplatform.booking.exception;
+
+public class PurchaseLimitExceededException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public PurchaseLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,7 @@
+package com.eventplatform.booking.exception;
+
+public class TicketsUnavailableException extends RuntimeException {
+    public TicketsUnavailableException(String message) {
+        super(message);
+    }
+}
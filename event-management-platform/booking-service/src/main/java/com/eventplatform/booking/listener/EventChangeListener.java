@@ -0,0 +1,29 @@
+package com.eventplatform.booking.listener;
+
+import com.eventplatform.booking.config.RabbitMQConfig;
+import com.eventplatform.booking.dto.EventDTO;
+import com.eventplatform.booking.service.EventSnapshotService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class EventChangeListener {
+    
+    private final EventSnapshotService snapshotService;
+    
+    @RabbitListener(queues = RabbitMQConfig.EVENT_SNAPSHOT_QUEUE)
+    public void onEventChanged(EventDTO event) {
+        log.debug("Event snapshot update received for event {}", event.getId());
+        snapshotService.apply(event);
+    }
+    
+    @RabbitListener(queues = RabbitMQConfig.EVENT_SNAPSHOT_DELETED_QUEUE)
+    public void onEventDeleted(Long eventId) {
+        log.info("Event {} deleted, marking snapshot", eventId);
+        snapshotService.markDeleted(eventId);
+    }
+}
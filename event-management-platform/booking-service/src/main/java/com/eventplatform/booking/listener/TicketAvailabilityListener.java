@@ -0,0 +1,22 @@
+package com.eventplatform.booking.listener;
+
+import com.eventplatform.booking.dto.TicketAvailabilityMessageDTO;
+import com.eventplatform.booking.service.SoldOutCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class TicketAvailabilityListener {
+    
+    private final SoldOutCache soldOutCache;
+    
+    @RabbitListener(queues = "#{ticketAvailabilityQueue.name}")
+    public void onAvailabilityChanged(TicketAvailabilityMessageDTO message) {
+        log.debug("Ticket type {} availability: {}", message.getTicketTypeId(), message.getAvailableTickets());
+        soldOutCache.record(message);
+    }
+}
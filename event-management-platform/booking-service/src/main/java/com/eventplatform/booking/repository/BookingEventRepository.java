@@ -0,0 +1,13 @@
+package com.eventplatform.booking.repository;
+
+import com.eventplatform.booking.entity.BookingEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BookingEventRepository extends JpaRepository<BookingEvent, Long> {
+    
+    List<BookingEvent> findByBookingIdOrderByIdAsc(Long bookingId);
+}
@@ -1,12 +1,26 @@
 package com.eventplatform.booking.repository;
 
+import com.eventplatform.booking.dto.UserBookingViewDTO;
 import com.eventplatform.booking.entity.Booking;
 import com.eventplatform.booking.entity.Booking.BookingStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
@@ -20,4 +34,86 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     Optional<Booking> findByConfirmationCode(String confirmationCode);
     
     List<Booking> findByEventIdAndStatus(Long eventId, BookingStatus status);
+    
+    List<Booking> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+    
+    List<Booking> findByEventIdAndIdGreaterThanOrderByIdAsc(Long eventId, Long afterId, Limit limit);
+    
+    List<Booking> findByEventIdAndStatusAndIdGreaterThanOrderByIdAsc(
+            Long eventId, BookingStatus status, Long afterId, Limit limit);
+    
+    List<Booking> findByStatusAndIdGreaterThanOrderByIdAsc(BookingStatus status, Long afterId, Limit limit);
+    
+    List<Booking> findByUserIdOrderByBookingDateDescIdDesc(Long userId, Limit limit);
+    
+    @Query("SELECT b FROM Booking b WHERE b.userId = :userId " +
+           "AND (b.bookingDate < :bookingDate OR (b.bookingDate = :bookingDate AND b.id < :id)) " +
+           "ORDER BY b.bookingDate DESC, b.id DESC")
+    List<Booking> findUserPageBefore(@Param("userId") Long userId,
+                                     @Param("bookingDate") LocalDateTime bookingDate,
+                                     @Param("id") Long id,
+                                     Limit limit);
+    
+    @Query("SELECT new com.eventplatform.booking.dto.UserBookingViewDTO(" +
+           "b.id, b.confirmationCode, b.eventId, b.ticketTypeId, b.quantity, b.totalPrice, b.status, " +
+           "b.bookingDate, b.cancelledDate, e.name, e.date, e.location, e.status, e.deleted) " +
+           "FROM Booking b LEFT JOIN EventSnapshot e ON e.id = b.eventId " +
+           "WHERE b.userId = :userId ORDER BY b.bookingDate DESC, b.id DESC")
+    List<UserBookingViewDTO> findUserBookingViews(@Param("userId") Long userId, Limit limit);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.eventId = :eventId AND b.id > :afterId ORDER BY b.id")
+    List<Booking> findChunkForUpdate(@Param("eventId") Long eventId, @Param("afterId") Long afterId, Limit limit);
+    
+    @Query("SELECT b.id FROM Booking b WHERE b.status = :status ORDER BY b.id")
+    List<Long> findIdsByStatus(@Param("status") BookingStatus status);
+    
+    @Query("SELECT b.id FROM Booking b WHERE b.eventId = :eventId AND b.status = :status ORDER BY b.id")
+    List<Long> findIdsByEventIdAndStatus(@Param("eventId") Long eventId, @Param("status") BookingStatus status);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id IN :ids ORDER BY b.id")
+    List<Booking> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Leases a batch of expired pending bookings. Rows locked by another replica are skipped rather
+     * than waited on; bookings from before expiresAt existed expire from their booking date.
+     */
+    @Query(value = "SELECT * FROM bookings WHERE status = 'PENDING' " +
+                   "AND (expires_at < :now OR (expires_at IS NULL AND booking_date < :legacyBefore)) " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Booking> findExpiredPendingForUpdate(@Param("now") LocalDateTime now,
+                                              @Param("legacyBefore") LocalDateTime legacyBefore,
+                                              @Param("limit") int limit);
+    
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.id = :id AND b.status = :status")
+    int deleteByIdAndStatus(@Param("id") Long id, @Param("status") BookingStatus status);
+    
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :status, b.cancelledDate = :cancelledDate WHERE b.id IN :ids")
+    int cancelAll(@Param("ids") Collection<Long> ids,
+                  @Param("status") BookingStatus status,
+                  @Param("cancelledDate") LocalDateTime cancelledDate);
+    
+    /**
+     * Sales aggregate of an event, leaving out bookings that were cancelled while still PENDING
+     * (recognisable by their EXPIRED timeline entry), since those were never sold.
+     */
+    @Query("SELECT b.ticketTypeId, b.status, COUNT(b), SUM(b.quantity), SUM(b.totalPrice), SUM(b.refundAmount) " +
+           "FROM Booking b WHERE b.eventId = :eventId " +
+           "AND NOT (b.status = com.eventplatform.booking.entity.Booking.BookingStatus.CANCELLED AND EXISTS (" +
+           "SELECT 1 FROM BookingEvent e WHERE e.bookingId = b.id " +
+           "AND e.type = com.eventplatform.booking.entity.BookingEvent.BookingEventType.EXPIRED)) " +
+           "GROUP BY b.ticketTypeId, b.status")
+    List<Object[]> aggregateSoldByEventIdGroupByTicketTypeAndStatus(@Param("eventId") Long eventId);
+    
+    @Query("SELECT b.userId, b.eventId, SUM(b.quantity) FROM Booking b " +
+           "WHERE b.status IN :statuses AND b.bookingDate >= :since GROUP BY b.userId, b.eventId")
+    List<Object[]> sumHeldTicketsByUserAndEvent(@Param("statuses") Collection<BookingStatus> statuses,
+                                                @Param("since") LocalDateTime since);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<Booking> streamByEventIdOrderByIdAsc(Long eventId);
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.eventplatform.booking.repository;
+
+import com.eventplatform.booking.entity.BookingSaga;
+import com.eventplatform.booking.entity.BookingSaga.SagaStep;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BookingSagaRepository extends JpaRepository<BookingSaga, Long> {
+    
+    List<BookingSaga> findByStepInAndUpdatedAtBeforeOrderByUpdatedAtAsc(
+            Collection<SagaStep> steps, LocalDateTime updatedBefore, Limit limit);
+    
+    /**
+     * Moves a saga forward only if it is still in the expected step, so the request thread and the
+     * recovery worker can never both act on the same saga.
+     */
+    @Modifying
+    @Query("UPDATE BookingSaga s SET s.step = :to, s.updatedAt = :now, s.lastError = :error " +
+           "WHERE s.id = :id AND s.step = :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") SagaStep from,
+                   @Param("to") SagaStep to,
+                   @Param("error") String error,
+                   @Param("now") LocalDateTime now);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE BookingSaga s SET s.updatedAt = :now, s.attempts = s.attempts + 1 " +
+           "WHERE s.id = :id AND s.step = :step AND s.updatedAt < :staleBefore")
+    int claim(@Param("id") Long id,
+              @Param("step") SagaStep step,
+              @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+    
+    List<BookingSaga> findByBookingIdIn(Collection<Long> bookingIds);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE BookingSaga s SET s.step = com.eventplatform.booking.entity.BookingSaga.SagaStep.COMPENSATED, " +
+           "s.updatedAt = :now WHERE s.id IN :ids " +
+           "AND s.step = com.eventplatform.booking.entity.BookingSaga.SagaStep.COMPENSATING")
+    int completeCompensation(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM BookingSaga s WHERE s.step IN :steps AND s.updatedAt < :before")
+    int deleteFinishedBefore(@Param("steps") Collection<SagaStep> steps, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,36 @@
+package com.eventplatform.booking.repository;
+
+import com.eventplatform.booking.entity.BulkCancellationJob;
+import com.eventplatform.booking.entity.BulkCancellationJob.JobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BulkCancellationJobRepository extends JpaRepository<BulkCancellationJob, Long> {
+    
+    Optional<BulkCancellationJob> findFirstByEventIdAndStatusInOrderByIdDesc(Long eventId, List<JobStatus> statuses);
+    
+    List<BulkCancellationJob> findByStatusAndUpdatedAtBefore(JobStatus status, LocalDateTime updatedBefore);
+    
+    /**
+     * Takes over a job in the expected status whose heartbeat is older than {@code staleBefore}.
+     * Only one replica can win, since the heartbeat it writes makes the job fresh again.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE BulkCancellationJob j SET j.status = com.eventplatform.booking.entity.BulkCancellationJob.JobStatus.RUNNING, " +
+           "j.updatedAt = :now, j.errorMessage = NULL " +
+           "WHERE j.id = :id AND j.status = :expected AND j.updatedAt < :staleBefore")
+    int claim(@Param("id") Long id,
+              @Param("expected") JobStatus expected,
+              @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+}
@@ -0,0 +1,28 @@
+package com.eventplatform.booking.repository;
+
+import com.eventplatform.booking.entity.BulkRefundChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BulkRefundChunkRepository extends JpaRepository<BulkRefundChunk, Long> {
+    
+    List<BulkRefundChunk> findByJobIdOrderByChunkIndex(String jobId);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE BulkRefundChunk c SET c.releasedTickets = c.releasedTickets + :tickets WHERE c.id = :id")
+    int addReleasedTickets(@Param("id") Long id, @Param("tickets") int tickets);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM BulkRefundChunk c WHERE c.jobId IN :jobIds")
+    int deleteByJobIdIn(@Param("jobIds") Collection<String> jobIds);
+}
@@ -0,0 +1,42 @@
+package com.eventplatform.booking.repository;
+
+import com.eventplatform.booking.entity.BulkRefundJob;
+import com.eventplatform.booking.entity.BulkRefundJob.JobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BulkRefundJobRepository extends JpaRepository<BulkRefundJob, String> {
+    
+    List<BulkRefundJob> findByStatusAndUpdatedAtBefore(JobStatus status, LocalDateTime updatedBefore);
+    
+    /**
+     * Takes over a running job whose heartbeat is older than {@code staleBefore}. Only one replica
+     * can win, since the heartbeat it writes makes the job fresh again.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE BulkRefundJob j SET j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.status = com.eventplatform.booking.entity.BulkRefundJob.JobStatus.RUNNING " +
+           "AND j.updatedAt < :staleBefore")
+    int claim(@Param("id") String id,
+              @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE BulkRefundJob j SET j.updatedAt = :now WHERE j.id = :id")
+    int heartbeat(@Param("id") String id, @Param("now") LocalDateTime now);
+    
+    @Query("SELECT j.id FROM BulkRefundJob j WHERE j.status IN :statuses AND j.completedAt < :before")
+    List<String> findIdsFinishedBefore(@Param("statuses") Collection<JobStatus> statuses,
+                                       @Param("before") LocalDateTime before);
+}
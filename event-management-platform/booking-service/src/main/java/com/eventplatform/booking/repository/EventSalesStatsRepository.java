@@ -0,0 +1,72 @@
+package com.eventplatform.booking.repository;
+
+import com.eventplatform.booking.entity.EventSalesStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EventSalesStatsRepository extends JpaRepository<EventSalesStats, Long> {
+    
+    List<EventSalesStats> findByEventIdOrderByTicketTypeIdAsc(Long eventId);
+    
+    /**
+     * Adds the given deltas to the counters of one ticket type, creating the row on first use. Runs
+     * in the caller's transaction so the counters commit together with the status change.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO event_sales_stats (event_id, ticket_type_id, sold_bookings, sold_tickets, " +
+                   "cancelled_tickets, refunded_tickets, checked_in_tickets, revenue, refunded_amount, updated_at) " +
+                   "VALUES (:eventId, :ticketTypeId, :soldBookings, :soldTickets, :cancelledTickets, " +
+                   ":refundedTickets, :checkedInTickets, :revenue, :refundedAmount, :now) " +
+                   "ON CONFLICT (event_id, ticket_type_id) DO UPDATE SET " +
+                   "sold_bookings = event_sales_stats.sold_bookings + EXCLUDED.sold_bookings, " +
+                   "sold_tickets = event_sales_stats.sold_tickets + EXCLUDED.sold_tickets, " +
+                   "cancelled_tickets = event_sales_stats.cancelled_tickets + EXCLUDED.cancelled_tickets, " +
+                   "refunded_tickets = event_sales_stats.refunded_tickets + EXCLUDED.refunded_tickets, " +
+                   "checked_in_tickets = event_sales_stats.checked_in_tickets + EXCLUDED.checked_in_tickets, " +
+                   "revenue = event_sales_stats.revenue + EXCLUDED.revenue, " +
+                   "refunded_amount = event_sales_stats.refunded_amount + EXCLUDED.refunded_amount, " +
+                   "updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    int increment(@Param("eventId") Long eventId,
+                  @Param("ticketTypeId") Long ticketTypeId,
+                  @Param("soldBookings") long soldBookings,
+                  @Param("soldTickets") long soldTickets,
+                  @Param("cancelledTickets") long cancelledTickets,
+                  @Param("refundedTickets") long refundedTickets,
+                  @Param("checkedInTickets") long checkedInTickets,
+                  @Param("revenue") double revenue,
+                  @Param("refundedAmount") double refundedAmount,
+                  @Param("now") LocalDateTime now);
+    
+    /**
+     * Sets the counters of one ticket type to the given values, creating the row if needed.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO event_sales_stats (event_id, ticket_type_id, sold_bookings, sold_tickets, " +
+                   "cancelled_tickets, refunded_tickets, checked_in_tickets, revenue, refunded_amount, updated_at) " +
+                   "VALUES (:eventId, :ticketTypeId, :soldBookings, :soldTickets, :cancelledTickets, " +
+                   ":refundedTickets, :checkedInTickets, :revenue, :refundedAmount, :now) " +
+                   "ON CONFLICT (event_id, ticket_type_id) DO UPDATE SET " +
+                   "sold_bookings = EXCLUDED.sold_bookings, sold_tickets = EXCLUDED.sold_tickets, " +
+                   "cancelled_tickets = EXCLUDED.cancelled_tickets, refunded_tickets = EXCLUDED.refunded_tickets, " +
+                   "checked_in_tickets = EXCLUDED.checked_in_tickets, revenue = EXCLUDED.revenue, " +
+                   "refunded_amount = EXCLUDED.refunded_amount, updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    int overwrite(@Param("eventId") Long eventId,
+                  @Param("ticketTypeId") Long ticketTypeId,
+                  @Param("soldBookings") long soldBookings,
+                  @Param("soldTickets") long soldTickets,
+                  @Param("cancelledTickets") long cancelledTickets,
+                  @Param("refundedTickets") long refundedTickets,
+                  @Param("checkedInTickets") long checkedInTickets,
+                  @Param("revenue") double revenue,
+                  @Param("refundedAmount") double refundedAmount,
+                  @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,51 @@
+package com.eventplatform.booking.repository;
+
+import com.eventplatform.booking.entity.EventSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EventSnapshotRepository extends JpaRepository<EventSnapshot, Long> {
+    
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO event_snapshots (id, name, date, location, category, status, deleted, updated_at) " +
+                   "VALUES (:id, :name, :date, :location, :category, :status, false, :now) " +
+                   "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, date = EXCLUDED.date, " +
+                   "location = EXCLUDED.location, category = EXCLUDED.category, status = EXCLUDED.status, " +
+                   "updated_at = EXCLUDED.updated_at " +
+                   "WHERE event_snapshots.deleted = false",
+           nativeQuery = true)
+    int upsert(@Param("id") Long id,
+               @Param("name") String name,
+               @Param("date") LocalDateTime date,
+               @Param("location") String location,
+               @Param("category") String category,
+               @Param("status") String status,
+               @Param("now") LocalDateTime now);
+    
+    /**
+     * Marks the event deleted, inserting a tombstone when no snapshot exists yet, so an update that
+     * arrives after the delete can never bring the event back.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO event_snapshots (id, name, deleted, updated_at) " +
+                   "VALUES (:id, :placeholderName, true, :now) " +
+                   "ON CONFLICT (id) DO UPDATE SET deleted = true, updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    int markDeleted(@Param("id") Long id,
+                    @Param("placeholderName") String placeholderName,
+                    @Param("now") LocalDateTime now);
+    
+    @Query("SELECT e.id FROM EventSnapshot e WHERE e.id IN :ids AND (e.deleted = true OR e.date < :before)")
+    List<Long> findEndedIds(@Param("ids") Collection<Long> ids, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,55 @@
+package com.eventplatform.booking.repository;
+
+import com.eventplatform.booking.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    
+    /**
+     * Claims a key for the calling request. An expired row (a completed key past its TTL, or an
+     * in-progress claim past its lease) is taken over, a live one is left untouched, so the returned
+     * count tells whether this request owns the key.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys " +
+                   "(idempotency_key, request_fingerprint, status, created_at, expires_at) " +
+                   "VALUES (:key, :fingerprint, 'IN_PROGRESS', :now, :expiresAt) " +
+                   "ON CONFLICT (idempotency_key) DO UPDATE SET " +
+                   "request_fingerprint = EXCLUDED.request_fingerprint, booking_id = NULL, " +
+                   "status = 'IN_PROGRESS', created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at " +
+                   "WHERE idempotency_keys.expires_at < :now",
+           nativeQuery = true)
+    int claim(@Param("key") String key,
+              @Param("fingerprint") String fingerprint,
+              @Param("now") LocalDateTime now,
+              @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.bookingId = :bookingId, r.expiresAt = :expiresAt, " +
+           "r.status = com.eventplatform.booking.entity.IdempotencyRecord.IdempotencyStatus.COMPLETED " +
+           "WHERE r.idempotencyKey = :key AND r.createdAt = :claimedAt")
+    int complete(@Param("key") String key,
+                 @Param("claimedAt") LocalDateTime claimedAt,
+                 @Param("bookingId") Long bookingId,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.createdAt = :claimedAt")
+    int release(@Param("key") String key, @Param("claimedAt") LocalDateTime claimedAt);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,88 @@
+package com.eventplatform.booking.service;
+
+import com.eventplatform.booking.client.CheckinServiceClient;
+import com.eventplatform.booking.client.EventClient;
+import com.eventplatform.booking.client.UserServiceClient;
+import com.eventplatform.booking.config.RabbitMQConfig;
+import com.eventplatform.booking.dto.BookingMessageDTO;
+import com.eventplatform.booking.dto.EventDTO;
+import com.eventplatform.booking.entity.Booking;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BookingNotificationService {
+    
+    private final EventClient eventClient;
+    private final UserServiceClient userServiceClient;
+    private final CheckinServiceClient checkinServiceClient;
+    private final RabbitTemplate rabbitTemplate;
+    
+    /**
+     * Best-effort follow-up of a confirmed booking: QR codes by email and the booking.created event.
+     * Runs outside any transaction and never fails the booking.
+     */
+    public void bookingConfirmed(Booking booking) {
+        try {
+            sendQRCodeEmail(booking);
+        } catch (Exception e) {
+            log.error("Failed to send QR code email: {}", e.getMessage());
+        }
+        
+        try {
+            BookingMessageDTO message = BookingMessageDTO.fromEntity(booking);
+            rabbitTemplate.convertAndSend(RabbitMQConfig.BOOKING_EXCHANGE, RabbitMQConfig.BOOKING_CREATED_ROUTING_KEY, message);
+            log.info("Booking event published: {}", booking.getId());
+        } catch (Exception e) {
+            log.error("Failed to publish RabbitMQ event: {}", e.getMessage());
+        }
+    }
+    
+    private void sendQRCodeEmail(Booking booking) {
+        log.info("🔄 Calling checkin-service to generate and send {} QR codes for booking: {}", 
+                booking.getQuantity(), booking.getId());
+        
+        Map<String, Object> user = getUser(booking.getUserId());
+        
+        Map<String, Object> emailRequest = new HashMap<>();
+        emailRequest.put("bookingId", booking.getId());
+        emailRequest.put("eventId", booking.getEventId());
+        emailRequest.put("confirmationCode", booking.getConfirmationCode());
+        emailRequest.put("userEmail", user != null ? user.get("email") : "default@example.com");
+        emailRequest.put("userName", user != null ? user.get("firstName") + " " + user.get("lastName") : "Client");
+        emailRequest.put("eventName", getEventName(booking.getEventId()));
+        emailRequest.put("quantity", booking.getQuantity());
+        emailRequest.put("totalPrice", booking.getTotalPrice());
+        
+        checkinServiceClient.generateAndEmailQRCodes(emailRequest);
+        
+        log.info("✅ {} QR codes email sent successfully for booking: {}", 
+                booking.getQuantity(), booking.getId());
+    }
+    
+    private Map<String, Object> getUser(Long userId) {
+        try {
+            return userServiceClient.getUserById(userId);
+        } catch (Exception e) {
+            log.error("Failed to fetch user {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+    
+    private String getEventName(Long eventId) {
+        try {
+            EventDTO event = eventClient.getEventById(eventId);
+            return event.getName();
+        } catch (Exception e) {
+            log.error("Failed to fetch event name: {}", e.getMessage());
+            return "Événement #" + eventId;
+        }
+    }
+}
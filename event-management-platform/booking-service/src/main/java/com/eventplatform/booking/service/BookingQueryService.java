@@ -0,0 +1,188 @@
+package com.eventplatform.booking.service;
+
+import com.eventplatform.booking.dto.BookingPageDTO;
+import com.eventplatform.booking.dto.UserBookingViewDTO;
+import com.eventplatform.booking.entity.EventSnapshot;
+import com.eventplatform.booking.entity.Booking;
+import com.eventplatform.booking.entity.Booking.BookingStatus;
+import com.eventplatform.booking.repository.BookingRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keyset-paginated reads over the bookings table. Cursors are opaque to clients: id-ordered
+ * listings use the last id, the per-user listing (newest first) uses the last booking date and id.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BookingQueryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int DEFAULT_VIEW_SIZE = 200;
+
+    private final BookingRepository bookingRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final EventSnapshotService eventSnapshotService;
+
+    public BookingPageDTO getBookings(String cursor, Integer limit) {
+        int size = pageSize(limit);
+        return idPage(bookingRepository.findByIdGreaterThanOrderByIdAsc(
+                parseIdCursor(cursor), Limit.of(size + 1)), size);
+    }
+
+    public BookingPageDTO getBookingsByEventId(Long eventId, BookingStatus status, String cursor, Integer limit) {
+        int size = pageSize(limit);
+        Long afterId = parseIdCursor(cursor);
+        List<Booking> rows = status != null
+                ? bookingRepository.findByEventIdAndStatusAndIdGreaterThanOrderByIdAsc(
+                        eventId, status, afterId, Limit.of(size + 1))
+                : bookingRepository.findByEventIdAndIdGreaterThanOrderByIdAsc(
+                        eventId, afterId, Limit.of(size + 1));
+        return idPage(rows, size);
+    }
+
+    public BookingPageDTO getBookingsByStatus(BookingStatus status, String cursor, Integer limit) {
+        int size = pageSize(limit);
+        return idPage(bookingRepository.findByStatusAndIdGreaterThanOrderByIdAsc(
+                status, parseIdCursor(cursor), Limit.of(size + 1)), size);
+    }
+
+    public BookingPageDTO getBookingsByUserId(Long userId, String cursor, Integer limit) {
+        int size = pageSize(limit);
+        List<Booking> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = bookingRepository.findByUserIdOrderByBookingDateDescIdDesc(userId, Limit.of(size + 1));
+        } else {
+            String[] parts = decodeCursor(cursor).split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Curseur de pagination invalide");
+            }
+            LocalDateTime bookingDate;
+            Long id;
+            try {
+                bookingDate = LocalDateTime.parse(parts[0]);
+                id = Long.parseLong(parts[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Curseur de pagination invalide");
+            }
+            rows = bookingRepository.findUserPageBefore(userId, bookingDate, id, Limit.of(size + 1));
+        }
+        return page(rows, size, last -> encodeCursor(last.getBookingDate() + "|" + last.getId()));
+    }
+
+    /**
+     * A user's most recent bookings with the event name, date and location embedded, read with a
+     * single join against the local event snapshots.
+     */
+    public List<UserBookingViewDTO> getUserBookingView(Long userId, Integer limit) {
+        int size = limit == null || limit <= 0 ? DEFAULT_VIEW_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        List<UserBookingViewDTO> rows = bookingRepository.findUserBookingViews(userId, Limit.of(size));
+        
+        Set<Long> missing = rows.stream()
+                .filter(row -> row.getEventName() == null)
+                .map(UserBookingViewDTO::getEventId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (!missing.isEmpty()) {
+            Map<Long, EventSnapshot> snapshots = eventSnapshotService.backfill(missing);
+            for (UserBookingViewDTO row : rows) {
+                EventSnapshot snapshot = snapshots.get(row.getEventId());
+                if (row.getEventName() == null && snapshot != null) {
+                    row.setEventName(snapshot.getName());
+                    row.setEventDate(snapshot.getDate());
+                    row.setEventLocation(snapshot.getLocation());
+                    row.setEventStatus(snapshot.getStatus());
+                    row.setEventDeleted(snapshot.isDeleted());
+                }
+            }
+        }
+        return rows;
+    }
+    
+    /**
+     * Writes every booking of an event as a JSON array, reading through a server-side cursor and
+     * detaching rows as they are written so memory stays flat regardless of the event size.
+     */
+    @Transactional(readOnly = true)
+    public void exportBookingsByEventId(Long eventId, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (Stream<Booking> bookings = bookingRepository.streamByEventIdOrderByIdAsc(eventId);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            for (Booking booking : (Iterable<Booking>) bookings::iterator) {
+                writer.writeValue(generator, booking);
+                entityManager.detach(booking);
+                count++;
+            }
+            generator.writeEndArray();
+        }
+        log.info("Exported {} bookings for event {}", count, eventId);
+    }
+
+    private BookingPageDTO idPage(List<Booking> rows, int size) {
+        return page(rows, size, last -> String.valueOf(last.getId()));
+    }
+
+    private BookingPageDTO page(List<Booking> rows, int size, Function<Booking, String> cursorOf) {
+        boolean hasMore = rows.size() > size;
+        List<Booking> content = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(content.get(content.size() - 1)) : null;
+        return new BookingPageDTO(content, nextCursor, hasMore);
+    }
+
+    private static int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private static Long parseIdCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+
+    private static String encodeCursor(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+}
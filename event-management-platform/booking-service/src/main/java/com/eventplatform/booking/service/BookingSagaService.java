@@ -0,0 +1,364 @@
+package com.eventplatform.booking.service;
+
+import com.eventplatform.booking.client.EventClient;
+import com.eventplatform.booking.dto.EventDTO;
+import com.eventplatform.booking.entity.Booking;
+import com.eventplatform.booking.entity.Booking.BookingStatus;
+import com.eventplatform.booking.entity.BookingEvent.BookingEventType;
+import com.eventplatform.booking.entity.BookingSaga;
+import com.eventplatform.booking.entity.BookingSaga.SagaStep;
+import com.eventplatform.booking.exception.TicketsUnavailableException;
+import com.eventplatform.booking.repository.BookingRepository;
+import com.eventplatform.booking.repository.BookingSagaRepository;
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates bookings as a persisted saga: PENDING insert, remote reservation, then confirmation, each
+ * step in its own short transaction so no DB connection is held across a network call.
+ * <p>
+ * Every saga reserves under its own reservation id, which event-service applies at most once and
+ * which makes releasing a reserve that never landed a no-op. A reservation event-service refused
+ * aborts the saga. A reserve call with an unknown outcome (timeout, connection error, 5xx) and a
+ * failure after the reservation both move the saga to COMPENSATING and release by that id. Failed
+ * attempts leave no booking row behind, only the saga record. The recovery worker finishes sagas
+ * stuck in RESERVED, releases those stuck in STARTED the same way and retries pending releases.
+ * Sagas started before reservation ids existed cannot be released safely from STARTED and are
+ * aborted instead.
+ */
+@Service
+@Slf4j
+public class BookingSagaService {
+
+    private static final EnumSet<SagaStep> RECOVERABLE = EnumSet.of(
+        SagaStep.STARTED, SagaStep.RESERVED, SagaStep.COMPENSATING);
+    private static final EnumSet<SagaStep> FINISHED = EnumSet.of(
+        SagaStep.CONFIRMED, SagaStep.ABORTED, SagaStep.COMPENSATED);
+
+    private final BookingRepository bookingRepository;
+    private final BookingSagaRepository sagaRepository;
+    private final EventClient eventClient;
+    private final SoldOutCache soldOutCache;
+    private final SalesStatsService salesStatsService;
+    private final BookingTimelineService timelineService;
+    private final BookingNotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final long staleAfterSeconds;
+    private final int retentionDays;
+    private final long pendingTtlMinutes;
+
+    public BookingSagaService(BookingRepository bookingRepository,
+                              BookingSagaRepository sagaRepository,
+                              EventClient eventClient,
+                              SoldOutCache soldOutCache,
+                              SalesStatsService salesStatsService,
+                              BookingTimelineService timelineService,
+                              BookingNotificationService notificationService,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${booking.saga.stale-after-seconds:120}") long staleAfterSeconds,
+                              @Value("${booking.saga.retention-days:7}") int retentionDays,
+                              @Value("${booking.pending.ttl-minutes:15}") long pendingTtlMinutes) {
+        this.bookingRepository = bookingRepository;
+        this.sagaRepository = sagaRepository;
+        this.eventClient = eventClient;
+        this.soldOutCache = soldOutCache;
+        this.salesStatsService = salesStatsService;
+        this.timelineService = timelineService;
+        this.notificationService = notificationService;
+        this.transactionTemplate = transactionTemplate;
+        this.staleAfterSeconds = staleAfterSeconds;
+        this.retentionDays = retentionDays;
+        this.pendingTtlMinutes = pendingTtlMinutes;
+    }
+
+    public Booking createBooking(Booking booking) {
+        log.info("Creating booking for event: {}, ticketType: {}, user: {}",
+                 booking.getEventId(), booking.getTicketTypeId(), booking.getUserId());
+
+        if (booking.getTicketTypeId() != null && booking.getQuantity() != null) {
+            soldOutCache.checkAvailable(booking.getTicketTypeId(), booking.getQuantity());
+        }
+
+        guardRemote(() -> price(booking));
+
+        BookingSaga saga = transactionTemplate.execute(status -> start(booking));
+
+        try {
+            guardRemote(() -> reserve(booking, saga.getReservationId()));
+        } catch (RuntimeException e) {
+            if (isRefusal(e)) {
+                abort(saga.getId(), SagaStep.STARTED, e.getMessage());
+            } else {
+                log.warn("Reservation outcome of booking {} is unknown, releasing it: {}", booking.getId(), e.getMessage());
+                compensate(saga, SagaStep.STARTED, e.getMessage());
+            }
+            throw e;
+        }
+
+        Booking confirmed;
+        try {
+            transactionTemplate.executeWithoutResult(status -> advance(saga.getId(), SagaStep.STARTED, SagaStep.RESERVED));
+            confirmed = transactionTemplate.execute(status -> confirm(saga.getId(), booking.getId()));
+        } catch (RuntimeException e) {
+            SagaStep current = currentStep(saga.getId());
+            if (current == SagaStep.CONFIRMED) {
+                log.info("Booking {} was already confirmed by the recovery worker", booking.getId());
+                return bookingRepository.findById(booking.getId()).orElseThrow(() -> e);
+            }
+            log.error("Booking {} failed after reservation, compensating: {}", booking.getId(), e.getMessage());
+            compensate(saga, current, e.getMessage());
+            throw new RuntimeException("Erreur lors de la création: " + e.getMessage());
+        }
+
+        notificationService.bookingConfirmed(confirmed);
+
+        log.info("Booking created successfully with id: {}", confirmed.getId());
+        return confirmed;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.saga.recovery-interval-ms:30000}",
+               initialDelayString = "${booking.saga.recovery-interval-ms:30000}")
+    public void recoverStuckSagas() {
+        LocalDateTime staleBefore = LocalDateTime.now().minusSeconds(staleAfterSeconds);
+        List<BookingSaga> stuck = sagaRepository.findByStepInAndUpdatedAtBeforeOrderByUpdatedAtAsc(
+                RECOVERABLE, staleBefore, Limit.of(100));
+
+        for (BookingSaga saga : stuck) {
+            if (sagaRepository.claim(saga.getId(), saga.getStep(), LocalDateTime.now(), staleBefore) != 1) {
+                continue;
+            }
+            try {
+                recover(saga);
+            } catch (Exception e) {
+                log.error("Recovery of saga {} (booking {}) in step {} failed: {}",
+                          saga.getId(), saga.getBookingId(), saga.getStep(), e.getMessage());
+            }
+        }
+
+        sagaRepository.deleteFinishedBefore(FINISHED, LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    private void recover(BookingSaga saga) {
+        switch (saga.getStep()) {
+            case STARTED -> {
+                if (saga.getReservationId() == null) {
+                    log.warn("Aborting saga {} stuck before reservation (booking {})", saga.getId(), saga.getBookingId());
+                    abort(saga.getId(), SagaStep.STARTED, "Recovered: no reservation recorded");
+                } else {
+                    log.warn("Releasing possible reservation of saga {} stuck before confirmation (booking {})",
+                             saga.getId(), saga.getBookingId());
+                    compensate(saga, SagaStep.STARTED, "Recovered: reservation outcome unknown");
+                }
+            }
+            case RESERVED -> {
+                log.info("Finishing saga {} stuck after reservation (booking {})", saga.getId(), saga.getBookingId());
+                Booking confirmed = transactionTemplate.execute(status -> confirm(saga.getId(), saga.getBookingId()));
+                notificationService.bookingConfirmed(confirmed);
+            }
+            case COMPENSATING -> {
+                log.info("Retrying release for saga {} (booking {})", saga.getId(), saga.getBookingId());
+                finishCompensation(saga);
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void price(Booking booking) {
+        if (booking.getTicketTypeId() != null) {
+            Map<String, Object> ticketTypeInfo = eventClient.getTicketTypeById(booking.getTicketTypeId());
+            log.info("Ticket type info: {}", ticketTypeInfo);
+
+            if (ticketTypeInfo == null || ticketTypeInfo.isEmpty()) {
+                throw new RuntimeException("Type de ticket non trouvé: " + booking.getTicketTypeId());
+            }
+
+            Map<String, Boolean> availability = eventClient.checkTicketTypeAvailability(
+                booking.getTicketTypeId(), booking.getQuantity());
+
+            if (!Boolean.TRUE.equals(availability.get("available"))) {
+                String ticketName = (String) ticketTypeInfo.getOrDefault("name", "Inconnu");
+                throw new RuntimeException("Pas assez de billets disponibles pour: " + ticketName);
+            }
+
+            Double ticketPrice = (Double) ticketTypeInfo.get("price");
+            if (ticketPrice == null) {
+                ticketPrice = 0.0;
+            }
+
+            booking.setTotalPrice(ticketPrice * booking.getQuantity());
+            booking.setNotes("Type: " + ticketTypeInfo.get("name"));
+        } else {
+            EventDTO event = eventClient.getEventById(booking.getEventId());
+            log.info("Retrieved event: {} (Price: €{})", event.getName(), event.getPrice());
+
+            Map<String, Boolean> availability = eventClient.checkAvailability(
+                booking.getEventId(), booking.getQuantity());
+
+            if (!Boolean.TRUE.equals(availability.get("available"))) {
+                throw new RuntimeException("Pas assez de billets disponibles pour: " + event.getName());
+            }
+
+            booking.setTotalPrice(event.getPrice() * booking.getQuantity());
+        }
+    }
+
+    private void reserve(Booking booking, String reservationId) {
+        Map<String, Object> reservationResult = booking.getTicketTypeId() != null
+                ? eventClient.reserveTicketType(booking.getTicketTypeId(), booking.getQuantity(), reservationId)
+                : eventClient.reserveTickets(booking.getEventId(), booking.getQuantity(), reservationId);
+
+        if (reservationResult == null || !Boolean.TRUE.equals(reservationResult.get("success"))) {
+            log.error("Reservation failed: {}", reservationResult);
+            throw new TicketsUnavailableException("Échec de la réservation pour l'événement: " + booking.getEventId());
+        }
+
+        log.info("Reservation successful: {}", reservationResult);
+    }
+
+    private BookingSaga start(Booking booking) {
+        booking.setStatus(BookingStatus.PENDING);
+        booking.setExpiresAt(LocalDateTime.now().plusMinutes(pendingTtlMinutes));
+        Booking pending = bookingRepository.save(booking);
+
+        BookingSaga saga = new BookingSaga();
+        saga.setBookingId(pending.getId());
+        saga.setEventId(pending.getEventId());
+        saga.setTicketTypeId(pending.getTicketTypeId());
+        saga.setQuantity(pending.getQuantity());
+        saga.setReservationId("booking-" + pending.getId());
+        return sagaRepository.save(saga);
+    }
+
+    private void advance(Long sagaId, SagaStep from, SagaStep to) {
+        if (sagaRepository.transition(sagaId, from, to, null, LocalDateTime.now()) != 1) {
+            throw new IllegalStateException("Saga " + sagaId + " is no longer in step " + from);
+        }
+    }
+
+    private Booking confirm(Long sagaId, Long bookingId) {
+        advance(sagaId, SagaStep.RESERVED, SagaStep.CONFIRMED);
+
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new IllegalStateException("Booking " + bookingId + " of saga " + sagaId + " is missing"));
+        BookingStatus previous = booking.getStatus();
+        booking.setStatus(BookingStatus.CONFIRMED);
+        booking.setExpiresAt(null);
+        Booking confirmed = bookingRepository.save(booking);
+        salesStatsService.recordTransition(confirmed, previous, BookingStatus.CONFIRMED);
+        timelineService.record(bookingId, BookingEventType.CONFIRMED, null, confirmed.getNotes());
+        return confirmed;
+    }
+
+    private void abort(Long sagaId, SagaStep from, String reason) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (sagaRepository.transition(sagaId, from, SagaStep.ABORTED, truncate(reason), LocalDateTime.now()) == 1) {
+                    sagaRepository.findById(sagaId).ifPresent(saga ->
+                            bookingRepository.deleteByIdAndStatus(saga.getBookingId(), BookingStatus.PENDING));
+                }
+            });
+        } catch (Exception e) {
+            log.error("Failed to abort saga {}, the recovery worker will retry: {}", sagaId, e.getMessage());
+        }
+    }
+
+    private void compensate(BookingSaga saga, SagaStep current, String reason) {
+        try {
+            if (current == SagaStep.ABORTED) {
+                // The recovery worker gave up on this saga while we were still holding the reservation.
+                releaseReservation(saga);
+                return;
+            }
+            if (current != SagaStep.STARTED && current != SagaStep.RESERVED) {
+                return;
+            }
+            boolean owned = Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                    sagaRepository.transition(saga.getId(), current, SagaStep.COMPENSATING,
+                                              truncate(reason), LocalDateTime.now()) == 1));
+            if (owned) {
+                finishCompensation(saga);
+            }
+        } catch (Exception e) {
+            log.error("Compensation of saga {} failed, the recovery worker will retry: {}", saga.getId(), e.getMessage());
+        }
+    }
+
+    private void finishCompensation(BookingSaga saga) {
+        releaseReservation(saga);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (sagaRepository.transition(saga.getId(), SagaStep.COMPENSATING, SagaStep.COMPENSATED,
+                                          null, LocalDateTime.now()) == 1) {
+                // A booking the expiry sweeper already cancelled is kept for its history.
+                bookingRepository.deleteByIdAndStatus(saga.getBookingId(), BookingStatus.PENDING);
+            }
+        });
+    }
+
+    private void releaseReservation(BookingSaga saga) {
+        if (saga.getTicketTypeId() != null) {
+            eventClient.releaseTicketType(saga.getTicketTypeId(), saga.getQuantity(), saga.getReservationId());
+        } else {
+            eventClient.releaseTickets(saga.getEventId(), saga.getQuantity(), saga.getReservationId());
+        }
+        log.info("Released {} tickets reserved by failed booking {}", saga.getQuantity(), saga.getBookingId());
+    }
+
+    private SagaStep currentStep(Long sagaId) {
+        try {
+            return sagaRepository.findById(sagaId).map(BookingSaga::getStep).orElse(null);
+        } catch (Exception e) {
+            log.error("Could not read saga {}: {}", sagaId, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void guardRemote(Runnable call) {
+        try {
+            call.run();
+        } catch (BulkheadFullException e) {
+            throw e;
+        } catch (FeignException e) {
+            log.error("Feign exception: status={}, message={}", e.status(), e.getMessage(), e);
+            throw new RuntimeException("Service événementiel indisponible. Code: EVT-" + e.status(), e);
+        } catch (RuntimeException e) {
+            log.error("Error in createBooking: {}", e.getMessage(), e);
+            throw new RuntimeException("Erreur lors de la création: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Whether event-service certainly did not reserve: the call never left (bulkhead full) or
+     * event-service answered with a refusal. Timeouts, connection errors and 5xx leave it unknown.
+     */
+    private static boolean isRefusal(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BulkheadFullException || cause instanceof TicketsUnavailableException) {
+                return true;
+            }
+            if (cause instanceof FeignException feign) {
+                return feign.status() >= 400 && feign.status() < 500 && feign.status() != 408;
+            }
+        }
+        return false;
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
@@ -1,22 +1,24 @@
 package com.eventplatform.booking.service;
 
+import com.eventplatform.booking.client.CheckinServiceClient;
 import com.eventplatform.booking.client.EventClient;
 import com.eventplatform.booking.dto.BookingMessageDTO;
 import com.eventplatform.booking.dto.EventDTO;
 import com.eventplatform.booking.entity.Booking;
 import com.eventplatform.booking.entity.Booking.BookingStatus;
+import com.eventplatform.booking.entity.BookingEvent.BookingEventType;
 import com.eventplatform.booking.exception.BookingNotFoundException;
+import com.eventplatform.booking.exception.PurchaseLimitExceededException;
+import com.eventplatform.booking.exception.TicketsUnavailableException;
 import com.eventplatform.booking.repository.BookingRepository;
-import feign.FeignException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -27,16 +29,28 @@ public class BookingService {
     private final BookingRepository bookingRepository;
     private final EventClient eventClient;
     private final RabbitTemplate rabbitTemplate;
-    private final RestTemplate restTemplate;
+    private final CheckinServiceClient checkinServiceClient;
+    private final BookingSagaService bookingSagaService;
+    private final SalesStatsService salesStatsService;
+    private final BookingTimelineService timelineService;
+    private final PurchaseLimitService purchaseLimitService;
    
     public BookingService(BookingRepository bookingRepository, 
                          EventClient eventClient,
                          RabbitTemplate rabbitTemplate,
-                         RestTemplate restTemplate) {
+                         CheckinServiceClient checkinServiceClient,
+                         BookingSagaService bookingSagaService,
+                         SalesStatsService salesStatsService,
+                         BookingTimelineService timelineService,
+                         PurchaseLimitService purchaseLimitService) {
         this.bookingRepository = bookingRepository;
         this.eventClient = eventClient;
         this.rabbitTemplate = rabbitTemplate;
-        this.restTemplate = restTemplate;
+        this.checkinServiceClient = checkinServiceClient;
+        this.bookingSagaService = bookingSagaService;
+        this.salesStatsService = salesStatsService;
+        this.timelineService = timelineService;
+        this.purchaseLimitService = purchaseLimitService;
     }
     
     private static final String BOOKING_EXCHANGE = "booking.exchange";
@@ -75,105 +89,29 @@ public class BookingService {
         return bookingRepository.findByEventIdAndStatus(eventId, BookingStatus.CONFIRMED);
     }
     
-@Transactional
 @CircuitBreaker(name = "eventService", fallbackMethod = "createBookingFallback")
-public Booking createBooking(Booking booking) {
-    log.info("Creating booking for event: {}, ticketType: {}, user: {}", 
-             booking.getEventId(), booking.getTicketTypeId(), booking.getUserId());
-    
-    try {
-        if (booking.getTicketTypeId() != null) {
-            log.info("Processing ticket type reservation: {}", booking.getTicketTypeId());
-            
-            Map<String, Object> ticketTypeInfo = eventClient.getTicketTypeById(booking.getTicketTypeId());
-            log.info("Ticket type info: {}", ticketTypeInfo);
-            
-            if (ticketTypeInfo == null || ticketTypeInfo.isEmpty()) {
-                throw new RuntimeException("Type de ticket non trouvé: " + booking.getTicketTypeId());
-            }
-            
-            Map<String, Boolean> availability = eventClient.checkTicketTypeAvailability(
-                booking.getTicketTypeId(), 
-                booking.getQuantity()
-            );
-            
-            if (!Boolean.TRUE.equals(availability.get("available"))) {
-                String ticketName = (String) ticketTypeInfo.getOrDefault("name", "Inconnu");
-                throw new RuntimeException("Pas assez de billets disponibles pour: " + ticketName);
-            }
-            
-            Map<String, Object> reservationResult = eventClient.reserveTicketType(
-                booking.getTicketTypeId(), 
-                booking.getQuantity()
-            );
-            
-            if (reservationResult == null || !Boolean.TRUE.equals(reservationResult.get("success"))) {
-                log.error("Reservation failed: {}", reservationResult);
-                throw new RuntimeException("Échec de la réservation du type de ticket");
-            }
-            
-            log.info("Reservation successful: {}", reservationResult);
-            
-            Double ticketPrice = (Double) ticketTypeInfo.get("price");
-            if (ticketPrice == null) {
-                ticketPrice = 0.0;
-            }
-            
-            booking.setTotalPrice(ticketPrice * booking.getQuantity());
-            booking.setNotes("Type: " + ticketTypeInfo.get("name"));
-            
-        } else {
-            EventDTO event = eventClient.getEventById(booking.getEventId());
-            log.info("Retrieved event: {} (Price: €{})", event.getName(), event.getPrice());
-            
-            Map<String, Boolean> availability = eventClient.checkAvailability(
-                booking.getEventId(), 
-                booking.getQuantity()
-            );
-            
-            if (!Boolean.TRUE.equals(availability.get("available"))) {
-                throw new RuntimeException("Pas assez de billets disponibles pour: " + event.getName());
-            }
-            
-            Map<String, Object> reservationResult = eventClient.reserveTickets(
-                booking.getEventId(),
-                booking.getQuantity()
-            );
-            
-            if (!Boolean.TRUE.equals(reservationResult.get("success"))) {
-                throw new RuntimeException("Échec de la réservation: " + event.getName());
-            }
-            
-            booking.setTotalPrice(event.getPrice() * booking.getQuantity());
+    public Booking createBooking(Booking booking) {
+        int quantity = booking.getQuantity() != null ? booking.getQuantity() : 0;
+        purchaseLimitService.acquire(booking.getUserId(), booking.getEventId(), quantity);
+        try {
+            return bookingSagaService.createBooking(booking);
+        } catch (RuntimeException e) {
+            purchaseLimitService.release(booking.getUserId(), booking.getEventId(), quantity);
+            throw e;
         }
-        
-     } catch (FeignException e) {
-        log.error("Feign exception: status={}, message={}", e.status(), e.getMessage(), e);
-        throw new RuntimeException("Service événementiel indisponible. Code: EVT-" + e.status());
-    } catch (Exception e) {
-        log.error("Error in createBooking: {}", e.getMessage(), e);
-        throw new RuntimeException("Erreur lors de la création: " + e.getMessage());
     }
     
-    booking.setStatus(BookingStatus.CONFIRMED);
-    Booking savedBooking = bookingRepository.save(booking);
-        
-        try {
-            sendQRCodeEmail(savedBooking);
-        } catch (Exception e) {
-            log.error("Failed to send QR code email: {}", e.getMessage());
-        }
-        
-        try {
-            BookingMessageDTO message = BookingMessageDTO.fromEntity(savedBooking);
-            rabbitTemplate.convertAndSend(BOOKING_EXCHANGE, "booking.created", message);
-            log.info("Booking event published: {}", savedBooking.getId());
-        } catch (Exception e) {
-            log.error("Failed to publish RabbitMQ event: {}", e.getMessage());
-        }
-        
-        log.info("Booking created successfully with id: {}", savedBooking.getId());
-        return savedBooking;
+    public Booking createBookingFallback(Booking booking, BulkheadFullException ex) {
+        log.warn("Event service bulkhead is full, shedding booking request");
+        throw ex;
+    }
+    
+    public Booking createBookingFallback(Booking booking, TicketsUnavailableException ex) {
+        throw ex;
+    }
+    
+    public Booking createBookingFallback(Booking booking, PurchaseLimitExceededException ex) {
+        throw ex;
     }
     
     public Booking createBookingFallback(Booking booking, Exception ex) {
@@ -211,10 +149,16 @@ public Booking createBooking(Booking booking) {
             log.error("Failed to delete QR codes for booking {}: {}", booking.getId(), e.getMessage());
         }
         
+        BookingStatus previous = booking.getStatus();
         booking.setStatus(BookingStatus.CANCELLED);
         booking.setCancelledDate(LocalDateTime.now());
         
         Booking cancelledBooking = bookingRepository.save(booking);
+        salesStatsService.recordTransition(cancelledBooking, previous, BookingStatus.CANCELLED);
+        if (PurchaseLimitService.HELD.contains(previous)) {
+            purchaseLimitService.releaseAfterCommit(cancelledBooking);
+        }
+        timelineService.record(cancelledBooking.getId(), BookingEventType.CANCELLED, null, "Previous status: " + previous);
         
         try {
             BookingMessageDTO message = BookingMessageDTO.fromEntity(cancelledBooking);
@@ -231,9 +175,7 @@ public Booking createBooking(Booking booking) {
         try {
             log.info("🗑️ Deleting QR codes for booking {} ({})", bookingId, confirmationCode);
             
-            String checkinServiceUrl = "http://localhost:8084/api/qr-codes/booking/" + bookingId;
-            
-            restTemplate.delete(checkinServiceUrl);
+            checkinServiceClient.deleteQRCodesForBooking(bookingId);
             
             log.info("✅ QR codes deleted for booking {}", bookingId);
             
@@ -274,6 +216,8 @@ public Booking createBooking(Booking booking) {
         booking.setRefundAmount(requestedAmount != null ? requestedAmount : booking.getTotalPrice());
         
         Booking updatedBooking = bookingRepository.save(booking);
+        timelineService.record(bookingId, BookingEventType.REFUND_REQUESTED, null,
+                               "Amount: " + booking.getRefundAmount() + (reason != null ? ", reason: " + reason : ""));
         publishRefundEvent(updatedBooking, "refund.requested");
         
         log.info("Refund requested for booking {}: €{}", bookingId, booking.getRefundAmount());
@@ -291,8 +235,7 @@ public Booking createBooking(Booking booking) {
         if (approve) {
             booking.setStatus(BookingStatus.REFUNDED);
             booking.setRefundProcessedDate(LocalDateTime.now());
-            booking.setNotes((booking.getNotes() != null ? booking.getNotes() + " " : "") + 
-                           "Refund approved: " + adminNotes);
+            timelineService.record(bookingId, BookingEventType.REFUND_APPROVED, null, adminNotes);
             
             processPaymentRefund(booking);
             releaseTicketsForRefund(booking);
@@ -303,12 +246,13 @@ public Booking createBooking(Booking booking) {
                 log.error("Failed to delete QR codes during refund: {}", e.getMessage());
             }
             
+            salesStatsService.recordTransition(booking, BookingStatus.REFUND_REQUESTED, BookingStatus.REFUNDED);
+            purchaseLimitService.releaseAfterCommit(booking);
             publishRefundEvent(booking, "refund.approved");
         } else {
             booking.setStatus(BookingStatus.REFUND_REJECTED);
             booking.setRefundRejectionReason(adminNotes);
-            booking.setNotes((booking.getNotes() != null ? booking.getNotes() + " " : "") + 
-                           "Refund rejected: " + adminNotes);
+            timelineService.record(bookingId, BookingEventType.REFUND_REJECTED, null, adminNotes);
             publishRefundEvent(booking, "refund.rejected");
         }
         
@@ -324,8 +268,8 @@ public Booking createBooking(Booking booking) {
     private void processPaymentRefund(Booking booking) {
         log.info("Processing refund of €{} for booking {}", 
                  booking.getRefundAmount(), booking.getId());
-        booking.setNotes((booking.getNotes() != null ? booking.getNotes() + " " : "") + 
-                       "Payment refund processed on " + LocalDateTime.now());
+        timelineService.record(booking.getId(), BookingEventType.PAYMENT_REFUNDED, null,
+                               "Amount: " + booking.getRefundAmount());
     }
     
     private void releaseTicketsForRefund(Booking booking) {
@@ -357,13 +301,13 @@ public Booking createBooking(Booking booking) {
             throw new RuntimeException("Only confirmed or refunded bookings can check-in");
         }
         
+        BookingStatus previous = booking.getStatus();
         booking.setStatus(BookingStatus.COMPLETED);
-        booking.setNotes((booking.getNotes() != null ? booking.getNotes() + " " : "") + 
-                       "Checked in at " + LocalDateTime.now() + 
-                       " by scanner: " + scannerId + 
-                       " at location: " + location);
         
         Booking checkedInBooking = bookingRepository.save(booking);
+        timelineService.record(bookingId, BookingEventType.CHECKED_IN, scannerId,
+                               "Location: " + location + (deviceInfo != null ? ", device: " + deviceInfo : ""));
+        salesStatsService.recordTransition(checkedInBooking, previous, BookingStatus.COMPLETED);
         publishCheckInEvent(checkedInBooking, scannerId, deviceInfo, location);
         
         log.info("Check-in successful for booking {}", bookingId);
@@ -388,62 +332,4 @@ public Booking createBooking(Booking booking) {
             log.error("Failed to publish check-in event: {}", e.getMessage());
         }
     }
-    
-  private void sendQRCodeEmail(Booking booking) {
-    try {
-        log.info("🔄 Calling checkin-service to generate and send {} QR codes for booking: {}", 
-                booking.getQuantity(), booking.getId());
-        
-        Map<String, Object> emailRequest = new HashMap<>();
-        emailRequest.put("bookingId", booking.getId());
-        emailRequest.put("confirmationCode", booking.getConfirmationCode());
-        emailRequest.put("userEmail", getUserEmail(booking.getUserId()));
-        emailRequest.put("userName", getUserName(booking.getUserId()));
-        emailRequest.put("eventName", getEventName(booking.getEventId()));
-        emailRequest.put("quantity", booking.getQuantity());
-        emailRequest.put("totalPrice", booking.getTotalPrice());
-        
-        String checkinServiceUrl = "http://localhost:8084/api/qr-codes/generate-and-email-multiple";
-        restTemplate.postForObject(checkinServiceUrl, emailRequest, Map.class);
-        
-        log.info("✅ {} QR codes email sent successfully for booking: {}", 
-                booking.getQuantity(), booking.getId());
-        
-    } catch (Exception e) {
-        log.error("❌ Error sending QR code email: {}", e.getMessage(), e);
-        throw e;
-    }
 }
-    
-    private String getUserEmail(Long userId) {
-        try {
-            String userServiceUrl = "http://localhost:8083/api/users/" + userId;
-            Map<String, Object> user = restTemplate.getForObject(userServiceUrl, Map.class);
-            return (String) user.get("email");
-        } catch (Exception e) {
-            log.error("Failed to fetch user email: {}", e.getMessage());
-            return "default@example.com";
-        }
-    }
-    
-    private String getUserName(Long userId) {
-        try {
-            String userServiceUrl = "http://localhost:8083/api/users/" + userId;
-            Map<String, Object> user = restTemplate.getForObject(userServiceUrl, Map.class);
-            return user.get("firstName") + " " + user.get("lastName");
-        } catch (Exception e) {
-            log.error("Failed to fetch user name: {}", e.getMessage());
-            return "Client";
-        }
-    }
-    
-    private String getEventName(Long eventId) {
-        try {
-            EventDTO event = eventClient.getEventById(eventId);
-            return event.getName();
-        } catch (Exception e) {
-            log.error("Failed to fetch event name: {}", e.getMessage());
-            return "Événement #" + eventId;
-        }
-    }
-}
\ No newline at end of file
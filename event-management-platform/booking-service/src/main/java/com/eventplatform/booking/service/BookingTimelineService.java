@@ -0,0 +1,54 @@
+package com.eventplatform.booking.service;
+
+import com.eventplatform.booking.entity.BookingEvent;
+import com.eventplatform.booking.entity.BookingEvent.BookingEventType;
+import com.eventplatform.booking.repository.BookingEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Append-only history of a booking. Entries are written in the transaction of the status change
+ * they describe; bulk operations pass all entries of a chunk at once so they are inserted in batches.
+ */
+@Service
+@RequiredArgsConstructor
+public class BookingTimelineService {
+    
+    private static final int MAX_DETAILS = 500;
+    
+    private final BookingEventRepository eventRepository;
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long bookingId, BookingEventType type, String actor, String details) {
+        eventRepository.save(entry(bookingId, type, actor, details, LocalDateTime.now()));
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(Collection<BookingEvent> entries) {
+        if (!entries.isEmpty()) {
+            eventRepository.saveAll(entries);
+        }
+    }
+    
+    public List<BookingEvent> getTimeline(Long bookingId) {
+        return eventRepository.findByBookingIdOrderByIdAsc(bookingId);
+    }
+    
+    public static BookingEvent entry(Long bookingId, BookingEventType type, String actor, String details,
+                                     LocalDateTime occurredAt) {
+        return new BookingEvent(bookingId, type, truncate(actor, 100), truncate(details, MAX_DETAILS), occurredAt);
+    }
+    
+    private static String truncate(String value, int max) {
+        if (value == null) {
+            return null;
+        }
+        return value.length() > max ? value.substring(0, max) : value;
+    }
+}
@@ -0,0 +1,288 @@
+package com.eventplatform.booking.service;
+
+import com.eventplatform.booking.client.CheckinServiceClient;
+import com.eventplatform.booking.config.ExecutorConfig;
+import com.eventplatform.booking.config.RabbitMQConfig;
+import com.eventplatform.booking.dto.BookingBatchMessageDTO;
+import com.eventplatform.booking.dto.BookingMessageDTO;
+import com.eventplatform.booking.entity.Booking;
+import com.eventplatform.booking.entity.Booking.BookingStatus;
+import com.eventplatform.booking.entity.BookingEvent;
+import com.eventplatform.booking.entity.BookingEvent.BookingEventType;
+import com.eventplatform.booking.entity.BulkCancellationJob;
+import com.eventplatform.booking.entity.BulkCancellationJob.JobStatus;
+import com.eventplatform.booking.repository.BookingRepository;
+import com.eventplatform.booking.repository.BulkCancellationJobRepository;
+import com.eventplatform.booking.service.CompensatingReleaseService.PendingRelease;
+import com.eventplatform.booking.service.SalesStatsService.StatsDelta;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cancels every booking of an event in chunks. Each chunk locks its rows, flips their status with a
+ * single UPDATE, moves their sagas to COMPENSATING and advances the job cursor in the same short
+ * transaction; inventory release, QR deletion and the batch message happen after the commit. Tickets
+ * a crash or a failed release leaves unreleased are retried by saga recovery, and a job interrupted
+ * by a crash is picked up again from its cursor once its heartbeat goes stale, on whichever replica
+ * notices first.
+ */
+@Service
+@Slf4j
+public class BulkCancellationService {
+
+    private static final Set<BookingStatus> CANCELLABLE = EnumSet.of(
+        BookingStatus.CONFIRMED,
+        BookingStatus.REFUND_REQUESTED,
+        BookingStatus.REFUND_REJECTED
+    );
+
+    private final BookingRepository bookingRepository;
+    private final BulkCancellationJobRepository jobRepository;
+    private final CompensatingReleaseService compensatingReleaseService;
+    private final SalesStatsService salesStatsService;
+    private final BookingTimelineService timelineService;
+    private final PurchaseLimitService purchaseLimitService;
+    private final RabbitTemplate rabbitTemplate;
+    private final CheckinServiceClient checkinServiceClient;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor executor;
+    private final int chunkSize;
+    private final long staleAfterSeconds;
+
+    private final Set<Long> runningJobs = ConcurrentHashMap.newKeySet();
+
+    public BulkCancellationService(BookingRepository bookingRepository,
+                                   BulkCancellationJobRepository jobRepository,
+                                   CompensatingReleaseService compensatingReleaseService,
+                                   SalesStatsService salesStatsService,
+                                   BookingTimelineService timelineService,
+                                   PurchaseLimitService purchaseLimitService,
+                                   RabbitTemplate rabbitTemplate,
+                                   CheckinServiceClient checkinServiceClient,
+                                   TransactionTemplate transactionTemplate,
+                                   @Qualifier(ExecutorConfig.BULK_JOB_EXECUTOR) TaskExecutor executor,
+                                   @Value("${booking.bulk.cancellation.chunk-size:500}") int chunkSize,
+                                   @Value("${booking.bulk.cancellation.stale-after-seconds:120}") long staleAfterSeconds) {
+        this.bookingRepository = bookingRepository;
+        this.jobRepository = jobRepository;
+        this.compensatingReleaseService = compensatingReleaseService;
+        this.salesStatsService = salesStatsService;
+        this.timelineService = timelineService;
+        this.purchaseLimitService = purchaseLimitService;
+        this.rabbitTemplate = rabbitTemplate;
+        this.checkinServiceClient = checkinServiceClient;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.staleAfterSeconds = staleAfterSeconds;
+    }
+
+    public BulkCancellationJob cancelAllForEvent(Long eventId) {
+        BulkCancellationJob existing = jobRepository
+                .findFirstByEventIdAndStatusInOrderByIdDesc(eventId, List.of(JobStatus.RUNNING, JobStatus.FAILED))
+                .orElse(null);
+
+        if (existing != null) {
+            LocalDateTime now = LocalDateTime.now();
+            if (existing.getStatus() == JobStatus.FAILED
+                    && jobRepository.claim(existing.getId(), JobStatus.FAILED, now, now.plusSeconds(1)) == 1) {
+                log.info("Resuming failed cancellation job {} for event {} from booking {}",
+                         existing.getId(), eventId, existing.getLastBookingId());
+                submit(existing.getId());
+            }
+            return getJob(existing.getId());
+        }
+
+        BulkCancellationJob job = new BulkCancellationJob();
+        job.setEventId(eventId);
+        job = jobRepository.save(job);
+
+        log.info("Started bulk cancellation job {} for event {}", job.getId(), eventId);
+        submit(job.getId());
+        return job;
+    }
+
+    public BulkCancellationJob getJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Cancellation job not found with id: " + jobId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${booking.bulk.cancellation.recovery-interval-ms:60000}",
+               initialDelayString = "${booking.bulk.cancellation.recovery-interval-ms:60000}")
+    public void resumeStaleJobs() {
+        LocalDateTime staleBefore = LocalDateTime.now().minusSeconds(staleAfterSeconds);
+
+        for (BulkCancellationJob job : jobRepository.findByStatusAndUpdatedAtBefore(JobStatus.RUNNING, staleBefore)) {
+            if (!runningJobs.contains(job.getId())
+                    && jobRepository.claim(job.getId(), JobStatus.RUNNING, LocalDateTime.now(), staleBefore) == 1) {
+                log.info("Resuming stale cancellation job {} for event {} from booking {}",
+                         job.getId(), job.getEventId(), job.getLastBookingId());
+                submit(job.getId());
+            }
+        }
+    }
+
+    private void submit(Long jobId) {
+        if (runningJobs.add(jobId)) {
+            executor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    runningJobs.remove(jobId);
+                }
+            });
+        }
+    }
+
+    private void run(Long jobId) {
+        try {
+            while (true) {
+                ChunkResult chunk = transactionTemplate.execute(status -> cancelNextChunk(jobId));
+                if (chunk == null || chunk.isEmpty()) {
+                    break;
+                }
+                applySideEffects(jobId, chunk);
+            }
+
+            BulkCancellationJob job = getJob(jobId);
+            job.setStatus(JobStatus.COMPLETED);
+            job.setCompletedAt(LocalDateTime.now());
+            job.setUpdatedAt(job.getCompletedAt());
+            jobRepository.save(job);
+
+            log.info("Bulk cancellation job {} completed: {} bookings cancelled, {} tickets released",
+                     jobId, job.getCancelledBookings(), job.getReleasedTickets());
+        } catch (Exception e) {
+            log.error("Bulk cancellation job {} failed: {}", jobId, e.getMessage(), e);
+            jobRepository.findById(jobId).ifPresent(job -> {
+                job.setStatus(JobStatus.FAILED);
+                job.setErrorMessage(truncate(e.getMessage()));
+                job.setUpdatedAt(LocalDateTime.now());
+                jobRepository.save(job);
+            });
+        }
+    }
+
+    private ChunkResult cancelNextChunk(Long jobId) {
+        BulkCancellationJob job = getJob(jobId);
+        List<Booking> rows = bookingRepository.findChunkForUpdate(
+                job.getEventId(), job.getLastBookingId(), Limit.of(chunkSize));
+
+        if (rows.isEmpty()) {
+            return null;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        ChunkResult result = new ChunkResult(job.getEventId());
+        StatsDelta stats = new StatsDelta();
+        List<BookingEvent> timeline = new ArrayList<>();
+        List<Booking> cancelled = new ArrayList<>();
+
+        for (Booking booking : rows) {
+            if (!CANCELLABLE.contains(booking.getStatus())) {
+                continue;
+            }
+            BookingMessageDTO message = BookingMessageDTO.fromEntity(booking);
+            message.setStatus(BookingStatus.CANCELLED.name());
+            message.setCancelledDate(now);
+
+            result.bookingIds.add(booking.getId());
+            result.messages.add(message);
+            cancelled.add(booking);
+            stats.add(booking, booking.getStatus(), BookingStatus.CANCELLED);
+            timeline.add(BookingTimelineService.entry(booking.getId(), BookingEventType.CANCELLED, "job:" + jobId,
+                                                      "Event cancelled, previous status: " + booking.getStatus(), now));
+        }
+
+        if (!result.bookingIds.isEmpty()) {
+            bookingRepository.cancelAll(result.bookingIds, BookingStatus.CANCELLED, now);
+            result.release = compensatingReleaseService.record(cancelled, "Event cancelled (job " + jobId + ")");
+            result.cancelled = cancelled;
+            salesStatsService.apply(stats);
+            timelineService.recordAll(timeline);
+        }
+
+        job.setLastBookingId(rows.get(rows.size() - 1).getId());
+        job.setProcessedBookings(job.getProcessedBookings() + rows.size());
+        job.setCancelledBookings(job.getCancelledBookings() + result.bookingIds.size());
+        job.setChunks(job.getChunks() + 1);
+        job.setUpdatedAt(now);
+        jobRepository.save(job);
+
+        result.scanned = rows.size();
+        return result;
+    }
+
+    private void applySideEffects(Long jobId, ChunkResult chunk) {
+        if (chunk.bookingIds.isEmpty()) {
+            return;
+        }
+
+        chunk.cancelled.forEach(purchaseLimitService::release);
+        int released = compensatingReleaseService.release(chunk.release);
+
+        try {
+            checkinServiceClient.deleteQRCodesForBookings(chunk.bookingIds);
+        } catch (Exception e) {
+            log.error("Failed to delete QR codes for {} cancelled bookings: {}",
+                      chunk.bookingIds.size(), e.getMessage());
+        }
+
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.BOOKING_EXCHANGE,
+                                          RabbitMQConfig.BOOKING_CANCELLED_BATCH_ROUTING_KEY,
+                                          new BookingBatchMessageDTO(chunk.eventId, "EVENT_CANCELLED", chunk.messages));
+        } catch (Exception e) {
+            log.error("Failed to publish batch cancellation event: {}", e.getMessage());
+        }
+
+        BulkCancellationJob job = getJob(jobId);
+        job.setReleasedTickets(job.getReleasedTickets() + released);
+        job.setUpdatedAt(LocalDateTime.now());
+        jobRepository.save(job);
+
+        log.info("Cancellation job {}: chunk of {} bookings cancelled ({} scanned), {} tickets released",
+                 jobId, chunk.bookingIds.size(), chunk.scanned, released);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    private static class ChunkResult {
+        private final Long eventId;
+        private final List<Long> bookingIds = new ArrayList<>();
+        private final List<BookingMessageDTO> messages = new ArrayList<>();
+        private List<Booking> cancelled = List.of();
+        private PendingRelease release = new PendingRelease();
+        private int scanned;
+
+        private ChunkResult(Long eventId) {
+            this.eventId = eventId;
+        }
+
+        private boolean isEmpty() {
+            return scanned == 0;
+        }
+    }
+}
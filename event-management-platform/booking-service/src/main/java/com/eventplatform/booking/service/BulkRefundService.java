@@ -0,0 +1,422 @@
+package com.eventplatform.booking.service;
+
+import com.eventplatform.booking.client.CheckinServiceClient;
+import com.eventplatform.booking.config.ExecutorConfig;
+import com.eventplatform.booking.config.RabbitMQConfig;
+import com.eventplatform.booking.dto.BookingBatchMessageDTO;
+import com.eventplatform.booking.dto.BookingMessageDTO;
+import com.eventplatform.booking.dto.BulkRefundJobDTO;
+import com.eventplatform.booking.dto.BulkRefundRequestDTO;
+import com.eventplatform.booking.entity.Booking;
+import com.eventplatform.booking.entity.Booking.BookingStatus;
+import com.eventplatform.booking.entity.BookingEvent;
+import com.eventplatform.booking.entity.BookingEvent.BookingEventType;
+import com.eventplatform.booking.entity.BulkRefundChunk;
+import com.eventplatform.booking.entity.BulkRefundJob;
+import com.eventplatform.booking.entity.BulkRefundJob.JobStatus;
+import com.eventplatform.booking.repository.BookingRepository;
+import com.eventplatform.booking.repository.BulkRefundChunkRepository;
+import com.eventplatform.booking.repository.BulkRefundJobRepository;
+import com.eventplatform.booking.service.CompensatingReleaseService.PendingRelease;
+import com.eventplatform.booking.service.SalesStatsService.StatsDelta;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Approves or rejects many refund requests at once. The selected bookings are split into chunks
+ * that run in parallel on a bounded pool, each in its own short transaction that also records the
+ * chunk's outcome; tickets of a chunk are released with one call per ticket type once that chunk
+ * has committed, backed by compensating sagas so a failed release is retried. Jobs are persisted
+ * with their booking ids: a job interrupted by a crash is picked up again once its heartbeat goes
+ * stale, and only the chunks that never committed are run again.
+ */
+@Service
+@Slf4j
+public class BulkRefundService {
+
+    private static final Set<JobStatus> FINISHED = EnumSet.of(
+        JobStatus.COMPLETED, JobStatus.COMPLETED_WITH_FAILURES, JobStatus.FAILED);
+
+    private final BookingRepository bookingRepository;
+    private final BulkRefundJobRepository jobRepository;
+    private final BulkRefundChunkRepository chunkRepository;
+    private final CompensatingReleaseService compensatingReleaseService;
+    private final SalesStatsService salesStatsService;
+    private final BookingTimelineService timelineService;
+    private final PurchaseLimitService purchaseLimitService;
+    private final RabbitTemplate rabbitTemplate;
+    private final CheckinServiceClient checkinServiceClient;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor jobExecutor;
+    private final TaskExecutor chunkExecutor;
+    private final int chunkSize;
+    private final long retentionMinutes;
+    private final long staleAfterSeconds;
+
+    private final Set<String> runningJobs = ConcurrentHashMap.newKeySet();
+
+    public BulkRefundService(BookingRepository bookingRepository,
+                             BulkRefundJobRepository jobRepository,
+                             BulkRefundChunkRepository chunkRepository,
+                             CompensatingReleaseService compensatingReleaseService,
+                             SalesStatsService salesStatsService,
+                             BookingTimelineService timelineService,
+                             PurchaseLimitService purchaseLimitService,
+                             RabbitTemplate rabbitTemplate,
+                             CheckinServiceClient checkinServiceClient,
+                             TransactionTemplate transactionTemplate,
+                             @Qualifier(ExecutorConfig.BULK_JOB_EXECUTOR) TaskExecutor jobExecutor,
+                             @Qualifier(ExecutorConfig.BULK_CHUNK_EXECUTOR) TaskExecutor chunkExecutor,
+                             @Value("${booking.bulk.refund.chunk-size:200}") int chunkSize,
+                             @Value("${booking.bulk.refund.retention-minutes:1440}") long retentionMinutes,
+                             @Value("${booking.bulk.refund.stale-after-seconds:120}") long staleAfterSeconds) {
+        this.bookingRepository = bookingRepository;
+        this.jobRepository = jobRepository;
+        this.chunkRepository = chunkRepository;
+        this.compensatingReleaseService = compensatingReleaseService;
+        this.salesStatsService = salesStatsService;
+        this.timelineService = timelineService;
+        this.purchaseLimitService = purchaseLimitService;
+        this.rabbitTemplate = rabbitTemplate;
+        this.checkinServiceClient = checkinServiceClient;
+        this.transactionTemplate = transactionTemplate;
+        this.jobExecutor = jobExecutor;
+        this.chunkExecutor = chunkExecutor;
+        this.chunkSize = chunkSize;
+        this.retentionMinutes = retentionMinutes;
+        this.staleAfterSeconds = staleAfterSeconds;
+    }
+
+    /**
+     * Both the decision and the scope must be explicit: a request without {@code approve}, or with
+     * neither booking ids nor an event id, is rejected instead of acting on every pending refund.
+     */
+    public BulkRefundJobDTO startBulkRefund(BulkRefundRequestDTO request) {
+        if (request.getApprove() == null) {
+            throw new IllegalArgumentException("Le champ 'approve' est obligatoire");
+        }
+
+        List<Long> bookingIds;
+        if (request.getBookingIds() != null && !request.getBookingIds().isEmpty()) {
+            bookingIds = request.getBookingIds().stream().distinct().sorted().toList();
+        } else if (request.getEventId() != null) {
+            bookingIds = bookingRepository.findIdsByEventIdAndStatus(request.getEventId(), BookingStatus.REFUND_REQUESTED);
+        } else {
+            throw new IllegalArgumentException("Précisez les réservations (bookingIds) ou l'événement (eventId) à traiter");
+        }
+
+        BulkRefundJob job = new BulkRefundJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setEventId(request.getEventId());
+        job.setApprove(request.getApprove());
+        job.setAdminNotes(request.getAdminNotes() != null ? request.getAdminNotes() : "");
+        job.setBookingIds(bookingIds.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        job.setTotalBookings(bookingIds.size());
+        job.setChunkSize(chunkSize);
+        job = jobRepository.save(job);
+
+        log.info("Started bulk refund job {} ({}) for {} bookings",
+                 job.getId(), job.getApprove() ? "approve" : "reject", bookingIds.size());
+        submit(job.getId());
+        return toDTO(job, List.of());
+    }
+
+    public BulkRefundJobDTO getJob(String jobId) {
+        return toDTO(findJob(jobId), chunkRepository.findByJobIdOrderByChunkIndex(jobId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${booking.bulk.refund.recovery-interval-ms:60000}",
+               initialDelayString = "${booking.bulk.refund.recovery-interval-ms:60000}")
+    public void resumeStaleJobs() {
+        LocalDateTime staleBefore = LocalDateTime.now().minusSeconds(staleAfterSeconds);
+
+        for (BulkRefundJob job : jobRepository.findByStatusAndUpdatedAtBefore(JobStatus.RUNNING, staleBefore)) {
+            if (!runningJobs.contains(job.getId())
+                    && jobRepository.claim(job.getId(), LocalDateTime.now(), staleBefore) == 1) {
+                log.info("Resuming stale bulk refund job {}", job.getId());
+                submit(job.getId());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booking.bulk.refund.cleanup-interval-ms:600000}")
+    public void evictFinishedJobs() {
+        List<String> jobIds = jobRepository.findIdsFinishedBefore(
+                FINISHED, LocalDateTime.now().minusMinutes(retentionMinutes));
+        if (!jobIds.isEmpty()) {
+            chunkRepository.deleteByJobIdIn(jobIds);
+            jobRepository.deleteAllById(jobIds);
+        }
+    }
+
+    private BulkRefundJob findJob(String jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Refund job not found with id: " + jobId));
+    }
+
+    private void submit(String jobId) {
+        if (runningJobs.add(jobId)) {
+            jobExecutor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    runningJobs.remove(jobId);
+                }
+            });
+        }
+    }
+
+    private void run(String jobId) {
+        try {
+            BulkRefundJob job = findJob(jobId);
+            List<Long> bookingIds = parseIds(job.getBookingIds());
+            Set<Integer> committed = chunkRepository.findByJobIdOrderByChunkIndex(jobId).stream()
+                    .map(BulkRefundChunk::getChunkIndex)
+                    .collect(Collectors.toSet());
+
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            for (int index = 0, from = 0; from < bookingIds.size(); index++, from += job.getChunkSize()) {
+                if (committed.contains(index)) {
+                    continue;
+                }
+                int chunkIndex = index;
+                List<Long> chunk = bookingIds.subList(from, Math.min(from + job.getChunkSize(), bookingIds.size()));
+                chunks.add(CompletableFuture.runAsync(() -> processChunk(job, chunkIndex, chunk), chunkExecutor));
+            }
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).join();
+
+            BulkRefundJobDTO result = getJob(jobId);
+            job.setStatus(result.getFailures().isEmpty() ? JobStatus.COMPLETED : JobStatus.COMPLETED_WITH_FAILURES);
+            job.setCompletedAt(LocalDateTime.now());
+            job.setUpdatedAt(job.getCompletedAt());
+            jobRepository.save(job);
+
+            log.info("Bulk refund job {} finished: {}/{} bookings processed, {} failures, {} tickets released",
+                     jobId, result.getSucceededBookings(), result.getTotalBookings(),
+                     result.getFailures().size(), result.getReleasedTickets());
+        } catch (Exception e) {
+            log.error("Bulk refund job {} failed: {}", jobId, e.getMessage(), e);
+            jobRepository.findById(jobId).ifPresent(job -> {
+                job.setStatus(JobStatus.FAILED);
+                job.setErrorMessage(truncate(e.getMessage()));
+                job.setCompletedAt(LocalDateTime.now());
+                job.setUpdatedAt(job.getCompletedAt());
+                jobRepository.save(job);
+            });
+        }
+    }
+
+    private void processChunk(BulkRefundJob job, int chunkIndex, List<Long> bookingIds) {
+        ChunkResult result;
+        try {
+            result = transactionTemplate.execute(status -> refundChunk(job, chunkIndex, bookingIds));
+        } catch (Exception e) {
+            log.error("Bulk refund job {}: chunk {} of {} bookings rolled back: {}",
+                      job.getId(), chunkIndex, bookingIds.size(), e.getMessage());
+            recordRolledBack(job, chunkIndex, bookingIds, e);
+            return;
+        }
+
+        heartbeat(job.getId());
+        if (result == null || result.bookingIds.isEmpty()) {
+            return;
+        }
+
+        if (job.getApprove()) {
+            result.refunded.forEach(purchaseLimitService::release);
+            int released = compensatingReleaseService.release(result.release);
+            if (released > 0) {
+                chunkRepository.addReleasedTickets(result.chunkId, released);
+            }
+            deleteQRCodes(result.bookingIds);
+        }
+        publishBatch(job.getApprove(), result.messages);
+    }
+
+    private ChunkResult refundChunk(BulkRefundJob job, int chunkIndex, List<Long> bookingIds) {
+        // Claims the chunk first: if another replica already committed it, the unique key fails here
+        BulkRefundChunk chunk = new BulkRefundChunk();
+        chunk.setJobId(job.getId());
+        chunk.setChunkIndex(chunkIndex);
+        chunk.setProcessedBookings(bookingIds.size());
+        chunk = chunkRepository.saveAndFlush(chunk);
+
+        List<Booking> bookings = bookingRepository.findAllByIdForUpdate(bookingIds);
+        ChunkResult result = new ChunkResult(chunk.getId());
+        List<BulkRefundJobDTO.Failure> failures = new ArrayList<>();
+        StatsDelta stats = new StatsDelta();
+        List<BookingEvent> timeline = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        String actor = "bulk:" + job.getId();
+
+        Set<Long> found = bookings.stream().map(Booking::getId).collect(Collectors.toSet());
+        bookingIds.stream()
+                .filter(id -> !found.contains(id))
+                .forEach(id -> failures.add(new BulkRefundJobDTO.Failure(id, "Booking not found")));
+
+        for (Booking booking : bookings) {
+            if (booking.getStatus() != BookingStatus.REFUND_REQUESTED) {
+                failures.add(new BulkRefundJobDTO.Failure(booking.getId(), "Booking is not in refund requested status"));
+                continue;
+            }
+
+            if (job.getApprove()) {
+                booking.setStatus(BookingStatus.REFUNDED);
+                booking.setRefundProcessedDate(now);
+                timeline.add(BookingTimelineService.entry(booking.getId(), BookingEventType.REFUND_APPROVED,
+                                                          actor, job.getAdminNotes(), now));
+                timeline.add(BookingTimelineService.entry(booking.getId(), BookingEventType.PAYMENT_REFUNDED,
+                                                          actor, "Amount: " + booking.getRefundAmount(), now));
+                result.refunded.add(booking);
+                stats.add(booking, BookingStatus.REFUND_REQUESTED, BookingStatus.REFUNDED);
+            } else {
+                booking.setStatus(BookingStatus.REFUND_REJECTED);
+                booking.setRefundRejectionReason(job.getAdminNotes());
+                timeline.add(BookingTimelineService.entry(booking.getId(), BookingEventType.REFUND_REJECTED,
+                                                          actor, job.getAdminNotes(), now));
+            }
+
+            result.bookingIds.add(booking.getId());
+            result.messages.add(BookingMessageDTO.fromEntity(booking));
+        }
+
+        bookingRepository.saveAll(bookings);
+        if (!result.refunded.isEmpty()) {
+            result.release = compensatingReleaseService.record(result.refunded, "Refund approved (job " + job.getId() + ")");
+        }
+        salesStatsService.apply(stats);
+        timelineService.recordAll(timeline);
+
+        chunk.setSucceededBookings(result.bookingIds.size());
+        chunk.setFailures(encodeFailures(failures));
+        chunkRepository.save(chunk);
+        return result;
+    }
+
+    private void recordRolledBack(BulkRefundJob job, int chunkIndex, List<Long> bookingIds, Exception cause) {
+        BulkRefundChunk chunk = new BulkRefundChunk();
+        chunk.setJobId(job.getId());
+        chunk.setChunkIndex(chunkIndex);
+        chunk.setProcessedBookings(bookingIds.size());
+        chunk.setFailures(encodeFailures(bookingIds.stream()
+                .map(id -> new BulkRefundJobDTO.Failure(id, "Chunk rolled back: " + cause.getMessage()))
+                .toList()));
+        try {
+            chunkRepository.save(chunk);
+        } catch (Exception e) {
+            // Most likely committed by another replica that took the job over
+            log.warn("Could not record rolled back chunk {} of bulk refund job {}: {}",
+                     chunkIndex, job.getId(), e.getMessage());
+        }
+    }
+
+    private void heartbeat(String jobId) {
+        try {
+            jobRepository.heartbeat(jobId, LocalDateTime.now());
+        } catch (Exception e) {
+            log.warn("Failed to update heartbeat of bulk refund job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    private void deleteQRCodes(List<Long> bookingIds) {
+        try {
+            checkinServiceClient.deleteQRCodesForBookings(bookingIds);
+        } catch (Exception e) {
+            log.error("Failed to delete QR codes for {} refunded bookings: {}", bookingIds.size(), e.getMessage());
+        }
+    }
+
+    private void publishBatch(boolean approve, List<BookingMessageDTO> messages) {
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.BOOKING_EXCHANGE,
+                    approve ? RabbitMQConfig.REFUND_APPROVED_BATCH_ROUTING_KEY
+                            : RabbitMQConfig.REFUND_REJECTED_BATCH_ROUTING_KEY,
+                    new BookingBatchMessageDTO(null, approve ? "REFUND_APPROVED" : "REFUND_REJECTED", messages));
+        } catch (Exception e) {
+            log.error("Failed to publish batch refund event: {}", e.getMessage());
+        }
+    }
+
+    private static BulkRefundJobDTO toDTO(BulkRefundJob job, List<BulkRefundChunk> chunks) {
+        int processed = 0;
+        int succeeded = 0;
+        int released = 0;
+        List<BulkRefundJobDTO.Failure> failures = new ArrayList<>();
+        for (BulkRefundChunk chunk : chunks) {
+            processed += chunk.getProcessedBookings();
+            succeeded += chunk.getSucceededBookings();
+            released += chunk.getReleasedTickets();
+            failures.addAll(decodeFailures(chunk.getFailures()));
+        }
+        return new BulkRefundJobDTO(job.getId(), job.getStatus().name(), job.getApprove(), job.getTotalBookings(),
+                                    processed, succeeded, released, job.getStartedAt(), job.getCompletedAt(), failures);
+    }
+
+    private static List<Long> parseIds(String ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(ids.split(",")).map(Long::valueOf).toList();
+    }
+
+    private static String encodeFailures(List<BulkRefundJobDTO.Failure> failures) {
+        if (failures.isEmpty()) {
+            return null;
+        }
+        return failures.stream()
+                .map(failure -> failure.getBookingId() + ":" + String.valueOf(failure.getMessage()).replace('\n', ' '))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static List<BulkRefundJobDTO.Failure> decodeFailures(String failures) {
+        if (failures == null || failures.isEmpty()) {
+            return List.of();
+        }
+        return failures.lines()
+                .map(line -> {
+                    int separator = line.indexOf(':');
+                    return new BulkRefundJobDTO.Failure(Long.valueOf(line.substring(0, separator)),
+                                                        line.substring(separator + 1));
+                })
+                .toList();
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    private static class ChunkResult {
+        private final Long chunkId;
+        private final List<Long> bookingIds = new ArrayList<>();
+        private final List<BookingMessageDTO> messages = new ArrayList<>();
+        private final List<Booking> refunded = new ArrayList<>();
+        private PendingRelease release = new PendingRelease();
+
+        private ChunkResult(Long chunkId) {
+            this.chunkId = chunkId;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.eventplatform.booking.service;
+
+import com.eventplatform.booking.entity.Booking;
+import com.eventplatform.booking.entity.BookingSaga;
+import com.eventplatform.booking.entity.BookingSaga.SagaStep;
+import com.eventplatform.booking.repository.BookingSagaRepository;
+import com.eventplatform.booking.service.InventoryReleaseService.ReleaseTotals;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Makes ticket releases of bulk operations durable. {@link #record} runs in the transaction that
+ * takes the bookings out of a ticket-holding status and moves their sagas to COMPENSATING (creating
+ * one for bookings that predate sagas); {@link #release} runs after the commit, gives the tickets
+ * back and marks the sagas COMPENSATED. A release that fails or never runs because of a crash leaves
+ * the sagas COMPENSATING, and the saga recovery worker retries it.
+ * <p>
+ * Sagas with a reservation id are released one by one under that id, so a retry by saga recovery
+ * after a lost COMPENSATED update gives nothing back twice. Only sagas without one (bookings that
+ * predate reservation ids) are grouped into one call per ticket type.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CompensatingReleaseService {
+
+    private final BookingSagaRepository sagaRepository;
+    private final InventoryReleaseService inventoryReleaseService;
+
+    /**
+     * Records the tickets of {@code bookings} as owed back to event-service. Must run inside the
+     * transaction that changes the bookings' status. Bookings whose saga is already compensating or
+     * finished are skipped, as their tickets are released elsewhere or were never held.
+     */
+    public PendingRelease record(Collection<Booking> bookings, String reason) {
+        PendingRelease pending = new PendingRelease();
+        if (bookings.isEmpty()) {
+            return pending;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingSaga> sagas = sagaRepository.findByBookingIdIn(
+                bookings.stream().map(Booking::getId).toList()).stream()
+                .collect(Collectors.toMap(BookingSaga::getBookingId, Function.identity()));
+
+        for (Booking booking : bookings) {
+            BookingSaga saga = sagas.get(booking.getId());
+            if (saga == null) {
+                saga = compensatingSaga(booking, reason);
+            } else if (saga.getStep() == SagaStep.CONFIRMED || saga.getStep() == SagaStep.RESERVED) {
+                if (sagaRepository.transition(saga.getId(), saga.getStep(), SagaStep.COMPENSATING, reason, now) != 1) {
+                    continue;
+                }
+            } else {
+                continue;
+            }
+            pending.add(booking, saga);
+        }
+        return pending;
+    }
+
+    /**
+     * Releases what {@link #record} collected, once its transaction has committed. Returns the number
+     * of tickets given back now; the rest is left to saga recovery.
+     */
+    public int release(PendingRelease pending) {
+        int released = 0;
+        List<Long> compensated = new ArrayList<>();
+        for (BookingSaga saga : pending.reservations) {
+            if (inventoryReleaseService.release(saga)) {
+                released += saga.getQuantity();
+                compensated.add(saga.getId());
+            } else {
+                log.warn("Release of booking {} failed, saga recovery will retry it", saga.getBookingId());
+            }
+        }
+        if (!compensated.isEmpty()) {
+            try {
+                sagaRepository.completeCompensation(compensated, LocalDateTime.now());
+            } catch (Exception e) {
+                log.error("Failed to mark {} sagas compensated: {}", compensated.size(), e.getMessage());
+            }
+        }
+
+        for (Map.Entry<String, ReleaseTotals> entry : pending.releases.entrySet()) {
+            int count = inventoryReleaseService.release(entry.getValue());
+            if (count == 0) {
+                log.warn("Release for {} failed, saga recovery will retry it", entry.getKey());
+                continue;
+            }
+            released += count;
+            try {
+                sagaRepository.completeCompensation(pending.sagas.get(entry.getKey()), LocalDateTime.now());
+            } catch (Exception e) {
+                log.error("Failed to mark sagas compensated for {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        return released;
+    }
+
+    private BookingSaga compensatingSaga(Booking booking, String reason) {
+        BookingSaga saga = new BookingSaga();
+        saga.setBookingId(booking.getId());
+        saga.setEventId(booking.getEventId());
+        saga.setTicketTypeId(booking.getTicketTypeId());
+        saga.setQuantity(booking.getQuantity());
+        saga.setStep(SagaStep.COMPENSATING);
+        saga.setLastError(reason);
+        return sagaRepository.save(saga);
+    }
+
+    public static class PendingRelease {
+        private final List<BookingSaga> reservations = new ArrayList<>();
+        private final Map<String, ReleaseTotals> releases = new HashMap<>();
+        private final Map<String, List<Long>> sagas = new HashMap<>();
+
+        public boolean isEmpty() {
+            return reservations.isEmpty() && releases.isEmpty();
+        }
+
+        /**
+         * Adds the tickets of a booking whose saga is COMPENSATING.
+         */
+        public void add(Booking booking, BookingSaga saga) {
+            if (saga.getReservationId() != null) {
+                reservations.add(saga);
+            } else {
+                sagaIds(booking).add(saga.getId());
+                totals(booking).add(booking);
+            }
+        }
+
+        private ReleaseTotals totals(Booking booking) {
+            return releases.computeIfAbsent(target(booking), key -> new ReleaseTotals());
+        }
+
+        private List<Long> sagaIds(Booking booking) {
+            return sagas.computeIfAbsent(target(booking), key -> new ArrayList<>());
+        }
+
+        private static String target(Booking booking) {
+            return booking.getTicketTypeId() != null
+                    ? "ticket type " + booking.getTicketTypeId()
+                    : "event " + booking.getEventId();
+        }
+    }
+}
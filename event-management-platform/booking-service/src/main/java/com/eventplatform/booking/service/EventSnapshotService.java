@@ -0,0 +1,65 @@
+package com.eventplatform.booking.service;
+
+import com.eventplatform.booking.client.EventClient;
+import com.eventplatform.booking.dto.EventDTO;
+import com.eventplatform.booking.entity.EventSnapshot;
+import com.eventplatform.booking.repository.EventSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maintains the event_snapshots read model. Messages from event.exchange are the normal source;
+ * events that predate the queue binding are fetched once from event-service the first time a
+ * listing needs them. A deleted event is kept as a tombstone so older bookings still show its name.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class EventSnapshotService {
+    
+    // Name of a tombstone for an event deleted before booking-service ever saw it
+    private static final String DELETED_EVENT_NAME = "Événement supprimé";
+    
+    private final EventSnapshotRepository snapshotRepository;
+    private final EventClient eventClient;
+    
+    public void apply(EventDTO event) {
+        if (event == null || event.getId() == null || event.getName() == null) {
+            return;
+        }
+        int updated = snapshotRepository.upsert(event.getId(), event.getName(), event.getDate(),
+                                                event.getLocation(), event.getCategory(), event.getStatus(),
+                                                LocalDateTime.now());
+        if (updated == 0) {
+            log.debug("Ignoring update for deleted event {}", event.getId());
+        }
+    }
+    
+    public void markDeleted(Long eventId) {
+        snapshotRepository.markDeleted(eventId, DELETED_EVENT_NAME, LocalDateTime.now());
+    }
+    
+    /**
+     * Fetches and stores the events missing from the read model. Failures are logged and the
+     * affected rows are simply returned without event details.
+     */
+    public Map<Long, EventSnapshot> backfill(Collection<Long> eventIds) {
+        Map<Long, EventSnapshot> snapshots = new HashMap<>();
+        for (Long eventId : eventIds) {
+            try {
+                EventDTO event = eventClient.getEventById(eventId);
+                apply(event);
+                snapshotRepository.findById(eventId).ifPresent(s -> snapshots.put(eventId, s));
+            } catch (Exception e) {
+                log.warn("Could not backfill event snapshot {}: {}", eventId, e.getMessage());
+            }
+        }
+        return snapshots;
+    }
+}
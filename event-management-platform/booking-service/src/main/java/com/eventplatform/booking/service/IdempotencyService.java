@@ -0,0 +1,261 @@
+package com.eventplatform.booking.service;
+
+import com.eventplatform.booking.entity.Booking;
+import com.eventplatform.booking.entity.IdempotencyRecord;
+import com.eventplatform.booking.exception.BookingNotFoundException;
+import com.eventplatform.booking.exception.IdempotencyConflictException;
+import com.eventplatform.booking.repository.BookingRepository;
+import com.eventplatform.booking.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Makes booking creation safe to retry. A key is first looked up in a small in-process LRU,
+ * then in the {@code idempotency_keys} table; concurrent duplicates on the same instance wait
+ * for the first request instead of reserving inventory a second time. A key is only given up when
+ * the booking itself failed: if the booking succeeded but recording it did not, the key stays in
+ * progress and the recording is retried in the background.
+ * <p>
+ * An in-progress claim only holds the key for {@code lease-seconds}; a request that finds a claim
+ * whose owner died past its lease takes the key over instead of getting "in progress" until the
+ * 24-hour TTL, which only applies to completed keys. Completion and release only touch the claim
+ * they made (matched on its claim time), never one taken over since.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final BookingRepository bookingRepository;
+    private final Duration ttl;
+    private final Duration lease;
+    private final long waitTimeoutMs;
+
+    private final Map<String, CompletedKey> recentKeys;
+    private final ReentrantLock recentKeysLock = new ReentrantLock();
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, PendingCompletion> pendingCompletions = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              BookingRepository bookingRepository,
+                              @Value("${booking.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${booking.idempotency.lease-seconds:300}") long leaseSeconds,
+                              @Value("${booking.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${booking.idempotency.wait-timeout-ms:30000}") long waitTimeoutMs) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.bookingRepository = bookingRepository;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.recentKeys = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletedKey> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public Booking execute(String key, Booking request, Supplier<Booking> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key trop long (max " + MAX_KEY_LENGTH + " caractères)");
+        }
+
+        String fingerprint = fingerprint(request);
+
+        CompletedKey cached = getRecent(key);
+        if (cached != null) {
+            return replay(key, cached, fingerprint);
+        }
+
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            if (!existing.fingerprint().equals(fingerprint)) {
+                throw new IdempotencyConflictException(
+                    "Idempotency-Key déjà utilisée pour une requête différente");
+            }
+            log.info("Duplicate request for Idempotency-Key {} is waiting for the first one", key);
+            return await(key, existing.result());
+        }
+
+        try {
+            Booking result;
+            // Truncated to the column precision, the claim time identifies this claim afterwards
+            LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+            if (idempotencyRecordRepository.claim(key, fingerprint, claimedAt, claimedAt.plus(lease)) == 1) {
+                try {
+                    result = action.get();
+                } catch (RuntimeException e) {
+                    releaseKey(key, claimedAt);
+                    throw e;
+                }
+                LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+                putRecent(key, new CompletedKey(result.getId(), fingerprint, expiresAt));
+                recordCompletion(key, new PendingCompletion(claimedAt, result.getId(), expiresAt));
+            } else {
+                result = replayStored(key, fingerprint);
+            }
+
+            mine.result().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Retries recording bookings whose key could not be marked completed, so other instances stop
+     * answering "in progress" and replay the booking instead.
+     */
+    @Scheduled(fixedDelayString = "${booking.idempotency.completion-retry-interval-ms:30000}")
+    public void retryPendingCompletions() {
+        pendingCompletions.forEach((key, pending) -> {
+            try {
+                complete(key, pending);
+                pendingCompletions.remove(key, pending);
+                log.info("Idempotency-Key {} recorded for booking {} after a retry", key, pending.bookingId());
+            } catch (Exception e) {
+                log.warn("Idempotency-Key {} for booking {} still not recorded: {}", key, pending.bookingId(), e.getMessage());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${booking.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpiredKeys() {
+        int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private Booking replayStored(String key, String fingerprint) {
+        Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findById(key);
+        if (stored.isEmpty() || stored.get().getBookingId() == null) {
+            throw new IdempotencyConflictException(
+                "Une requête avec cette Idempotency-Key est déjà en cours de traitement");
+        }
+
+        IdempotencyRecord record = stored.get();
+        CompletedKey completed = new CompletedKey(
+            record.getBookingId(), record.getRequestFingerprint(), record.getExpiresAt());
+        putRecent(key, completed);
+        return replay(key, completed, fingerprint);
+    }
+
+    private Booking replay(String key, CompletedKey completed, String fingerprint) {
+        if (!completed.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyConflictException(
+                "Idempotency-Key déjà utilisée pour une requête différente");
+        }
+
+        log.info("Replaying booking {} for Idempotency-Key {}", completed.bookingId(), key);
+        return bookingRepository.findById(completed.bookingId())
+                .orElseThrow(() -> new BookingNotFoundException(
+                    "Booking not found with id: " + completed.bookingId()));
+    }
+
+    private Booking await(String key, CompletableFuture<Booking> first) {
+        try {
+            return first.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException(
+                "Une requête avec cette Idempotency-Key est déjà en cours de traitement");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for Idempotency-Key " + key);
+        }
+    }
+
+    private void recordCompletion(String key, PendingCompletion pending) {
+        try {
+            complete(key, pending);
+        } catch (Exception e) {
+            // The booking exists: deleting the key here would let a retry book a second time
+            log.error("Failed to record booking {} for Idempotency-Key {}, keeping the key in progress: {}",
+                      pending.bookingId(), key, e.getMessage());
+            pendingCompletions.put(key, pending);
+        }
+    }
+
+    private void complete(String key, PendingCompletion pending) {
+        if (idempotencyRecordRepository.complete(key, pending.claimedAt(), pending.bookingId(), pending.expiresAt()) == 0) {
+            log.error("Idempotency-Key {} was taken over after its lease expired, booking {} is not recorded under it",
+                      key, pending.bookingId());
+        }
+    }
+
+    private void releaseKey(String key, LocalDateTime claimedAt) {
+        try {
+            idempotencyRecordRepository.release(key, claimedAt);
+        } catch (Exception e) {
+            log.error("Failed to release Idempotency-Key {}: {}", key, e.getMessage());
+        }
+    }
+
+    private CompletedKey getRecent(String key) {
+        recentKeysLock.lock();
+        try {
+            CompletedKey completed = recentKeys.get(key);
+            if (completed != null && completed.expiresAt().isBefore(LocalDateTime.now())) {
+                recentKeys.remove(key);
+                return null;
+            }
+            return completed;
+        } finally {
+            recentKeysLock.unlock();
+        }
+    }
+
+    private void putRecent(String key, CompletedKey completed) {
+        recentKeysLock.lock();
+        try {
+            recentKeys.put(key, completed);
+        } finally {
+            recentKeysLock.unlock();
+        }
+    }
+
+    private static String fingerprint(Booking request) {
+        return request.getUserId() + ":" + request.getEventId() + ":" +
+               request.getTicketTypeId() + ":" + request.getQuantity();
+    }
+
+    private record CompletedKey(Long bookingId, String fingerprint, LocalDateTime expiresAt) {
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<Booking> result) {
+    }
+
+    private record PendingCompletion(LocalDateTime claimedAt, Long bookingId, LocalDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.eventplatform.booking.service;
+
+import com.eventplatform.booking.client.EventClient;
+import com.eventplatform.booking.entity.Booking;
+import com.eventplatform.booking.entity.BookingSaga;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gives tickets back to event-service. Reservations made under a reservation id are released one
+ * by one with that id, which event-service honours at most once; bookings that predate reservation
+ * ids are released with one call per ticket type (or per event for bookings without a ticket type)
+ * instead of one call per booking.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class InventoryReleaseService {
+
+    private final EventClient eventClient;
+
+    /**
+     * Releases the accumulated totals and returns the number of tickets given back. Failures are
+     * logged per target so one unreachable ticket type does not block the others.
+     */
+    public int release(ReleaseTotals totals) {
+        int released = 0;
+
+        for (Map.Entry<Long, Integer> entry : totals.getByTicketType().entrySet()) {
+            try {
+                eventClient.releaseTicketType(entry.getKey(), entry.getValue());
+                released += entry.getValue();
+                log.info("Released {} tickets for ticket type {}", entry.getValue(), entry.getKey());
+            } catch (Exception e) {
+                log.error("Failed to release {} tickets for ticket type {}: {}",
+                          entry.getValue(), entry.getKey(), e.getMessage());
+            }
+        }
+
+        for (Map.Entry<Long, Integer> entry : totals.getByEvent().entrySet()) {
+            try {
+                eventClient.releaseTickets(entry.getKey(), entry.getValue());
+                released += entry.getValue();
+                log.info("Released {} tickets for event {}", entry.getValue(), entry.getKey());
+            } catch (Exception e) {
+                log.error("Failed to release {} tickets for event {}: {}",
+                          entry.getValue(), entry.getKey(), e.getMessage());
+            }
+        }
+
+        return released;
+    }
+
+    /**
+     * Releases the tickets held under the saga's reservation id. Returns whether event-service
+     * acknowledged it; releasing an id twice gives nothing back the second time.
+     */
+    public boolean release(BookingSaga saga) {
+        try {
+            if (saga.getTicketTypeId() != null) {
+                eventClient.releaseTicketType(saga.getTicketTypeId(), saga.getQuantity(), saga.getReservationId());
+            } else {
+                eventClient.releaseTickets(saga.getEventId(), saga.getQuantity(), saga.getReservationId());
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to release reservation {} of booking {}: {}",
+                      saga.getReservationId(), saga.getBookingId(), e.getMessage());
+            return false;
+        }
+    }
+
+    public static class ReleaseTotals {
+
+        private final Map<Long, Integer> byTicketType = new HashMap<>();
+        private final Map<Long, Integer> byEvent = new HashMap<>();
+
+        public void add(Booking booking) {
+            if (booking.getTicketTypeId() != null) {
+                byTicketType.merge(booking.getTicketTypeId(), booking.getQuantity(), Integer::sum);
+            } else {
+                byEvent.merge(booking.getEventId(), booking.getQuantity(), Integer::sum);
+            }
+        }
+
+        public void addAll(ReleaseTotals other) {
+            other.byTicketType.forEach((id, quantity) -> byTicketType.merge(id, quantity, Integer::sum));
+            other.byEvent.forEach((id, quantity) -> byEvent.merge(id, quantity, Integer::sum));
+        }
+
+        public boolean isEmpty() {
+            return byTicketType.isEmpty() && byEvent.isEmpty();
+        }
+
+        public Map<Long, Integer> getByTicketType() {
+            return byTicketType;
+        }
+
+        public Map<Long, Integer> getByEvent() {
+            return byEvent;
+        }
+    }
+}
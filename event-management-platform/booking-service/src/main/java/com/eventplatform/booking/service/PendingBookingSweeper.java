@@ -0,0 +1,173 @@
+package com.eventplatform.booking.service;
+
+import com.eventplatform.booking.entity.Booking;
+import com.eventplatform.booking.entity.Booking.BookingStatus;
+import com.eventplatform.booking.entity.BookingEvent;
+import com.eventplatform.booking.entity.BookingEvent.BookingEventType;
+import com.eventplatform.booking.entity.BookingSaga;
+import com.eventplatform.booking.entity.BookingSaga.SagaStep;
+import com.eventplatform.booking.repository.BookingRepository;
+import com.eventplatform.booking.repository.BookingSagaRepository;
+import com.eventplatform.booking.service.CompensatingReleaseService.PendingRelease;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cancels PENDING bookings that outlived their expiry and gives their tickets back.
+ * <p>
+ * Each batch is leased with {@code FOR UPDATE SKIP LOCKED} in one short transaction, so replicas
+ * sweeping at the same time split the work instead of waiting on each other. In that transaction
+ * the bookings are cancelled and every booking that may hold tickets gets its saga moved to
+ * COMPENSATING, creating one for bookings that predate sagas. Tickets are released after the
+ * commit through {@link CompensatingReleaseService}, by reservation id where the saga has one; if a
+ * release fails, the saga stays COMPENSATING and the saga recovery worker retries it.
+ */
+@Service
+@Slf4j
+public class PendingBookingSweeper {
+    
+    private final BookingRepository bookingRepository;
+    private final BookingSagaRepository sagaRepository;
+    private final CompensatingReleaseService compensatingReleaseService;
+    private final BookingTimelineService timelineService;
+    private final PurchaseLimitService purchaseLimitService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long pendingTtlMinutes;
+    
+    public PendingBookingSweeper(BookingRepository bookingRepository,
+                                 BookingSagaRepository sagaRepository,
+                                 CompensatingReleaseService compensatingReleaseService,
+                                 BookingTimelineService timelineService,
+                                 PurchaseLimitService purchaseLimitService,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${booking.pending.sweep-batch-size:200}") int batchSize,
+                                 @Value("${booking.pending.sweep-max-batches:20}") int maxBatchesPerRun,
+                                 @Value("${booking.pending.ttl-minutes:15}") long pendingTtlMinutes) {
+        this.bookingRepository = bookingRepository;
+        this.sagaRepository = sagaRepository;
+        this.compensatingReleaseService = compensatingReleaseService;
+        this.timelineService = timelineService;
+        this.purchaseLimitService = purchaseLimitService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pendingTtlMinutes = pendingTtlMinutes;
+    }
+    
+    @Scheduled(fixedDelayString = "${booking.pending.sweep-interval-ms:60000}",
+               initialDelayString = "${booking.pending.sweep-interval-ms:60000}")
+    public void sweepExpiredBookings() {
+        int expired = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Lease lease;
+            try {
+                lease = transactionTemplate.execute(status -> leaseBatch());
+            } catch (Exception e) {
+                log.error("Failed to lease expired pending bookings: {}", e.getMessage());
+                break;
+            }
+            if (lease == null || lease.scanned == 0) {
+                break;
+            }
+            
+            compensatingReleaseService.release(lease.release);
+            expired += lease.cancelled;
+            
+            if (lease.scanned < batchSize) {
+                break;
+            }
+        }
+        if (expired > 0) {
+            log.info("Expired {} stale pending bookings", expired);
+        }
+    }
+    
+    private Lease leaseBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = bookingRepository.findExpiredPendingForUpdate(
+                now, now.minusMinutes(pendingTtlMinutes), batchSize);
+        
+        Lease lease = new Lease();
+        lease.scanned = bookings.size();
+        if (bookings.isEmpty()) {
+            return lease;
+        }
+        
+        Map<Long, BookingSaga> sagas = sagaRepository.findByBookingIdIn(
+                bookings.stream().map(Booking::getId).toList()).stream()
+                .collect(Collectors.toMap(BookingSaga::getBookingId, Function.identity()));
+        
+        List<BookingEvent> timeline = new ArrayList<>();
+        for (Booking booking : bookings) {
+            BookingSaga saga = sagas.get(booking.getId());
+            Boolean holdsTickets = settleSaga(booking, saga, now);
+            if (holdsTickets == null) {
+                continue;
+            }
+            
+            booking.setStatus(BookingStatus.CANCELLED);
+            booking.setCancelledDate(now);
+            timeline.add(BookingTimelineService.entry(booking.getId(), BookingEventType.EXPIRED, "sweeper",
+                    holdsTickets ? "Pending booking expired, tickets released" : "Pending booking expired", now));
+            lease.cancelled++;
+            purchaseLimitService.releaseAfterCommit(booking);
+            
+            if (holdsTickets) {
+                lease.release.add(booking, saga != null ? saga : compensatingSaga(booking));
+            }
+        }
+        
+        bookingRepository.saveAll(bookings);
+        timelineService.recordAll(timeline);
+        return lease;
+    }
+    
+    /**
+     * Moves the booking's saga out of the way. Returns whether the booking may hold tickets, or
+     * null when another worker is already handling it.
+     */
+    private Boolean settleSaga(Booking booking, BookingSaga saga, LocalDateTime now) {
+        if (saga == null) {
+            return true;
+        }
+        return switch (saga.getStep()) {
+            // The reserve may have landed; saga recovery releases it by reservation id
+            case STARTED -> sagaRepository.transition(saga.getId(), SagaStep.STARTED,
+                                                      saga.getReservationId() != null ? SagaStep.COMPENSATING : SagaStep.ABORTED,
+                                                      "Expired", now) == 1 ? false : null;
+            case RESERVED -> sagaRepository.transition(saga.getId(), SagaStep.RESERVED, SagaStep.COMPENSATING,
+                                                       "Expired", now) == 1 ? true : null;
+            case ABORTED, COMPENSATED -> false;
+            case COMPENSATING, CONFIRMED -> null;
+        };
+    }
+    
+    private BookingSaga compensatingSaga(Booking booking) {
+        BookingSaga saga = new BookingSaga();
+        saga.setBookingId(booking.getId());
+        saga.setEventId(booking.getEventId());
+        saga.setTicketTypeId(booking.getTicketTypeId());
+        saga.setQuantity(booking.getQuantity());
+        saga.setStep(SagaStep.COMPENSATING);
+        saga.setLastError("Expired");
+        return sagaRepository.save(saga);
+    }
+    
+    private static class Lease {
+        private int scanned;
+        private int cancelled;
+        private final PendingRelease release = new PendingRelease();
+    }
+}
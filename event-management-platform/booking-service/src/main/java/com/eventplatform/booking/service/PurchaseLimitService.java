@@ -0,0 +1,254 @@
+package com.eventplatform.booking.service;
+
+import com.eventplatform.booking.entity.Booking;
+import com.eventplatform.booking.entity.Booking.BookingStatus;
+import com.eventplatform.booking.exception.PurchaseLimitExceededException;
+import com.eventplatform.booking.repository.BookingRepository;
+import com.eventplatform.booking.repository.EventSnapshotRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-user purchase limits checked entirely in memory: booking attempts per user in a sliding
+ * window, and tickets held per user and event. Attempts use atomic counters and held tickets are
+ * updated under the map's per-key lock, so the check adds no query to booking creation. Held
+ * tickets are rebuilt from the bookings table at startup, before the web server accepts bookings;
+ * a pair is dropped when its count falls to zero or its event is over.
+ * <p>
+ * Counters are kept per replica; a user spread over several replicas can exceed the limits by that
+ * factor until the gateway routes users consistently.
+ */
+@Service
+@Slf4j
+public class PurchaseLimitService implements SmartInitializingSingleton {
+    
+    static final Set<BookingStatus> HELD = EnumSet.of(
+        BookingStatus.PENDING,
+        BookingStatus.CONFIRMED,
+        BookingStatus.REFUND_REQUESTED,
+        BookingStatus.REFUND_REJECTED,
+        BookingStatus.COMPLETED
+    );
+    
+    private static final int WINDOW_BUCKETS = 6;
+    
+    private final BookingRepository bookingRepository;
+    private final EventSnapshotRepository eventSnapshotRepository;
+    private final int maxTicketsPerEvent;
+    private final int maxAttemptsPerWindow;
+    private final long windowMillis;
+    private final int reconcileDays;
+    private final long endedGraceHours;
+    
+    private final ConcurrentHashMap<UserEvent, Integer> heldTickets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, SlidingWindow> attempts = new ConcurrentHashMap<>();
+    
+    public PurchaseLimitService(BookingRepository bookingRepository,
+                                EventSnapshotRepository eventSnapshotRepository,
+                                @Value("${booking.limits.max-tickets-per-event:6}") int maxTicketsPerEvent,
+                                @Value("${booking.limits.max-attempts-per-window:10}") int maxAttemptsPerWindow,
+                                @Value("${booking.limits.attempt-window-seconds:60}") long windowSeconds,
+                                @Value("${booking.limits.reconcile-days:90}") int reconcileDays,
+                                @Value("${booking.limits.ended-grace-hours:24}") long endedGraceHours) {
+        this.bookingRepository = bookingRepository;
+        this.eventSnapshotRepository = eventSnapshotRepository;
+        this.maxTicketsPerEvent = maxTicketsPerEvent;
+        this.maxAttemptsPerWindow = maxAttemptsPerWindow;
+        this.windowMillis = windowSeconds * 1000;
+        this.reconcileDays = reconcileDays;
+        this.endedGraceHours = endedGraceHours;
+    }
+    
+    /**
+     * Counts the attempt and, if both limits allow it, holds the requested tickets for the user.
+     * A booking that then fails must give them back with {@link #release}.
+     */
+    public void acquire(Long userId, Long eventId, int quantity) {
+        if (userId == null || eventId == null) {
+            return;
+        }
+        
+        if (maxAttemptsPerWindow > 0) {
+            SlidingWindow window = attempts.computeIfAbsent(userId, id -> new SlidingWindow(windowMillis));
+            if (window.incrementAndCount(System.currentTimeMillis()) > maxAttemptsPerWindow) {
+                throw new PurchaseLimitExceededException(
+                    "Trop de tentatives de réservation, veuillez réessayer plus tard",
+                    Math.max(1, windowMillis / WINDOW_BUCKETS / 1000));
+            }
+        }
+        
+        if (maxTicketsPerEvent > 0) {
+            heldTickets.compute(new UserEvent(userId, eventId), (key, current) -> {
+                int held = current != null ? current : 0;
+                if (held + quantity > maxTicketsPerEvent) {
+                    throw new PurchaseLimitExceededException(
+                        String.format("Limite de %d billet(s) par événement atteinte (déjà %d)", maxTicketsPerEvent, held),
+                        0);
+                }
+                return held + quantity;
+            });
+        }
+    }
+    
+    public void release(Long userId, Long eventId, int quantity) {
+        if (userId == null || eventId == null || maxTicketsPerEvent <= 0) {
+            return;
+        }
+        heldTickets.computeIfPresent(new UserEvent(userId, eventId),
+                                     (key, current) -> current > quantity ? current - quantity : null);
+    }
+    
+    public void release(Booking booking) {
+        if (booking.getQuantity() != null) {
+            release(booking.getUserId(), booking.getEventId(), booking.getQuantity());
+        }
+    }
+    
+    /**
+     * Releases once the caller's transaction commits, so a rollback that keeps the booking holding
+     * tickets does not leave the counter short (and a retry release it a second time).
+     */
+    public void releaseAfterCommit(Booking booking) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(booking);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(booking);
+            }
+        });
+    }
+    
+    /**
+     * Runs once every singleton exists but before the context starts its lifecycle beans, so the
+     * counters are loaded before Tomcat, the schedulers or the message listeners can change them.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        reconcile();
+    }
+    
+    void reconcile() {
+        if (maxTicketsPerEvent <= 0) {
+            return;
+        }
+        try {
+            int entries = 0;
+            for (Object[] row : bookingRepository.sumHeldTicketsByUserAndEvent(
+                    HELD, LocalDateTime.now().minusDays(reconcileDays))) {
+                long tickets = ((Number) row[2]).longValue();
+                if (tickets > 0) {
+                    heldTickets.merge(new UserEvent((Long) row[0], (Long) row[1]), (int) tickets, Integer::sum);
+                    entries++;
+                }
+            }
+            log.info("Purchase limits reconciled: {} user/event counters loaded", entries);
+        } catch (Exception e) {
+            log.error("Failed to reconcile purchase limits, starting with empty counters: {}", e.getMessage());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${booking.limits.cleanup-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        attempts.values().removeIf(window -> window.isIdle(now));
+    }
+    
+    /**
+     * Drops the held-ticket counters of events that are over or deleted; nobody can book them
+     * any more, so their counters only take memory.
+     */
+    @Scheduled(fixedDelayString = "${booking.limits.ended-cleanup-interval-ms:3600000}")
+    public void evictEndedEvents() {
+        Set<Long> eventIds = new HashSet<>();
+        heldTickets.keySet().forEach(key -> eventIds.add(key.eventId()));
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> ended = eventSnapshotRepository.findEndedIds(
+                    eventIds, LocalDateTime.now().minusHours(endedGraceHours));
+            if (!ended.isEmpty()) {
+                Set<Long> endedIds = Set.copyOf(ended);
+                heldTickets.keySet().removeIf(key -> endedIds.contains(key.eventId()));
+                log.info("Dropped purchase limit counters of {} ended events", endedIds.size());
+            }
+        } catch (Exception e) {
+            log.error("Failed to evict purchase limit counters of ended events: {}", e.getMessage());
+        }
+    }
+    
+    private record UserEvent(Long userId, Long eventId) {
+    }
+    
+    /**
+     * Attempt counter over a window split into fixed buckets. Each bucket packs its slot number and
+     * count into one long updated by CAS, so concurrent increments never block.
+     */
+    static final class SlidingWindow {
+        
+        private static final int COUNT_BITS = 20;
+        private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+        
+        private final AtomicLongArray buckets = new AtomicLongArray(WINDOW_BUCKETS);
+        private final long bucketMillis;
+        
+        SlidingWindow(long windowMillis) {
+            this.bucketMillis = Math.max(1, windowMillis / WINDOW_BUCKETS);
+        }
+        
+        int incrementAndCount(long nowMillis) {
+            long slot = nowMillis / bucketMillis;
+            int index = (int) (slot % WINDOW_BUCKETS);
+            while (true) {
+                long current = buckets.get(index);
+                long next;
+                if (current >>> COUNT_BITS == slot) {
+                    if ((current & COUNT_MASK) == COUNT_MASK) {
+                        break;
+                    }
+                    next = current + 1;
+                } else {
+                    next = (slot << COUNT_BITS) | 1;
+                }
+                if (buckets.compareAndSet(index, current, next)) {
+                    break;
+                }
+            }
+            
+            int total = 0;
+            for (int i = 0; i < WINDOW_BUCKETS; i++) {
+                long value = buckets.get(i);
+                if (slot - (value >>> COUNT_BITS) < WINDOW_BUCKETS) {
+                    total += (int) (value & COUNT_MASK);
+                }
+            }
+            return total;
+        }
+        
+        boolean isIdle(long nowMillis) {
+            long slot = nowMillis / bucketMillis;
+            for (int i = 0; i < WINDOW_BUCKETS; i++) {
+                if (slot - (buckets.get(i) >>> COUNT_BITS) < WINDOW_BUCKETS) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.eventplatform.booking.service;
+
+import com.eventplatform.booking.dto.EventSalesStatsDTO;
+import com.eventplatform.booking.entity.Booking;
+import com.eventplatform.booking.entity.Booking.BookingStatus;
+import com.eventplatform.booking.entity.EventSalesStats;
+import com.eventplatform.booking.repository.BookingRepository;
+import com.eventplatform.booking.repository.EventSalesStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Per-event and per-ticket-type sales counters. Every status change adds its delta with an atomic
+ * upsert in the same transaction, so dashboards read a handful of rows instead of every booking.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SalesStatsService {
+    
+    private static final Set<BookingStatus> SOLD = EnumSet.of(
+        BookingStatus.CONFIRMED,
+        BookingStatus.REFUND_REQUESTED,
+        BookingStatus.REFUND_REJECTED,
+        BookingStatus.COMPLETED
+    );
+    
+    private final EventSalesStatsRepository statsRepository;
+    private final BookingRepository bookingRepository;
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Booking booking, BookingStatus from, BookingStatus to) {
+        StatsDelta delta = new StatsDelta();
+        delta.add(booking, from, to);
+        apply(delta);
+    }
+    
+    /**
+     * Writes accumulated deltas, one upsert per ticket type, in a fixed order so concurrent chunks
+     * touching the same event lock its rows in the same sequence.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(StatsDelta delta) {
+        LocalDateTime now = LocalDateTime.now();
+        delta.counters.forEach((key, c) -> statsRepository.increment(
+                key.eventId(), key.ticketTypeId(), c.soldBookings, c.soldTickets, c.cancelledTickets,
+                c.refundedTickets, c.checkedInTickets, c.revenue, c.refundedAmount, now));
+    }
+    
+    public EventSalesStatsDTO getStats(Long eventId) {
+        return toDTO(eventId, statsRepository.findByEventIdOrderByTicketTypeIdAsc(eventId));
+    }
+    
+    /**
+     * Recomputes an event's counters from its bookings, for events sold before the counters existed
+     * or after a manual data fix. Cancelled bookings are counted as sold first, except PENDING
+     * bookings the expiry sweeper cancelled, which were never confirmed.
+     * <p>
+     * Status changes keep incrementing while this runs. The event's rows are first locked, in the
+     * same order {@link #apply} uses, with an empty increment; the bookings are then aggregated
+     * again and the rows overwritten. A change committed before the lock is in that aggregate, one
+     * committed after it waits for the rebuild and adds its delta on top, so none is lost.
+     */
+    @Transactional
+    public EventSalesStatsDTO rebuild(Long eventId) {
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> ticketTypeIds = new TreeSet<>(aggregate(eventId).keySet());
+        statsRepository.findByEventIdOrderByTicketTypeIdAsc(eventId)
+                .forEach(row -> ticketTypeIds.add(row.getTicketTypeId()));
+        ticketTypeIds.forEach(id -> statsRepository.increment(eventId, id, 0, 0, 0, 0, 0, 0, 0, now));
+        
+        Map<Long, EventSalesStats> rows = aggregate(eventId);
+        for (Long ticketTypeId : ticketTypeIds) {
+            rows.computeIfAbsent(ticketTypeId, id -> emptyRow(eventId, id));
+        }
+        rows.values().forEach(row -> statsRepository.overwrite(
+                eventId, row.getTicketTypeId(), row.getSoldBookings(), row.getSoldTickets(), row.getCancelledTickets(),
+                row.getRefundedTickets(), row.getCheckedInTickets(), row.getRevenue(), row.getRefundedAmount(), now));
+        
+        log.info("Rebuilt sales stats for event {} ({} ticket types)", eventId, rows.size());
+        return toDTO(eventId, List.copyOf(rows.values()));
+    }
+    
+    private Map<Long, EventSalesStats> aggregate(Long eventId) {
+        Map<Long, EventSalesStats> rows = new TreeMap<>();
+        for (Object[] group : bookingRepository.aggregateSoldByEventIdGroupByTicketTypeAndStatus(eventId)) {
+            Long ticketTypeId = group[0] != null ? (Long) group[0] : EventSalesStats.NO_TICKET_TYPE;
+            BookingStatus status = (BookingStatus) group[1];
+            long bookings = ((Number) group[2]).longValue();
+            long tickets = group[3] != null ? ((Number) group[3]).longValue() : 0;
+            double amount = group[4] != null ? ((Number) group[4]).doubleValue() : 0;
+            double refunded = group[5] != null ? ((Number) group[5]).doubleValue() : 0;
+            
+            if (status == BookingStatus.PENDING) {
+                continue;
+            }
+            
+            EventSalesStats row = rows.computeIfAbsent(ticketTypeId, id -> emptyRow(eventId, id));
+            row.setSoldBookings(row.getSoldBookings() + bookings);
+            row.setSoldTickets(row.getSoldTickets() + tickets);
+            if (SOLD.contains(status)) {
+                row.setRevenue(row.getRevenue() + amount);
+            }
+            if (status == BookingStatus.COMPLETED) {
+                row.setCheckedInTickets(row.getCheckedInTickets() + tickets);
+            } else if (status == BookingStatus.CANCELLED) {
+                row.setCancelledTickets(row.getCancelledTickets() + tickets);
+            } else if (status == BookingStatus.REFUNDED) {
+                row.setRefundedTickets(row.getRefundedTickets() + tickets);
+                row.setRefundedAmount(row.getRefundedAmount() + refunded);
+            }
+        }
+        return rows;
+    }
+    
+    private static EventSalesStats emptyRow(Long eventId, Long ticketTypeId) {
+        EventSalesStats stats = new EventSalesStats();
+        stats.setEventId(eventId);
+        stats.setTicketTypeId(ticketTypeId);
+        return stats;
+    }
+    
+    private static EventSalesStatsDTO toDTO(Long eventId, List<EventSalesStats> rows) {
+        EventSalesStatsDTO dto = new EventSalesStatsDTO();
+        dto.setEventId(eventId);
+        dto.setTicketTypes(rows);
+        for (EventSalesStats row : rows) {
+            dto.setSoldBookings(dto.getSoldBookings() + row.getSoldBookings());
+            dto.setSoldTickets(dto.getSoldTickets() + row.getSoldTickets());
+            dto.setCancelledTickets(dto.getCancelledTickets() + row.getCancelledTickets());
+            dto.setRefundedTickets(dto.getRefundedTickets() + row.getRefundedTickets());
+            dto.setCheckedInTickets(dto.getCheckedInTickets() + row.getCheckedInTickets());
+            dto.setRevenue(dto.getRevenue() + row.getRevenue());
+            dto.setRefundedAmount(dto.getRefundedAmount() + row.getRefundedAmount());
+        }
+        return dto;
+    }
+    
+    /**
+     * Counter changes collected for one transaction, grouped by event and ticket type.
+     */
+    public static class StatsDelta {
+        private final Map<Key, Counters> counters = new TreeMap<>();
+        
+        public void add(Booking booking, BookingStatus from, BookingStatus to) {
+            if (from == to || booking.getEventId() == null) {
+                return;
+            }
+            long tickets = booking.getQuantity() != null ? booking.getQuantity() : 0;
+            double price = booking.getTotalPrice() != null ? booking.getTotalPrice() : 0;
+            boolean wasSold = SOLD.contains(from);
+            
+            Counters c;
+            if (to == BookingStatus.CONFIRMED && (from == null || from == BookingStatus.PENDING)) {
+                c = counters(booking);
+                c.soldBookings++;
+                c.soldTickets += tickets;
+                c.revenue += price;
+            } else if (to == BookingStatus.CANCELLED && wasSold) {
+                c = counters(booking);
+                c.cancelledTickets += tickets;
+                c.revenue -= price;
+            } else if (to == BookingStatus.REFUNDED && wasSold) {
+                c = counters(booking);
+                c.refundedTickets += tickets;
+                c.revenue -= price;
+                c.refundedAmount += booking.getRefundAmount() != null ? booking.getRefundAmount() : price;
+            } else if (to == BookingStatus.COMPLETED
+                       && (from == BookingStatus.CONFIRMED || from == BookingStatus.REFUNDED)) {
+                counters(booking).checkedInTickets += tickets;
+            }
+        }
+        
+        public boolean isEmpty() {
+            return counters.isEmpty();
+        }
+        
+        private Counters counters(Booking booking) {
+            Long ticketTypeId = booking.getTicketTypeId() != null
+                    ? booking.getTicketTypeId() : EventSalesStats.NO_TICKET_TYPE;
+            return counters.computeIfAbsent(new Key(booking.getEventId(), ticketTypeId), key -> new Counters());
+        }
+    }
+    
+    private record Key(Long eventId, Long ticketTypeId) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int byEvent = eventId.compareTo(other.eventId);
+            return byEvent != 0 ? byEvent : ticketTypeId.compareTo(other.ticketTypeId);
+        }
+    }
+    
+    private static class Counters {
+        private long soldBookings;
+        private long soldTickets;
+        private long cancelledTickets;
+        private long refundedTickets;
+        private long checkedInTickets;
+        private double revenue;
+        private double refundedAmount;
+    }
+}
@@ -0,0 +1,95 @@
+package com.eventplatform.booking.service;
+
+import com.eventplatform.booking.dto.TicketAvailabilityMessageDTO;
+import com.eventplatform.booking.exception.TicketsUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-replica negative cache of ticket types that are sold out, deactivated or nearly sold out, fed
+ * by the availability messages event-service publishes after each stock change. It only ever
+ * rejects: a request the cache lets through still goes to event-service, which stays authoritative.
+ * Entries expire after a few seconds and are dropped as soon as this replica releases tickets, so
+ * returning stock is never hidden for longer than the TTL.
+ */
+@Service
+@Slf4j
+public class SoldOutCache {
+    
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int lowStockThreshold;
+    private final int maxEntries;
+    
+    public SoldOutCache(@Value("${booking.sold-out-cache.ttl-ms:5000}") long ttlMillis,
+                        @Value("${booking.sold-out-cache.low-stock-threshold:20}") int lowStockThreshold,
+                        @Value("${booking.sold-out-cache.max-entries:10000}") int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.lowStockThreshold = lowStockThreshold;
+        this.maxEntries = maxEntries;
+    }
+    
+    public void record(TicketAvailabilityMessageDTO message) {
+        if (message.getTicketTypeId() == null || message.getAvailableTickets() == null) {
+            return;
+        }
+        long version = message.getTimestamp() != null ? message.getTimestamp() : System.currentTimeMillis();
+        boolean active = !Boolean.FALSE.equals(message.getActive());
+        boolean tracked = !active || message.getAvailableTickets() <= lowStockThreshold;
+        
+        if (tracked && entries.size() >= maxEntries) {
+            evictExpired();
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        
+        entries.compute(message.getTicketTypeId(), (id, current) -> {
+            if (current != null && current.version > version) {
+                return current;
+            }
+            return tracked
+                    ? new Entry(message.getAvailableTickets(), active, message.getName(), version,
+                                System.currentTimeMillis() + ttlMillis)
+                    : null;
+        });
+    }
+    
+    /**
+     * Throws when the cache knows the ticket type cannot satisfy the quantity; otherwise does nothing.
+     */
+    public void checkAvailable(Long ticketTypeId, int quantity) {
+        Entry entry = entries.get(ticketTypeId);
+        if (entry == null) {
+            return;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(ticketTypeId, entry);
+            return;
+        }
+        if (!entry.active) {
+            throw new TicketsUnavailableException("Ce type de ticket n'est plus disponible");
+        }
+        if (entry.available < quantity) {
+            throw new TicketsUnavailableException("Pas assez de billets disponibles pour: "
+                    + (entry.name != null ? entry.name : "Inconnu"));
+        }
+    }
+    
+    public void invalidate(Long ticketTypeId) {
+        if (ticketTypeId != null) {
+            entries.remove(ticketTypeId);
+        }
+    }
+    
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt < now);
+    }
+    
+    private record Entry(int available, boolean active, String name, long version, long expiresAt) {
+    }
+}
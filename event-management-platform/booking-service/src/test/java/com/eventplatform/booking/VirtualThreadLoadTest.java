@@ -0,0 +1,263 @@
+package com.eventplatform.booking;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.RestTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test of the request threading mode (spring.threads.virtual.enabled). A booking-shaped
+ * endpoint makes six sequential blocking calls to a stub remote service over a pooled Apache
+ * HttpClient, like createBooking does through Feign, and 1000 bookings are fired at once. The web
+ * layer is started with booking-service's own configuration, first on Tomcat's 200 platform threads
+ * and then on virtual threads. Bookings in flight, elapsed time, heap, resident memory and live
+ * threads are reported for both modes. Run with {@code mvn -Pload-test test}.
+ */
+@Tag("load")
+class VirtualThreadLoadTest {
+
+    private static final int BOOKINGS = 1000;
+    private static final int REMOTE_CALLS = 6;
+    private static final long REMOTE_LATENCY_MS = 100;
+    private static final int PLATFORM_THREADS = 200;
+
+    private static HttpServer remote;
+    private static ExecutorService remoteExecutor;
+
+    @BeforeAll
+    static void startRemote() throws Exception {
+        // The JDK server closes keep-alive connections past 200 idle ones, under the client's pool
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(2 * BOOKINGS));
+        remoteExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        remote = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        remote.createContext("/remote", exchange -> {
+            try {
+                Thread.sleep(REMOTE_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"available\":true}".getBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        remote.setExecutor(remoteExecutor);
+        remote.start();
+    }
+
+    @AfterAll
+    static void stopRemote() {
+        remote.stop(0);
+        remoteExecutor.shutdownNow();
+    }
+
+    @Test
+    void virtualThreadsKeepBookingsInFlightPastThePlatformPool() throws Exception {
+        LoadResult platform = run(false);
+        LoadResult virtual = run(true);
+
+        System.out.printf("%-9s %14s %11s %9s %8s %17s %13s%n", "mode", "peak bookings", "elapsed ms",
+                          "+heap MB", "+RSS MB", "RSS KB/booking", "peak threads");
+        for (LoadResult result : List.of(platform, virtual)) {
+            System.out.printf("%-9s %14d %11d %9d %8d %17d %13d%n", result.mode(), result.peakInFlight(),
+                              result.elapsedMs(), result.heapGrowthBytes() >> 20, result.rssGrowthBytes() >> 20,
+                              result.rssPerBooking() >> 10, result.peakThreads());
+        }
+
+        assertThat(platform.failures()).isZero();
+        assertThat(virtual.failures()).isZero();
+        assertThat(platform.peakInFlight()).isLessThanOrEqualTo(PLATFORM_THREADS);
+        assertThat(virtual.peakInFlight()).isGreaterThan(4 * PLATFORM_THREADS);
+        // Virtual threads park instead of holding a platform thread stack each
+        assertThat(virtual.peakThreads()).isLessThan(platform.peakThreads());
+        if (platform.rssGrowthBytes() > 0) {
+            assertThat(virtual.rssPerBooking()).isLessThan(platform.rssPerBooking());
+        }
+    }
+
+    private LoadResult run(boolean virtualThreads) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BookingLoadApplication.class)
+                .run("--spring.threads.virtual.enabled=" + virtualThreads,
+                     "--server.port=0",
+                     "--spring.cloud.bootstrap.enabled=false",
+                     "--spring.cloud.config.enabled=false",
+                     "--spring.config.import=",
+                     "--load.remote-url=http://localhost:" + remote.getAddress().getPort() + "/remote");
+        try {
+            BookingFlow flow = context.getBean(BookingFlow.class);
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/load/bookings");
+
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            System.gc();
+            long baseHeap = memory.getHeapMemoryUsage().getUsed();
+            long baseRss = residentBytes();
+            AtomicLong peakHeap = new AtomicLong(baseHeap);
+            AtomicLong peakRss = new AtomicLong(baseRss);
+            AtomicInteger peakThreads = new AtomicInteger();
+            ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+            sampler.scheduleAtFixedRate(() -> {
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                peakRss.accumulateAndGet(residentBytes(), Math::max);
+                peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+            }, 0, 10, TimeUnit.MILLISECONDS);
+
+            try (ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .executor(clientExecutor)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .timeout(Duration.ofSeconds(120))
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build();
+
+                long started = System.nanoTime();
+                List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>(BOOKINGS);
+                for (int i = 0; i < BOOKINGS; i++) {
+                    responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+                }
+                int failures = 0;
+                for (CompletableFuture<HttpResponse<String>> response : responses) {
+                    if (response.get(180, TimeUnit.SECONDS).statusCode() != 200) {
+                        failures++;
+                    }
+                }
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                return new LoadResult(virtualThreads ? "virtual" : "platform", flow.peakInFlight.get(), elapsedMs,
+                                      peakHeap.get() - baseHeap, peakRss.get() - baseRss, peakThreads.get(), failures);
+            } finally {
+                sampler.shutdownNow();
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * Resident set size of this JVM, thread stacks included; 0 where /proc is not available.
+     */
+    private static long residentBytes() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                }
+            }
+        } catch (Exception e) {
+            // Not Linux
+        }
+        return 0;
+    }
+
+    /**
+     * Heap and resident memory are the growth over the idle service just before the load.
+     */
+    private record LoadResult(String mode, int peakInFlight, long elapsedMs, long heapGrowthBytes, long rssGrowthBytes,
+                              int peakThreads, int failures) {
+
+        long rssPerBooking() {
+            return rssGrowthBytes / Math.max(1, peakInFlight);
+        }
+    }
+
+    /**
+     * Only the web layer: the load is the threading of request handling and blocking remote calls,
+     * not the database.
+     */
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({
+        ServletWebServerFactoryAutoConfiguration.class,
+        EmbeddedWebServerFactoryCustomizerAutoConfiguration.class,
+        DispatcherServletAutoConfiguration.class,
+        WebMvcAutoConfiguration.class,
+        HttpMessageConvertersAutoConfiguration.class,
+        JacksonAutoConfiguration.class
+    })
+    static class BookingLoadApplication {
+
+        @Bean
+        BookingFlow bookingFlow(@Value("${load.remote-url}") String remoteUrl) {
+            return new BookingFlow(remoteUrl);
+        }
+    }
+
+    @RestController
+    static class BookingFlow {
+
+        private final RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(
+                HttpClients.custom()
+                        .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                                                      .setMaxConnTotal(BOOKINGS)
+                                                      .setMaxConnPerRoute(BOOKINGS)
+                                                      .build())
+                        .build()));
+        private final String remoteUrl;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peakInFlight = new AtomicInteger();
+
+        BookingFlow(String remoteUrl) {
+            this.remoteUrl = remoteUrl;
+        }
+
+        @PostMapping("/load/bookings")
+        Map<String, Object> book() {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                for (int i = 0; i < REMOTE_CALLS; i++) {
+                    restTemplate.getForObject(remoteUrl, String.class);
+                }
+                return Map.of("status", "CONFIRMED");
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
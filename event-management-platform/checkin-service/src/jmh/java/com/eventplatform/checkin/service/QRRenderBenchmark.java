@@ -0,0 +1,112 @@
+package com.eventplatform.checkin.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and allocation per ticket image of {@link QRRenderer} against the paths it replaced:
+ * {@code setRGB} into a {@code TYPE_INT_RGB} image (QRImageService) and {@code MatrixToImageWriter}
+ * (email attachments), both written with {@code ImageIO}. Run with {@code mvn -Pjmh verify}; the
+ * default {@code -prof gc} reports {@code gc.alloc.rate.norm}, the bytes allocated per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class QRRenderBenchmark {
+
+    private static final int SIZE = 250;
+
+    // Same length as a signed EVT1 payload
+    private static final String CONTENT =
+            "EVT1.k1.RVZULUE3QzJGLTlEMEUxfDE4MzQ1fDQyfDE3OTM0NTYwMDA.bXk3cWJ2LWhVd0RrTnRWcA";
+
+    private final QRRenderer renderer = new QRRenderer();
+
+    @Benchmark
+    public byte[] legacySetRgb() throws WriterException, IOException {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
+        hints.put(EncodeHintType.MARGIN, 1);
+        BitMatrix bitMatrix = new QRCodeWriter().encode(CONTENT, BarcodeFormat.QR_CODE, SIZE, SIZE, hints);
+
+        BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < SIZE; x++) {
+            for (int y = 0; y < SIZE; y++) {
+                image.setRGB(x, y, bitMatrix.get(x, y) ? 0x000000 : 0xFFFFFF);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "PNG", out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] legacyMatrixToImageWriter() throws WriterException, IOException {
+        BitMatrix bitMatrix = new QRCodeWriter().encode(CONTENT, BarcodeFormat.QR_CODE, SIZE, SIZE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(MatrixToImageWriter.toBufferedImage(bitMatrix), "PNG", out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] rendererPng() {
+        return renderer.png(renderer.encode(CONTENT, ErrorCorrectionLevel.H, 1), SIZE);
+    }
+
+    @Benchmark
+    public byte[] rendererEmailPng() {
+        return renderer.png(renderer.encode(CONTENT, ErrorCorrectionLevel.L, 4), SIZE);
+    }
+
+    @Benchmark
+    public byte[] rendererSvg() {
+        return renderer.svg(renderer.encode(CONTENT, ErrorCorrectionLevel.H, 1), SIZE);
+    }
+
+    /**
+     * Rasterization alone, without the ZXing encoding shared by every path.
+     */
+    @State(Scope.Thread)
+    public static class Encoded {
+        BitMatrix scaled;
+        BitMatrix modules;
+
+        @Setup
+        public void encode() throws WriterException {
+            Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+            hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
+            hints.put(EncodeHintType.MARGIN, 1);
+            scaled = new QRCodeWriter().encode(CONTENT, BarcodeFormat.QR_CODE, SIZE, SIZE, hints);
+            modules = new QRRenderer().encode(CONTENT, ErrorCorrectionLevel.H, 1);
+        }
+    }
+
+    @Benchmark
+    public byte[] rasterizeLegacy(Encoded encoded) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(MatrixToImageWriter.toBufferedImage(encoded.scaled), "PNG", out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] rasterizeRenderer(Encoded encoded) {
+        return renderer.png(encoded.modules, SIZE);
+    }
+}
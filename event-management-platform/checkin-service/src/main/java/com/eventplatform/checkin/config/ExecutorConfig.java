@@ -0,0 +1,52 @@
+package com.eventplatform.checkin.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfig {
+    
+    public static final String QR_RENDER_EXECUTOR = "qrRenderExecutor";
+    public static final String EMAIL_OUTBOX_EXECUTOR = "emailOutboxExecutor";
+    
+    /**
+     * CPU-bound ticket building for multi-ticket bookings: signing, QR encoding and PNG rendering of
+     * the images the outbox will attach. Sized to the cores by default; a full queue makes the
+     * requesting thread build its own tickets.
+     */
+    @Bean(name = QR_RENDER_EXECUTOR)
+    public ThreadPoolTaskExecutor qrRenderExecutor(
+            @Value("${checkin.qr-render.pool-size:0}") int poolSize,
+            @Value("${checkin.qr-render.queue-capacity:1000}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("qr-render-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Long-running email outbox workers, one thread each. Unsent emails stay in the outbox table,
+     * so shutdown only waits for the batches in flight.
+     */
+    @Bean(name = EMAIL_OUTBOX_EXECUTOR)
+    public ThreadPoolTaskExecutor emailOutboxExecutor(@Value("${checkin.email-outbox.workers:2}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("email-outbox-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
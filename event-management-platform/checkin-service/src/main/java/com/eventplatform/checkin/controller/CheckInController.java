@@ -4,11 +4,13 @@ import com.eventplatform.checkin.entity.CheckIn;
 import com.eventplatform.checkin.service.CheckInService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -77,10 +79,19 @@ public class CheckInController {
     public ResponseEntity<List<CheckIn>> searchCheckins(
             @RequestParam(required = false) String confirmationCode,
             @RequestParam(required = false) Long bookingId,
-            @RequestParam(required = false) String scannerId) {
-        log.info("Searching checkins - code: {}, booking: {}, scanner: {}", 
-                confirmationCode, bookingId, scannerId);
-        List<CheckIn> results = checkInService.searchCheckins(confirmationCode, bookingId, scannerId);
-        return ResponseEntity.ok(results);
+            @RequestParam(required = false) String scannerId,
+            @RequestParam(required = false) Long eventId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        log.info("Searching checkins - code: {}, booking: {}, scanner: {}, event: {}", 
+                confirmationCode, bookingId, scannerId, eventId);
+        Page<CheckIn> results = checkInService.searchCheckins(confirmationCode, bookingId, scannerId, eventId,
+                                                              from, to, page, size);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(results.getTotalElements()))
+                .header("X-Total-Pages", String.valueOf(results.getTotalPages()))
+                .body(results.getContent());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package com.eventplatform.checkin.controller;
+
+import com.eventplatform.checkin.service.GateIndexService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/gate-index")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "http://localhost:3000", maxAge = 3600)
+public class GateIndexController {
+    
+    private final GateIndexService gateIndexService;
+    
+    @PostMapping("/events/{eventId}/warm-up")
+    public ResponseEntity<Map<String, Object>> warmUp(@PathVariable Long eventId) {
+        log.info("Warming up gate index for event: {}", eventId);
+        return ResponseEntity.ok(gateIndexService.warmUp(eventId));
+    }
+    
+    @GetMapping("/events/{eventId}")
+    public ResponseEntity<Map<String, Object>> getEventStats(@PathVariable Long eventId) {
+        try {
+            return ResponseEntity.ok(gateIndexService.getStats(eventId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @DeleteMapping("/events/{eventId}")
+    public ResponseEntity<Map<String, Object>> evict(@PathVariable Long eventId) {
+        log.info("Evicting gate index for event: {}", eventId);
+        return ResponseEntity.ok(Map.of(
+            "eventId", eventId,
+            "evicted", gateIndexService.evict(eventId)
+        ));
+    }
+    
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(gateIndexService.getStats());
+    }
+}
@@ -1,16 +1,25 @@
 package com.eventplatform.checkin.controller;
 
+import com.eventplatform.checkin.dto.BatchScanRequestDTO;
 import com.eventplatform.checkin.entity.QRCode;
 import com.eventplatform.checkin.repository.QRCodeRepository;
+import com.eventplatform.checkin.service.BatchScanService;
+import com.eventplatform.checkin.service.GateIndexService;
+import com.eventplatform.checkin.service.ManifestChangeLog;
 import com.eventplatform.checkin.service.QRCodeEmailService;
 import com.eventplatform.checkin.service.QRCodeService;
+import com.eventplatform.checkin.service.QRImageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j; 
 
+import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -18,14 +27,21 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/qr-codes")
 @RequiredArgsConstructor
 @Slf4j 
 public class QRCodeController {
+    private static final MediaType SVG = MediaType.parseMediaType("image/svg+xml");
+    private static final CacheControl IMAGE_CACHE_CONTROL = CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate();
+
     private final QRCodeEmailService qrCodeEmailService;
     private final QRCodeService qrCodeService;
+    private final GateIndexService gateIndexService;
+    private final BatchScanService batchScanService;
+    private final ManifestChangeLog manifestChangeLog;
      private final QRCodeRepository qrCodeRepository;
 @PostMapping("/sync-booking/{bookingId}")
 public ResponseEntity<Map<String, Object>> syncBookingWithCheckinService(
@@ -96,11 +112,12 @@ public ResponseEntity<Map<String, Object>> syncAllBookings() {
             Map<String, Object> bookingData = fetchBookingData(bookingId);
             
             QRCode qrCode = qrCodeService.generateQRCodeForBooking(bookingId, bookingData);
-            String qrImage = qrCodeService.generateQRCodeImage(qrCode.getData());
+            String qrImage = qrCodeService.qrImage(qrCode).base64();
             
             Map<String, Object> response = new HashMap<>();
             response.put("qrCode", qrCode);
             response.put("qrImage", "data:image/png;base64," + qrImage);
+            response.put("qrImageUrl", imageUrl(qrCode));
             
             log.info("✅ QR code généré pour le booking: {}", bookingId); 
             
@@ -122,6 +139,7 @@ public ResponseEntity<Map<String, Object>> syncAllBookings() {
             
             QRCode qrCode = qrCodeEmailService.generateAndSendQRCodeByEmail(
                 bookingId,
+                null,
                 "BK" + bookingId,
                 email,
                 "Utilisateur Test",
@@ -189,6 +207,18 @@ public ResponseEntity<Map<String, Object>> syncAllBookings() {
             ));
         }
     }
+    
+    @PostMapping("/scan-batch")
+    public ResponseEntity<Map<String, Object>> scanBatch(@RequestBody BatchScanRequestDTO request) {
+        try {
+            return ResponseEntity.ok(batchScanService.scanBatch(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
    @DeleteMapping("/booking/{bookingId}")
     public ResponseEntity<Map<String, Object>> deleteQRCodesByBooking(@PathVariable Long bookingId) {
         try {
@@ -210,6 +240,8 @@ public ResponseEntity<Map<String, Object>> syncAllBookings() {
                 qrCodeRepository.deleteById(qrCode.getId());
                 log.info("✅ Deleted QR code: {}", qrCode.getId());
             });
+            gateIndexService.revokeBookings(List.of(bookingId));
+            manifestChangeLog.recordRevoked(qrCodes);
             
             log.info("✅ Successfully deleted {} QR code(s) for booking {}", qrCodes.size(), bookingId);
             
@@ -231,6 +263,35 @@ public ResponseEntity<Map<String, Object>> syncAllBookings() {
         }
     }
     
+    @PostMapping("/bookings/delete")
+    public ResponseEntity<Map<String, Object>> deleteQRCodesByBookings(@RequestBody Map<String, List<Long>> request) {
+        List<Long> bookingIds = request.get("bookingIds");
+        if (bookingIds == null || bookingIds.isEmpty()) {
+            return ResponseEntity.ok(Map.of("success", true, "deletedCount", 0));
+        }
+        
+        try {
+            List<QRCode> qrCodes = qrCodeRepository.findByBookingIdIn(bookingIds);
+            int deleted = qrCodeRepository.deleteByBookingIdIn(bookingIds);
+            gateIndexService.revokeBookings(bookingIds);
+            manifestChangeLog.recordRevoked(qrCodes);
+            log.info("🗑️ Deleted {} QR code(s) for {} bookings", deleted, bookingIds.size());
+            
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "bookingCount", bookingIds.size(),
+                "deletedCount", deleted
+            ));
+        } catch (Exception e) {
+            log.error("❌ Error deleting QR codes for {} bookings: {}", bookingIds.size(), e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                        "success", false,
+                        "error", e.getMessage()
+                    ));
+        }
+    }
+    
       @GetMapping("/verify/{uniqueCode}")
     public ResponseEntity<Map<String, Object>> verifyUniqueCode(
             @PathVariable String uniqueCode) {
@@ -337,6 +398,7 @@ public ResponseEntity<Map<String, Object>> generateQRForAllExistingBookings() {
         
         try {
             Long bookingId = Long.parseLong(request.get("bookingId").toString());
+            Long eventId = request.get("eventId") != null ? Long.parseLong(request.get("eventId").toString()) : null;
             String confirmationCode = (String) request.get("confirmationCode");
             String userEmail = (String) request.get("userEmail");
             String userName = (String) request.get("userName");
@@ -348,6 +410,7 @@ public ResponseEntity<Map<String, Object>> generateQRForAllExistingBookings() {
             
             QRCode qrCode = qrCodeEmailService.generateAndSendQRCodeByEmail(
                 bookingId,
+                eventId,
                 confirmationCode,
                 userEmail,
                 userName,
@@ -376,6 +439,48 @@ public ResponseEntity<Map<String, Object>> generateQRForAllExistingBookings() {
         }
     }
     
+    @GetMapping(value = "/{qrCodeId}/image", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<byte[]> getQRCodeImage(@PathVariable String qrCodeId, WebRequest webRequest) {
+        return qrCodeRepository.findById(qrCodeId)
+                .map(qrCode -> imageResponse(qrCode, QRImageService.Format.PNG, webRequest))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping(value = "/{qrCodeId}/image.svg", produces = "image/svg+xml")
+    public ResponseEntity<byte[]> getQRCodeSvg(@PathVariable String qrCodeId, WebRequest webRequest) {
+        return qrCodeRepository.findById(qrCodeId)
+                .map(qrCode -> imageResponse(qrCode, QRImageService.Format.SVG, webRequest))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping(value = "/booking/{bookingId}/image", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<byte[]> getQRCodeImageByBooking(@PathVariable Long bookingId, WebRequest webRequest) {
+        List<QRCode> qrCodes = qrCodeService.findByBookingId(bookingId);
+        if (qrCodes.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return imageResponse(qrCodes.get(0), QRImageService.Format.PNG, webRequest);
+    }
+    
+    private ResponseEntity<byte[]> imageResponse(QRCode qrCode, QRImageService.Format format, WebRequest webRequest) {
+        QRImageService.CachedImage image = qrCodeService.qrImage(qrCode, format);
+        if (webRequest.checkNotModified(image.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(image.etag())
+                    .cacheControl(IMAGE_CACHE_CONTROL)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(format == QRImageService.Format.SVG ? SVG : MediaType.IMAGE_PNG)
+                .eTag(image.etag())
+                .cacheControl(IMAGE_CACHE_CONTROL)
+                .body(image.bytes());
+    }
+    
+    private static String imageUrl(QRCode qrCode) {
+        return "/api/qr-codes/" + qrCode.getId() + "/image";
+    }
+    
     @GetMapping("/booking/{bookingId}")
     public ResponseEntity<Map<String, Object>> getQRCodeByBooking(@PathVariable Long bookingId) {
         try {
@@ -387,12 +492,13 @@ public ResponseEntity<Map<String, Object>> generateQRForAllExistingBookings() {
                 QRCode qrCode = qrCodes.get(0);
                 
                 try {
-                    String qrImage = qrCodeService.generateQRCodeImage(qrCode.getData());
+                    String qrImage = qrCodeService.qrImage(qrCode).base64();
                     
                     Map<String, Object> response = new HashMap<>();
                     response.put("success", true);
                     response.put("qrCode", qrCode);
                     response.put("qrImage", "data:image/png;base64," + qrImage);
+                    response.put("qrImageUrl", imageUrl(qrCode));
                     response.put("message", "QR code trouvé");
                     
                     log.info("✅ QR code found for booking: {}", bookingId);
@@ -486,11 +592,20 @@ public ResponseEntity<Map<String, Object>> generateQRForAllExistingBookings() {
     @GetMapping("/admin/checkins")
     public ResponseEntity<List<Map<String, Object>>> getAdminCheckins(
             @RequestParam(required = false) String scannerId,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+            @RequestParam(required = false) Long eventId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
         
         try {
-            List<Map<String, Object>> checkins = qrCodeService.getAdminCheckins(scannerId, date);
-            return ResponseEntity.ok(checkins);
+            Page<Map<String, Object>> checkins = qrCodeService.getAdminCheckins(scannerId, eventId, date, from, to,
+                                                                                page, size);
+            return ResponseEntity.ok()
+                    .header("X-Total-Count", String.valueOf(checkins.getTotalElements()))
+                    .header("X-Total-Pages", String.valueOf(checkins.getTotalPages()))
+                    .body(checkins.getContent());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(null);
         }
@@ -529,6 +644,7 @@ public ResponseEntity<Map<String, Object>> generateAndSendMultipleQRCodesByEmail
     
     try {
         Long bookingId = Long.parseLong(request.get("bookingId").toString());
+        Long eventId = request.get("eventId") != null ? Long.parseLong(request.get("eventId").toString()) : null;
         String confirmationCode = (String) request.get("confirmationCode");
         String userEmail = (String) request.get("userEmail");
         String userName = (String) request.get("userName");
@@ -540,6 +656,7 @@ public ResponseEntity<Map<String, Object>> generateAndSendMultipleQRCodesByEmail
         
         List<QRCode> qrCodes = qrCodeEmailService.generateAndSendQRCodesByEmail(
             bookingId,
+            eventId,
             confirmationCode,
             userEmail,
             userName,
@@ -633,7 +750,7 @@ public ResponseEntity<Map<String, Object>> getBookingStats(@PathVariable String
             
             QRCode qrCode = qrCodeService.generateQRCodeForBooking(bookingId, bookingData);
             
-            String qrImage = qrCodeService.generateQRCodeImage(qrCode.getData());
+            String qrImage = qrCodeService.qrImage(qrCode).base64();
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -642,6 +759,7 @@ public ResponseEntity<Map<String, Object>> getBookingStats(@PathVariable String
             response.put("bookingId", bookingId);
             response.put("confirmationCode", "BK" + bookingId);
             response.put("qrImage", "data:image/png;base64," + qrImage);
+            response.put("qrImageUrl", imageUrl(qrCode));
             
             log.info("✅ QR code généré pour booking: {}", bookingId);
             
@@ -0,0 +1,50 @@
+package com.eventplatform.checkin.controller;
+
+import com.eventplatform.checkin.dto.OfflineScanBatchDTO;
+import com.eventplatform.checkin.service.ScannerSyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/scanner-sync/events/{eventId}")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "http://localhost:3000", maxAge = 3600)
+public class ScannerSyncController {
+    
+    private final ScannerSyncService scannerSyncService;
+    
+    @GetMapping("/manifest")
+    public ResponseEntity<Map<String, Object>> getManifest(
+            @PathVariable Long eventId,
+            @RequestParam String gateId) {
+        log.info("Serving scanner manifest for event {} to gate {}", eventId, gateId);
+        return ResponseEntity.ok(scannerSyncService.getManifest(eventId, gateId));
+    }
+    
+    @GetMapping("/manifest/delta")
+    public ResponseEntity<Map<String, Object>> getDelta(
+            @PathVariable Long eventId,
+            @RequestParam String gateId,
+            @RequestParam(defaultValue = "0") long since) {
+        return ResponseEntity.ok(scannerSyncService.getDelta(eventId, gateId, since));
+    }
+    
+    @PostMapping("/scans")
+    public ResponseEntity<Map<String, Object>> uploadScans(
+            @PathVariable Long eventId,
+            @RequestBody OfflineScanBatchDTO batch) {
+        try {
+            return ResponseEntity.ok(scannerSyncService.mergeOfflineScans(eventId, batch));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.eventplatform.checkin.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminCheckInDTO {
+    private Long id;
+    private Long bookingId;
+    private String confirmationCode;
+    private Long eventId;
+    private String scannerId;
+    private String scannerType;
+    private LocalDateTime checkedInAt;
+    private Integer quantity;
+    private String location;
+    private String userName;
+    private String eventName;
+}
@@ -0,0 +1,15 @@
+package com.eventplatform.checkin.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchScanRequestDTO {
+    private String scannerId;
+    private List<String> uniqueCodes;
+}
@@ -0,0 +1,25 @@
+package com.eventplatform.checkin.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfflineScanBatchDTO {
+    private String gateId;
+    private String scannerId;
+    private List<Scan> scans;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Scan {
+        private String uniqueCode;
+        private LocalDateTime scannedAt;
+    }
+}
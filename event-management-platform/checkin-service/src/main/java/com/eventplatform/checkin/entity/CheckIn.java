@@ -8,7 +8,13 @@ import java.time.LocalDateTime;
 import lombok.*;
 
 @Entity
-@Table(name = "checkins")
+@Table(name = "checkins", indexes = {
+    @Index(name = "idx_checkins_checked_in_at", columnList = "checked_in_at"),
+    @Index(name = "idx_checkins_scanner_id", columnList = "scanner_id, checked_in_at"),
+    @Index(name = "idx_checkins_event_id", columnList = "event_id, checked_in_at"),
+    @Index(name = "idx_checkins_confirmation_code", columnList = "confirmation_code"),
+    @Index(name = "idx_checkins_booking_id", columnList = "booking_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
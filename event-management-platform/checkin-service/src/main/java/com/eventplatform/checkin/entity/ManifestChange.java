@@ -0,0 +1,57 @@
+package com.eventplatform.checkin.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of an event's scanner manifest delta log. Rows are inserted without a version and
+ * versioned in commit order by {@link com.eventplatform.checkin.service.ManifestChangeLog#assignVersions};
+ * scanners ask for every change after the last version they applied.
+ */
+@Entity
+@Table(name = "manifest_changes", indexes = {
+    @Index(name = "idx_manifest_changes_event_id", columnList = "eventId, id"),
+    @Index(name = "idx_manifest_changes_event_version", columnList = "eventId, version"),
+    @Index(name = "idx_manifest_changes_version", columnList = "version")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ManifestChange {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long eventId;
+    
+    @Column(nullable = false)
+    private String uniqueCode;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ChangeType changeType;
+    
+    private Long version;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    public enum ChangeType {
+        ADDED,
+        USED,
+        REVOKED
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
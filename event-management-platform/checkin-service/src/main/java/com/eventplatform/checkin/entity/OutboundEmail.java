@@ -0,0 +1,93 @@
+package com.eventplatform.checkin.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A ticket email waiting in the outbox. Its ticket images are stored as {@link OutboundEmailAttachment}
+ * rows until it is settled; tickets without a stored image are rendered again from {@link #qrCodeIds}
+ * when the email is sent.
+ */
+@Entity
+@Table(name = "outbound_emails", indexes = {
+    @Index(name = "idx_outbound_emails_status", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboundEmail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false, length = 500)
+    private String subject;
+
+    @Column(name = "html_body", nullable = false, columnDefinition = "TEXT")
+    private String htmlBody;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Kind kind;
+
+    // Comma separated, in attachment order
+    @Column(name = "qr_code_ids", nullable = false, length = 4000)
+    private String qrCodeIds;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    public enum Kind {
+        TICKET,
+        TICKETS
+    }
+
+    public enum Status {
+        PENDING,
+        SENDING,
+        SENT,
+        FAILED
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+        if (status == null) {
+            status = Status.PENDING;
+        }
+        if (attempts == null) {
+            attempts = 0;
+        }
+    }
+}
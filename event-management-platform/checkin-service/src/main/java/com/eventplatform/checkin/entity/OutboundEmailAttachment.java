@@ -0,0 +1,33 @@
+package com.eventplatform.checkin.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ticket image rendered when its email was queued, kept until the email is settled so the outbox
+ * workers only have to attach it.
+ */
+@Entity
+@Table(name = "outbound_email_attachments", indexes = {
+    @Index(name = "idx_outbound_email_attachments_email", columnList = "email_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboundEmailAttachment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "email_id", nullable = false)
+    private Long emailId;
+
+    @Column(name = "qr_code_id", nullable = false)
+    private String qrCodeId;
+
+    @Column(nullable = false)
+    private byte[] content;
+}
@@ -1,18 +1,27 @@
 package com.eventplatform.checkin.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "qr_codes")
+@Table(name = "qr_codes", indexes = {
+    @Index(name = "idx_qr_codes_unique_code", columnList = "unique_code"),
+    @Index(name = "idx_qr_codes_confirmation_code", columnList = "confirmation_code"),
+    @Index(name = "idx_qr_codes_booking_id", columnList = "bookingId"),
+    @Index(name = "idx_qr_codes_event_id", columnList = "event_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class QRCode {
+public class QRCode implements Persistable<String> {
     
     @Id
     private String id;
@@ -27,6 +36,9 @@ public class QRCode {
     @Column(nullable = false)
     private Long bookingId;
     
+    @Column(name = "event_id")
+    private Long eventId;
+    
     @Column(nullable = false, length = 2000)
     private String data;
     
@@ -63,6 +75,26 @@ public class QRCode {
     @Column
     private Integer scanCount = 0;
     
+    // Ids are assigned UUIDs, so new rows are told apart by whether they came from the database;
+    // this lets save/saveAll insert directly instead of merging with a SELECT per row
+    @Transient
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean persisted;
+    
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return !persisted;
+    }
+    
+    @PostLoad
+    @PostPersist
+    protected void markPersisted() {
+        persisted = true;
+    }
+    
     @PrePersist
     protected void onCreate() {
         if (createdAt == null) {
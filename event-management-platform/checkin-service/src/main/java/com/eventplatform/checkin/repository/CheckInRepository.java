@@ -1,6 +1,9 @@
 package com.eventplatform.checkin.repository;
 
+import com.eventplatform.checkin.dto.AdminCheckInDTO;
 import com.eventplatform.checkin.entity.CheckIn;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -39,4 +42,41 @@ public interface CheckInRepository extends JpaRepository<CheckIn, Long> {
         @Param("start") LocalDateTime start,
         @Param("end") LocalDateTime end
     );
-}
\ No newline at end of file
+    
+    String FILTERS = "WHERE (:scannerId IS NULL OR c.scannerId = :scannerId) " +
+                     "AND (:eventId IS NULL OR c.eventId = :eventId) " +
+                     "AND (:from IS NULL OR c.checkedInAt >= :from) " +
+                     "AND (:to IS NULL OR c.checkedInAt < :to) ";
+    
+    /**
+     * Admin list page with the ticket holder and event name of each check-in, taken from its QR
+     * codes by correlated subqueries so everything comes back in one statement.
+     */
+    @Query(value = "SELECT new com.eventplatform.checkin.dto.AdminCheckInDTO(" +
+                   "c.id, c.bookingId, c.confirmationCode, c.eventId, c.scannerId, c.scannerType, " +
+                   "c.checkedInAt, c.quantity, c.location, " +
+                   "(SELECT MAX(q.userName) FROM QRCode q WHERE q.confirmationCode = c.confirmationCode), " +
+                   "(SELECT MAX(q.eventName) FROM QRCode q WHERE q.confirmationCode = c.confirmationCode)) " +
+                   "FROM CheckIn c " + FILTERS + "ORDER BY c.checkedInAt DESC, c.id DESC",
+           countQuery = "SELECT COUNT(c) FROM CheckIn c " + FILTERS)
+    Page<AdminCheckInDTO> findAdminPage(@Param("scannerId") String scannerId,
+                                        @Param("eventId") Long eventId,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        Pageable pageable);
+    
+    @Query(value = "SELECT c FROM CheckIn c " + FILTERS +
+                   "AND (:confirmationCode IS NULL OR c.confirmationCode = :confirmationCode) " +
+                   "AND (:bookingId IS NULL OR c.bookingId = :bookingId) " +
+                   "ORDER BY c.checkedInAt DESC, c.id DESC",
+           countQuery = "SELECT COUNT(c) FROM CheckIn c " + FILTERS +
+                        "AND (:confirmationCode IS NULL OR c.confirmationCode = :confirmationCode) " +
+                        "AND (:bookingId IS NULL OR c.bookingId = :bookingId)")
+    Page<CheckIn> search(@Param("confirmationCode") String confirmationCode,
+                         @Param("bookingId") Long bookingId,
+                         @Param("scannerId") String scannerId,
+                         @Param("eventId") Long eventId,
+                         @Param("from") LocalDateTime from,
+                         @Param("to") LocalDateTime to,
+                         Pageable pageable);
+}
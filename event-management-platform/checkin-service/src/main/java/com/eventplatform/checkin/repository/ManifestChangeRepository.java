@@ -0,0 +1,20 @@
+package com.eventplatform.checkin.repository;
+
+import com.eventplatform.checkin.entity.ManifestChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ManifestChangeRepository extends JpaRepository<ManifestChange, Long> {
+    
+    List<ManifestChange> findByEventIdAndVersionGreaterThanOrderByVersionAsc(
+        Long eventId, Long afterVersion, Limit limit);
+    
+    @Query("SELECT COALESCE(MAX(c.version), 0) FROM ManifestChange c WHERE c.eventId = :eventId")
+    long findLatestVersion(@Param("eventId") Long eventId);
+}
@@ -0,0 +1,23 @@
+package com.eventplatform.checkin.repository;
+
+import com.eventplatform.checkin.entity.OutboundEmailAttachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboundEmailAttachmentRepository extends JpaRepository<OutboundEmailAttachment, Long> {
+
+    List<OutboundEmailAttachment> findByEmailId(Long emailId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboundEmailAttachment a WHERE a.emailId IN :emailIds")
+    int deleteByEmailIdIn(@Param("emailIds") Collection<Long> emailIds);
+}
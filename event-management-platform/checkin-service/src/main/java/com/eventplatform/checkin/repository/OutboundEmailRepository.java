@@ -0,0 +1,48 @@
+package com.eventplatform.checkin.repository;
+
+import com.eventplatform.checkin.entity.OutboundEmail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboundEmailRepository extends JpaRepository<OutboundEmail, Long> {
+
+    /**
+     * Leases up to {@code limit} due emails to the caller, including ones whose previous lease ran
+     * out (a worker died mid-send). Concurrent workers skip each other's rows.
+     */
+    @Transactional
+    @Query(value = "UPDATE outbound_emails SET status = 'SENDING', locked_until = :lockedUntil, attempts = attempts + 1 " +
+                   "WHERE id IN (SELECT id FROM outbound_emails " +
+                   "WHERE (status = 'PENDING' AND next_attempt_at <= :now) OR (status = 'SENDING' AND locked_until < :now) " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING *",
+           nativeQuery = true)
+    List<OutboundEmail> claimDue(@Param("now") LocalDateTime now,
+                                 @Param("lockedUntil") LocalDateTime lockedUntil,
+                                 @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboundEmail e SET e.status = com.eventplatform.checkin.entity.OutboundEmail.Status.SENT, " +
+           "e.sentAt = :sentAt, e.lockedUntil = null, e.lastError = null WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboundEmail e SET e.status = :status, e.nextAttemptAt = :nextAttemptAt, e.lockedUntil = null, " +
+           "e.lastError = :lastError WHERE e.id = :id")
+    int reschedule(@Param("id") Long id,
+                   @Param("status") OutboundEmail.Status status,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("lastError") String lastError);
+
+    long countByStatus(OutboundEmail.Status status);
+}
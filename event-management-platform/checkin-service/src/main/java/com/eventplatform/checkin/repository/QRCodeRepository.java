@@ -2,10 +2,15 @@ package com.eventplatform.checkin.repository;
 
 import com.eventplatform.checkin.entity.QRCode;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,4 +33,71 @@ public interface QRCodeRepository extends JpaRepository<QRCode, String> {
     long countByConfirmationCode(String confirmationCode);
     Optional<QRCode> findByUniqueCode(String uniqueCode);
     long countByConfirmationCodeAndIsUsed(String confirmationCode, boolean isUsed);
+    
+    List<QRCode> findByBookingIdIn(Collection<Long> bookingIds);
+    
+    List<QRCode> findByUniqueCodeIn(Collection<String> uniqueCodes);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT q FROM QRCode q WHERE q.uniqueCode IN :uniqueCodes ORDER BY q.uniqueCode")
+    List<QRCode> findByUniqueCodeInForUpdate(@Param("uniqueCodes") Collection<String> uniqueCodes);
+    
+    @Query("SELECT q.uniqueCode FROM QRCode q WHERE q.eventId = :eventId AND q.isUsed = false " +
+           "AND q.expiresAt > CURRENT_TIMESTAMP")
+    List<String> findValidUniqueCodesByEventId(@Param("eventId") Long eventId);
+    
+    @Query("SELECT q.uniqueCode, q.bookingId, q.quantity, q.isUsed, q.expiresAt, q.eventName " +
+           "FROM QRCode q WHERE q.eventId = :eventId")
+    List<Object[]> findGateEntriesByEventId(@Param("eventId") Long eventId);
+    
+    /*
+     * Scan claims: each one marks a single unused code as used and returns the updated row in the
+     * same statement, so two gates scanning the same ticket cannot both get it. An empty result
+     * means nothing was claimable; callers look the code up afterwards only to explain why.
+     */
+
+    @Transactional
+    @Query(value = "UPDATE qr_codes SET is_used = true, used_at = now(), scan_count = COALESCE(scan_count, 0) + 1 " +
+                   "WHERE unique_code = :uniqueCode AND is_used = false AND expires_at > now() RETURNING *",
+           nativeQuery = true)
+    Optional<QRCode> claimByUniqueCode(@Param("uniqueCode") String uniqueCode);
+
+    @Transactional
+    @Query(value = "UPDATE qr_codes SET is_used = true, used_at = now(), scan_count = COALESCE(scan_count, 0) + 1 " +
+                   "WHERE unique_code IN (:uniqueCodes) AND is_used = false AND expires_at > now() RETURNING *",
+           nativeQuery = true)
+    List<QRCode> claimAllByUniqueCodeIn(@Param("uniqueCodes") Collection<String> uniqueCodes);
+
+    @Transactional
+    @Query(value = "UPDATE qr_codes SET is_used = true, used_at = now(), scan_count = COALESCE(scan_count, 0) + 1 " +
+                   "WHERE unique_code = :uniqueCode AND is_used = false RETURNING *",
+           nativeQuery = true)
+    Optional<QRCode> claimByUniqueCodeIgnoringExpiry(@Param("uniqueCode") String uniqueCode);
+
+    @Transactional
+    @Query(value = "UPDATE qr_codes SET is_used = true, used_at = now(), scan_count = COALESCE(scan_count, 0) + 1 " +
+                   "WHERE id = :id AND is_used = false AND expires_at > now() RETURNING *",
+           nativeQuery = true)
+    Optional<QRCode> claimById(@Param("id") String id);
+
+    @Transactional
+    @Query(value = "UPDATE qr_codes SET is_used = true, used_at = now(), scan_count = COALESCE(scan_count, 0) + 1 " +
+                   "WHERE id = (SELECT id FROM qr_codes WHERE confirmation_code = :confirmationCode " +
+                   "AND is_used = false AND expires_at > now() ORDER BY ticket_number, id LIMIT 1 FOR UPDATE SKIP LOCKED) " +
+                   "AND is_used = false RETURNING *",
+           nativeQuery = true)
+    Optional<QRCode> claimNextByConfirmationCode(@Param("confirmationCode") String confirmationCode);
+
+    @Transactional
+    @Query(value = "UPDATE qr_codes SET is_used = true, used_at = now(), scan_count = COALESCE(scan_count, 0) + 1 " +
+                   "WHERE id = (SELECT id FROM qr_codes WHERE booking_id = :bookingId " +
+                   "AND is_used = false AND expires_at > now() ORDER BY ticket_number, id LIMIT 1 FOR UPDATE SKIP LOCKED) " +
+                   "AND is_used = false RETURNING *",
+           nativeQuery = true)
+    Optional<QRCode> claimNextByBookingId(@Param("bookingId") Long bookingId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM QRCode q WHERE q.bookingId IN :bookingIds")
+    int deleteByBookingIdIn(@Param("bookingIds") List<Long> bookingIds);
 }
\ No newline at end of file
@@ -0,0 +1,194 @@
+package com.eventplatform.checkin.service;
+
+import com.eventplatform.checkin.dto.BatchScanRequestDTO;
+import com.eventplatform.checkin.entity.QRCode;
+import com.eventplatform.checkin.repository.QRCodeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Scans many unique codes in one request. Gate indexes refuse used, expired and revoked codes in
+ * memory and hold the slots of the others; every admissible code is then claimed with a single
+ * set-based UPDATE and their check-ins written as one JDBC batch. Index slots are given back if the
+ * batch rolls back. Signed payloads are verified and unwrapped first; forged ones never reach the
+ * database.
+ */
+@Service
+@Slf4j
+public class BatchScanService {
+
+    private static final String INSERT_CHECKIN =
+        "INSERT INTO checkins (booking_id, confirmation_code, event_id, user_id, scanner_id, scanner_type, " +
+        "location, quantity, status, check_in_time, checked_in_at, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final QRCodeRepository qrCodeRepository;
+    private final GateIndexService gateIndexService;
+    private final ManifestChangeLog manifestChangeLog;
+    private final QRPayloadSigner qrPayloadSigner;
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxBatchSize;
+
+    public BatchScanService(QRCodeRepository qrCodeRepository,
+                            GateIndexService gateIndexService,
+                            ManifestChangeLog manifestChangeLog,
+                            QRPayloadSigner qrPayloadSigner,
+                            JdbcTemplate jdbcTemplate,
+                            @Value("${checkin.scan-batch.max-size:500}") int maxBatchSize) {
+        this.qrCodeRepository = qrCodeRepository;
+        this.gateIndexService = gateIndexService;
+        this.manifestChangeLog = manifestChangeLog;
+        this.qrPayloadSigner = qrPayloadSigner;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Transactional
+    public Map<String, Object> scanBatch(BatchScanRequestDTO request) {
+        List<String> scanned = request.getUniqueCodes() != null ? request.getUniqueCodes() : List.of();
+        if (scanned.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Lot trop volumineux: " + scanned.size() + " codes (max " + maxBatchSize + ")");
+        }
+        
+        List<String> codes = new ArrayList<>(scanned.size());
+        Map<String, Map<String, Object>> invalidPayloads = new HashMap<>();
+        for (String value : scanned) {
+            try {
+                codes.add(qrPayloadSigner.resolveUniqueCode(value));
+            } catch (RuntimeException e) {
+                codes.add(value);
+                invalidPayloads.put(value, failure(value, e.getMessage()));
+            }
+        }
+        String scannerId = request.getScannerId() != null ? request.getScannerId() : "QR_SCANNER";
+
+        Map<String, Map<String, Object>> decided = new HashMap<>();
+        Set<String> toClaim = new LinkedHashSet<>();
+        for (String code : codes) {
+            if (code == null || !code.startsWith("EVT-") || decided.containsKey(code) || toClaim.contains(code)) {
+                continue;
+            }
+            GateIndexService.Admission admission = gateIndexService.admit(code);
+            if (admission != null && admission.refusal() != null) {
+                decided.put(code, admission.refusal());
+            } else {
+                toClaim.add(code);
+            }
+        }
+
+        if (!toClaim.isEmpty()) {
+            List<QRCode> claimed = qrCodeRepository.claimAllByUniqueCodeIn(toClaim);
+            insertCheckIns(claimed, scannerId);
+            manifestChangeLog.recordUsed(claimed);
+
+            for (QRCode qrCode : claimed) {
+                gateIndexService.markUsed(qrCode.getUniqueCode());
+                decided.put(qrCode.getUniqueCode(), success(qrCode, scannerId));
+                toClaim.remove(qrCode.getUniqueCode());
+            }
+            if (!toClaim.isEmpty()) {
+                for (QRCode qrCode : qrCodeRepository.findByUniqueCodeIn(toClaim)) {
+                    decided.put(qrCode.getUniqueCode(), rejection(qrCode));
+                }
+            }
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>(codes.size());
+        Set<String> reported = new HashSet<>();
+        int succeeded = 0;
+        for (String code : codes) {
+            Map<String, Object> result;
+            if (invalidPayloads.containsKey(code)) {
+                result = invalidPayloads.get(code);
+            } else if (code == null || !code.startsWith("EVT-")) {
+                result = failure(code, "Format de code invalide. Le code doit commencer par 'EVT-'");
+            } else if (!reported.add(code)) {
+                result = failure(code, "Code en double dans le lot");
+            } else {
+                result = decided.getOrDefault(code, failure(code, "Code non trouvé: " + code));
+            }
+            if (Boolean.TRUE.equals(result.get("success"))) {
+                succeeded++;
+            }
+            results.add(result);
+        }
+
+        log.info("📦 Batch scan by {}: {}/{} codes checked in", scannerId, succeeded, codes.size());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("scannerId", scannerId);
+        response.put("received", codes.size());
+        response.put("succeeded", succeeded);
+        response.put("failed", codes.size() - succeeded);
+        response.put("results", results);
+        response.put("timestamp", LocalDateTime.now().toString());
+        return response;
+    }
+
+    private void insertCheckIns(List<QRCode> claimed, String scannerId) {
+        if (claimed.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = claimed.stream()
+                .map(qr -> new Object[] {
+                    qr.getBookingId(),
+                    qr.getConfirmationCode() != null ? qr.getConfirmationCode() : "BK" + qr.getBookingId(),
+                    qr.getEventId(),
+                    1L,
+                    scannerId,
+                    "BATCH_SCANNER",
+                    "MAIN_ENTRANCE",
+                    qr.getQuantity() != null ? qr.getQuantity() : 1,
+                    "CHECKED_IN",
+                    now, now, now
+                })
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_CHECKIN, rows);
+    }
+
+    private static Map<String, Object> success(QRCode qrCode, String scannerId) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("uniqueCode", qrCode.getUniqueCode());
+        result.put("success", true);
+        result.put("message", "Check-in réussi!");
+        result.put("bookingId", qrCode.getBookingId());
+        result.put("eventId", qrCode.getEventId());
+        result.put("userName", qrCode.getUserName());
+        result.put("eventName", qrCode.getEventName());
+        result.put("quantity", qrCode.getQuantity());
+        result.put("scannerId", scannerId);
+        result.put("timestamp", LocalDateTime.now().toString());
+        return result;
+    }
+
+    private static Map<String, Object> rejection(QRCode qrCode) {
+        if (!qrCode.getIsUsed() && LocalDateTime.now().isAfter(qrCode.getExpiresAt())) {
+            return failure(qrCode.getUniqueCode(), "Code expiré");
+        }
+        Map<String, Object> result = failure(qrCode.getUniqueCode(), "Code déjà utilisé");
+        result.put("originalScanTime", qrCode.getUsedAt() != null ? qrCode.getUsedAt().toString() : null);
+        return result;
+    }
+
+    private static Map<String, Object> failure(String code, String message) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("uniqueCode", code);
+        result.put("success", false);
+        result.put("message", message);
+        return result;
+    }
+}
@@ -0,0 +1,60 @@
+package com.eventplatform.checkin.service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bloom filter shipped to gate scanners. Positions are derived with double hashing from the 64-bit
+ * FNV-1a hash of the UTF-8 code: {@code (h1 + i * h2) mod numBits} for {@code i < numHashes}, where
+ * {@code h1} and {@code h2} are the low and high 32 bits read as unsigned. Bit {@code n} is bit
+ * {@code n % 8} of byte {@code n / 8}. Scanners must use exactly this scheme.
+ */
+final class BloomFilter {
+
+    static final String HASH_SCHEME = "fnv1a64-double";
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final byte[] bits;
+    private final int numBits;
+    private final int numHashes;
+
+    BloomFilter(int expectedEntries, double falsePositiveRate) {
+        int n = Math.max(1, expectedEntries);
+        double ln2 = Math.log(2);
+        this.numBits = Math.max(64, (int) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * ln2));
+        this.bits = new byte[(numBits + 7) / 8];
+    }
+
+    void add(String code) {
+        long hash = fnv1a64(code);
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = hash >>> 32;
+        for (int i = 0; i < numHashes; i++) {
+            int bit = (int) ((h1 + i * h2) % numBits);
+            bits[bit >>> 3] |= (byte) (1 << (bit & 7));
+        }
+    }
+
+    byte[] bits() {
+        return bits;
+    }
+
+    int numBits() {
+        return numBits;
+    }
+
+    int numHashes() {
+        return numHashes;
+    }
+
+    private static long fnv1a64(String code) {
+        long hash = FNV_OFFSET;
+        for (byte b : code.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xFF);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -1,11 +1,13 @@
 package com.eventplatform.checkin.service;
 
 import com.eventplatform.checkin.entity.CheckIn;
+import com.eventplatform.checkin.entity.QRCode;
 import com.eventplatform.checkin.repository.CheckInRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.hc.core5.http.HttpStatus;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -27,6 +29,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CheckInService {
     
+    private static final int MAX_SEARCH_PAGE_SIZE = 500;
+    
     private final CheckInRepository checkInRepository;
     
     public List<CheckIn> findRecentCheckins(int limit) {
@@ -87,16 +91,14 @@ public class CheckInService {
         return checkInRepository.findDistinctScannerIds();
     }
     
-    public List<CheckIn> searchCheckins(String confirmationCode, Long bookingId, String scannerId) {
-        if (confirmationCode != null) {
-            return checkInRepository.findByConfirmationCode(confirmationCode);
-        } else if (bookingId != null) {
-            return checkInRepository.findByBookingId(bookingId);
-        } else if (scannerId != null) {
-            return checkInRepository.findByScannerId(scannerId);
-        } else {
-            return findRecentCheckins(50);
-        }
+    /**
+     * Check-ins matching every given filter, newest first. Filters left null are ignored; with
+     * none at all this is the most recent activity.
+     */
+    public Page<CheckIn> searchCheckins(String confirmationCode, Long bookingId, String scannerId, Long eventId,
+                                        LocalDateTime from, LocalDateTime to, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_SEARCH_PAGE_SIZE));
+        return checkInRepository.search(confirmationCode, bookingId, scannerId, eventId, from, to, pageable);
     }
     
       @Transactional
@@ -181,6 +183,33 @@ public class CheckInService {
         }
     }
     
+    /**
+     * Check-in for a claimed ticket, carrying the ticket's own event and confirmation code. Tickets
+     * issued before events were tracked have no event id and are stored without one rather than
+     * under a placeholder, so filtering by event never returns them.
+     */
+    @Transactional
+    public CheckIn recordScan(QRCode qrCode, Long eventId, String scannerId, String scannerType, String location) {
+        return recordScan(qrCode, eventId, scannerId, scannerType, location, qrCode.getQuantity());
+    }
+    
+    @Transactional
+    public CheckIn recordScan(QRCode qrCode, Long eventId, String scannerId, String scannerType, String location,
+                              Integer quantity) {
+        CheckIn checkIn = CheckIn.builder()
+            .bookingId(qrCode.getBookingId())
+            .confirmationCode(qrCode.getConfirmationCode() != null ? qrCode.getConfirmationCode() : "BK" + qrCode.getBookingId())
+            .eventId(eventId)
+            .userId(1L)
+            .scannerId(scannerId != null ? scannerId : "QR_SCANNER")
+            .scannerType(scannerType != null ? scannerType : "QR_CODE_SCANNER")
+            .location(location != null ? location : "MAIN_ENTRANCE")
+            .quantity(quantity != null ? quantity : 1)
+            .status("CHECKED_IN")
+            .build();
+        return checkInRepository.save(checkIn);
+    }
+    
     @PostMapping("/test-checkin")
     @Transactional
     public ResponseEntity<Map<String, Object>> testCheckIn() {
@@ -0,0 +1,162 @@
+package com.eventplatform.checkin.service;
+
+import com.eventplatform.checkin.entity.OutboundEmail;
+import com.eventplatform.checkin.entity.OutboundEmailAttachment;
+import com.eventplatform.checkin.entity.QRCode;
+import com.eventplatform.checkin.repository.OutboundEmailAttachmentRepository;
+import com.eventplatform.checkin.repository.OutboundEmailRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Durable queue of ticket emails. Emails are stored as rows and leased to the sending workers in
+ * batches; a lease that is not settled in time (worker crash, restart) makes the row due again, so
+ * every email is sent at least once. Failed sends are retried with exponential backoff and jitter
+ * until {@code max-attempts}, then left as FAILED for inspection. Ticket images rendered by the
+ * caller are stored with the email and dropped once it is settled.
+ */
+@Service
+@Slf4j
+public class EmailOutbox {
+
+    private final OutboundEmailRepository outboundEmailRepository;
+    private final OutboundEmailAttachmentRepository attachmentRepository;
+    private final int maxAttempts;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final long leaseMs;
+
+    private final Object signal = new Object();
+    private boolean pendingSignal;
+
+    public EmailOutbox(OutboundEmailRepository outboundEmailRepository,
+                       OutboundEmailAttachmentRepository attachmentRepository,
+                       @Value("${checkin.email-outbox.max-attempts:8}") int maxAttempts,
+                       @Value("${checkin.email-outbox.backoff-base-ms:30000}") long backoffBaseMs,
+                       @Value("${checkin.email-outbox.backoff-max-ms:3600000}") long backoffMaxMs,
+                       @Value("${checkin.email-outbox.lease-ms:300000}") long leaseMs,
+                       MeterRegistry meterRegistry) {
+        this.outboundEmailRepository = outboundEmailRepository;
+        this.attachmentRepository = attachmentRepository;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.leaseMs = leaseMs;
+
+        for (OutboundEmail.Status status : List.of(OutboundEmail.Status.PENDING, OutboundEmail.Status.SENDING,
+                                                   OutboundEmail.Status.FAILED)) {
+            Gauge.builder("checkin.email.outbox.depth", outboundEmailRepository, repo -> repo.countByStatus(status))
+                 .tag("status", status.name().toLowerCase())
+                 .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Stores the email in the caller's transaction when there is one, so it is queued if and only
+     * if the caller's writes commit. Workers are woken once it is visible to them. {@code images}
+     * maps ticket ids to their rendered PNG; tickets missing from it are rendered at send time.
+     */
+    public OutboundEmail enqueue(OutboundEmail.Kind kind, String recipient, String subject, String htmlBody,
+                                 List<QRCode> qrCodes, Map<String, byte[]> images) {
+        OutboundEmail email = new OutboundEmail();
+        email.setKind(kind);
+        email.setRecipient(recipient);
+        email.setSubject(subject);
+        email.setHtmlBody(htmlBody);
+        email.setQrCodeIds(qrCodes.stream().map(QRCode::getId).collect(Collectors.joining(",")));
+
+        OutboundEmail saved = outboundEmailRepository.save(email);
+        List<OutboundEmailAttachment> attachments = new ArrayList<>(qrCodes.size());
+        for (QRCode qrCode : qrCodes) {
+            byte[] image = images.get(qrCode.getId());
+            if (image != null) {
+                attachments.add(new OutboundEmailAttachment(null, saved.getId(), qrCode.getId(), image));
+            }
+        }
+        attachmentRepository.saveAll(attachments);
+        log.info("📬 Email {} queued for {} ({} tickets)", saved.getId(), recipient, qrCodes.size());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp();
+                }
+            });
+        } else {
+            wakeUp();
+        }
+        return saved;
+    }
+
+    List<OutboundEmailAttachment> attachments(OutboundEmail email) {
+        return attachmentRepository.findByEmailId(email.getId());
+    }
+
+    List<OutboundEmail> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        return outboundEmailRepository.claimDue(now, now.plusNanos(TimeUnit.MILLISECONDS.toNanos(leaseMs)), limit);
+    }
+
+    void markSent(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            outboundEmailRepository.markSent(ids, LocalDateTime.now());
+            attachmentRepository.deleteByEmailIdIn(ids);
+        }
+    }
+
+    /**
+     * Puts a failed email back in the queue, or gives up on it when it is out of attempts or the
+     * failure cannot be fixed by retrying. Returns whether it will be retried.
+     */
+    boolean markFailed(OutboundEmail email, String error, boolean permanent) {
+        String lastError = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        if (permanent || email.getAttempts() >= maxAttempts) {
+            outboundEmailRepository.reschedule(email.getId(), OutboundEmail.Status.FAILED, LocalDateTime.now(), lastError);
+            attachmentRepository.deleteByEmailIdIn(List.of(email.getId()));
+            log.error("❌ Email {} to {} abandoned after {} attempts: {}",
+                      email.getId(), email.getRecipient(), email.getAttempts(), error);
+            return false;
+        }
+
+        long backoff = Math.min(backoffMaxMs, backoffBaseMs << Math.min(email.getAttempts() - 1, 20));
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        outboundEmailRepository.reschedule(email.getId(), OutboundEmail.Status.PENDING,
+                                           LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(delay)), lastError);
+        log.warn("⚠️ Email {} to {} failed (attempt {}), retrying in {} s: {}",
+                 email.getId(), email.getRecipient(), email.getAttempts(), delay / 1000, error);
+        return true;
+    }
+
+    /**
+     * Blocks until an email is enqueued on this instance or the timeout passes, whichever is first.
+     */
+    void awaitWork(long timeoutMs) throws InterruptedException {
+        synchronized (signal) {
+            if (!pendingSignal) {
+                signal.wait(timeoutMs);
+            }
+            pendingSignal = false;
+        }
+    }
+
+    void wakeUp() {
+        synchronized (signal) {
+            pendingSignal = true;
+            signal.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.eventplatform.checkin.service;
+
+import com.eventplatform.checkin.config.ExecutorConfig;
+import com.eventplatform.checkin.entity.OutboundEmail;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the {@link EmailOutbox}. Each worker leases a batch of due emails, sends them over an SMTP
+ * connection it keeps open between batches (closed after {@code idle-close-ms} without work or on
+ * the first transport error), and settles the batch afterwards. All workers share one token bucket
+ * so the instance stays under the provider's sending rate.
+ */
+@Service
+@Slf4j
+public class EmailOutboxWorker {
+
+    private final EmailOutbox emailOutbox;
+    private final QRCodeEmailService qrCodeEmailService;
+    private final JavaMailSender mailSender;
+    private final TaskExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final TokenBucket rateLimiter;
+    private final int workers;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final long idleCloseMs;
+
+    private volatile boolean running;
+
+    public EmailOutboxWorker(EmailOutbox emailOutbox,
+                             QRCodeEmailService qrCodeEmailService,
+                             JavaMailSender mailSender,
+                             @Qualifier(ExecutorConfig.EMAIL_OUTBOX_EXECUTOR) TaskExecutor executor,
+                             MeterRegistry meterRegistry,
+                             @Value("${checkin.email-outbox.workers:2}") int workers,
+                             @Value("${checkin.email-outbox.batch-size:10}") int batchSize,
+                             @Value("${checkin.email-outbox.poll-interval-ms:2000}") long pollIntervalMs,
+                             @Value("${checkin.email-outbox.idle-close-ms:60000}") long idleCloseMs,
+                             @Value("${checkin.email-outbox.rate-per-second:5}") double ratePerSecond,
+                             @Value("${checkin.email-outbox.burst:10}") int burst) {
+        this.emailOutbox = emailOutbox;
+        this.qrCodeEmailService = qrCodeEmailService;
+        this.mailSender = mailSender;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.rateLimiter = new TokenBucket(ratePerSecond, burst);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.idleCloseMs = idleCloseMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::run);
+        }
+        log.info("📮 Email outbox started with {} workers", workers);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        emailOutbox.wakeUp();
+    }
+
+    private void run() {
+        SmtpConnection connection = new SmtpConnection();
+        try {
+            while (running) {
+                List<OutboundEmail> batch;
+                try {
+                    batch = emailOutbox.claim(batchSize);
+                } catch (Exception e) {
+                    log.error("❌ Failed to claim outbound emails: {}", e.getMessage());
+                    emailOutbox.awaitWork(pollIntervalMs);
+                    continue;
+                }
+
+                if (batch.isEmpty()) {
+                    if (connection.idleMillis() > idleCloseMs) {
+                        connection.close();
+                    }
+                    emailOutbox.awaitWork(pollIntervalMs);
+                    continue;
+                }
+                try {
+                    sendBatch(batch, connection);
+                } catch (RuntimeException e) {
+                    // Unsettled emails become due again when their lease ends; the worker must not die
+                    log.error("❌ Failed to settle a batch of {} emails: {}", batch.size(), e.getMessage(), e);
+                    emailOutbox.awaitWork(pollIntervalMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connection.close();
+        }
+    }
+
+    private void sendBatch(List<OutboundEmail> batch, SmtpConnection connection) throws InterruptedException {
+        List<Long> sent = new ArrayList<>(batch.size());
+        for (OutboundEmail email : batch) {
+            rateLimiter.acquire();
+            long started = System.nanoTime();
+            String outcome;
+            try {
+                connection.send(qrCodeEmailService.toMimeMessage(email));
+                sent.add(email.getId());
+                outcome = "sent";
+                log.info("✅ Email {} sent to {}", email.getId(), email.getRecipient());
+            } catch (Exception e) {
+                if (e instanceof MessagingException) {
+                    connection.close();
+                }
+                outcome = settleFailure(email, e);
+            }
+            Timer.builder("checkin.email.send")
+                 .tag("outcome", outcome)
+                 .register(meterRegistry)
+                 .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+        emailOutbox.markSent(sent);
+    }
+
+    /**
+     * Records a failed send. If that write fails too, the email is left to come back when its lease
+     * ends, and the rest of the batch is still sent and settled.
+     */
+    private String settleFailure(OutboundEmail email, Exception failure) {
+        try {
+            return emailOutbox.markFailed(email, failure.getMessage(), isPermanent(failure)) ? "retry" : "failed";
+        } catch (RuntimeException e) {
+            log.error("❌ Failed to record the failure of email {}: {}", email.getId(), e.getMessage());
+            return "unsettled";
+        }
+    }
+
+    private static boolean isPermanent(Exception e) {
+        if (e instanceof AddressException) {
+            return true;
+        }
+        return e instanceof SendFailedException failed
+            && failed.getInvalidAddresses() != null && failed.getInvalidAddresses().length > 0
+            && (failed.getValidUnsentAddresses() == null || failed.getValidUnsentAddresses().length == 0);
+    }
+
+    /**
+     * One worker's SMTP session. Falls back to {@link JavaMailSender#send} (a connection per message)
+     * when the sender is not a {@link JavaMailSenderImpl}.
+     */
+    private final class SmtpConnection {
+        private Transport transport;
+        private long lastUsed = System.currentTimeMillis();
+
+        void send(MimeMessage message) throws MessagingException {
+            lastUsed = System.currentTimeMillis();
+            if (!(mailSender instanceof JavaMailSenderImpl sender)) {
+                mailSender.send(message);
+                return;
+            }
+            if (transport == null || !transport.isConnected()) {
+                close();
+                transport = sender.getSession().getTransport(sender.getProtocol() != null ? sender.getProtocol() : "smtp");
+                transport.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+            }
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+            message.saveChanges();
+            transport.sendMessage(message, message.getAllRecipients());
+        }
+
+        long idleMillis() {
+            return transport == null ? 0 : System.currentTimeMillis() - lastUsed;
+        }
+
+        void close() {
+            if (transport != null) {
+                try {
+                    transport.close();
+                } catch (MessagingException e) {
+                    log.debug("SMTP close failed: {}", e.getMessage());
+                }
+                transport = null;
+            }
+        }
+    }
+}
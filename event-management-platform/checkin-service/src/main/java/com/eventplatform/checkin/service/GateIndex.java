@@ -0,0 +1,222 @@
+package com.eventplatform.checkin.service;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Open-addressing table of the unique codes of one event. Codes have the form
+ * {@code EVT-XXXXX-XXXXX} with ten hex digits, so each one packs into 40 bits of a long; the same
+ * word also carries the ticket quantity and the used/revoked flags, which lets a scan claim its slot
+ * with a single compare-and-set. Booking ids and expiry minutes live in parallel primitive arrays,
+ * keeping 100k tickets at roughly 5 MB.
+ */
+final class GateIndex {
+
+    enum Outcome { ADMITTED, ALREADY_USED, EXPIRED, REVOKED, MISS }
+
+    static final long NOT_PACKABLE = -1L;
+
+    private static final long CODE_MASK = (1L << 40) - 1;
+    private static final int QUANTITY_SHIFT = 40;
+    private static final long QUANTITY_MASK = 0xFFFFL;
+    private static final long USED = 1L << 56;
+    private static final long REVOKED = 1L << 57;
+    private static final double LOAD_FACTOR = 0.75;
+
+    private final long eventId;
+    private final String eventName;
+    private final AtomicLongArray words;
+    private final long[] bookingIds;
+    private final int[] expiresAtMinutes;
+    private final int mask;
+    private final int size;
+    private final long loadedAt = System.currentTimeMillis();
+
+    GateIndex(long eventId, String eventName, Collection<Entry> entries) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (entries.size() / LOAD_FACTOR)) - 1) << 1;
+        this.eventId = eventId;
+        this.eventName = eventName;
+        this.words = new AtomicLongArray(capacity);
+        this.bookingIds = new long[capacity];
+        this.expiresAtMinutes = new int[capacity];
+        this.mask = capacity - 1;
+
+        int inserted = 0;
+        for (Entry entry : entries) {
+            long quantity = Math.max(1, Math.min(entry.quantity(), QUANTITY_MASK));
+            long word = entry.code() | (quantity << QUANTITY_SHIFT) | (entry.used() ? USED : 0);
+            int slot = slot(entry.code());
+            while (words.get(slot) != 0) {
+                if ((words.get(slot) & CODE_MASK) == entry.code()) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (words.get(slot) == 0) {
+                inserted++;
+            }
+            words.set(slot, word);
+            bookingIds[slot] = entry.bookingId();
+            expiresAtMinutes[slot] = entry.expiresAtMinutes();
+        }
+        this.size = inserted;
+    }
+
+    /**
+     * Claims the code if it is present, unused and not expired. {@code slotOut[0]} receives the slot
+     * of the code whenever it was found, so callers can read its booking id and quantity.
+     */
+    Outcome admit(long code, int nowMinutes, int[] slotOut) {
+        int slot = find(code);
+        if (slot < 0) {
+            return Outcome.MISS;
+        }
+        slotOut[0] = slot;
+        while (true) {
+            long word = words.get(slot);
+            if ((word & REVOKED) != 0) {
+                return Outcome.REVOKED;
+            }
+            if ((word & USED) != 0) {
+                return Outcome.ALREADY_USED;
+            }
+            if (expiresAtMinutes[slot] <= nowMinutes) {
+                return Outcome.EXPIRED;
+            }
+            if (words.compareAndSet(slot, word, word | USED)) {
+                return Outcome.ADMITTED;
+            }
+        }
+    }
+
+    boolean markUsed(long code) {
+        return setFlag(find(code), USED);
+    }
+
+    /**
+     * Gives back a slot claimed by {@link #admit} whose scan could not be recorded.
+     */
+    void release(int slot) {
+        while (true) {
+            long word = words.get(slot);
+            if ((word & USED) == 0 || words.compareAndSet(slot, word, word & ~USED)) {
+                return;
+            }
+        }
+    }
+
+    int revokeBookings(Collection<Long> ids) {
+        int revoked = 0;
+        for (int slot = 0; slot < bookingIds.length; slot++) {
+            if (words.get(slot) != 0 && ids.contains(bookingIds[slot]) && setFlag(slot, REVOKED)) {
+                revoked++;
+            }
+        }
+        return revoked;
+    }
+
+    long bookingId(int slot) {
+        return bookingIds[slot];
+    }
+
+    int quantity(int slot) {
+        return (int) ((words.get(slot) >>> QUANTITY_SHIFT) & QUANTITY_MASK);
+    }
+
+    long eventId() {
+        return eventId;
+    }
+
+    String eventName() {
+        return eventName;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return bookingIds.length;
+    }
+
+    long loadedAt() {
+        return loadedAt;
+    }
+
+    int usedCount() {
+        int used = 0;
+        for (int slot = 0; slot < bookingIds.length; slot++) {
+            if ((words.get(slot) & USED) != 0) {
+                used++;
+            }
+        }
+        return used;
+    }
+
+    long approximateBytes() {
+        return (long) bookingIds.length * (Long.BYTES + Long.BYTES + Integer.BYTES);
+    }
+
+    private boolean setFlag(int slot, long flag) {
+        if (slot < 0) {
+            return false;
+        }
+        while (true) {
+            long word = words.get(slot);
+            if ((word & flag) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(slot, word, word | flag)) {
+                return true;
+            }
+        }
+    }
+
+    private int find(long code) {
+        if (code == NOT_PACKABLE) {
+            return -1;
+        }
+        int slot = slot(code);
+        while (true) {
+            long word = words.get(slot);
+            if (word == 0) {
+                return -1;
+            }
+            if ((word & CODE_MASK) == code) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int slot(long code) {
+        long h = code * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Packs {@code EVT-XXXXX-XXXXX} into its 40-bit value, or returns {@link #NOT_PACKABLE} for any
+     * other shape; such codes simply never hit the index.
+     */
+    static long pack(String uniqueCode) {
+        if (uniqueCode == null || uniqueCode.length() != 15 || !uniqueCode.startsWith("EVT-")
+                || uniqueCode.charAt(9) != '-') {
+            return NOT_PACKABLE;
+        }
+        long code = 0;
+        for (int i = 4; i < 15; i++) {
+            if (i == 9) {
+                continue;
+            }
+            int digit = Character.digit(uniqueCode.charAt(i), 16);
+            if (digit < 0) {
+                return NOT_PACKABLE;
+            }
+            code = (code << 4) | digit;
+        }
+        return code;
+    }
+
+    record Entry(long code, long bookingId, int quantity, boolean used, int expiresAtMinutes) {
+    }
+}
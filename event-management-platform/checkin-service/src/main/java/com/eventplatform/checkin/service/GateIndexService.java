@@ -0,0 +1,326 @@
+package com.eventplatform.checkin.service;
+
+import com.eventplatform.checkin.entity.QRCode;
+import com.eventplatform.checkin.repository.QRCodeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-event gate indexes preloaded before doors open. Refusals (used, expired, revoked codes) and
+ * concurrent scans of the same code are decided in memory; an admitted scan is only acknowledged
+ * once the same conditional claim as the database path has committed, and the database stays the
+ * arbiter when the index is stale. Codes not in any index fall back to that path. Indexes are local
+ * to this instance, so the gates of a warmed-up event should be routed to one replica.
+ */
+@Service
+@Slf4j
+public class GateIndexService {
+
+    private final QRCodeRepository qrCodeRepository;
+    private final CheckInService checkInService;
+    private final ManifestChangeLog manifestChangeLog;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, GateIndex> indexes = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter writeConflicts;
+    private final Counter writeFailures;
+
+    public GateIndexService(QRCodeRepository qrCodeRepository,
+                            CheckInService checkInService,
+                            ManifestChangeLog manifestChangeLog,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry) {
+        this.qrCodeRepository = qrCodeRepository;
+        this.checkInService = checkInService;
+        this.manifestChangeLog = manifestChangeLog;
+        this.transactionTemplate = transactionTemplate;
+
+        this.hits = meterRegistry.counter("checkin.gate.index.lookups", "result", "hit");
+        this.misses = meterRegistry.counter("checkin.gate.index.lookups", "result", "miss");
+        this.writeConflicts = meterRegistry.counter("checkin.gate.index.writes", "outcome", "conflict");
+        this.writeFailures = meterRegistry.counter("checkin.gate.index.writes", "outcome", "failed");
+        Gauge.builder("checkin.gate.index.events", indexes, Map::size).register(meterRegistry);
+        Gauge.builder("checkin.gate.index.size", indexes,
+                      map -> map.values().stream().mapToInt(GateIndex::size).sum()).register(meterRegistry);
+        Gauge.builder("checkin.gate.index.bytes", indexes,
+                      map -> map.values().stream().mapToLong(GateIndex::approximateBytes).sum()).register(meterRegistry);
+    }
+
+    /**
+     * (Re)loads the index of an event from the database. Scans committing while it loads may be
+     * missing from the new index; the claim refuses them a second time, so reloading is safe while
+     * gates are open.
+     */
+    public Map<String, Object> warmUp(Long eventId) {
+        long started = System.currentTimeMillis();
+        List<Object[]> rows = qrCodeRepository.findGateEntriesByEventId(eventId);
+
+        List<GateIndex.Entry> entries = new ArrayList<>(rows.size());
+        String eventName = null;
+        int skipped = 0;
+        for (Object[] row : rows) {
+            long code = GateIndex.pack((String) row[0]);
+            if (code == GateIndex.NOT_PACKABLE) {
+                skipped++;
+                continue;
+            }
+            Integer quantity = (Integer) row[2];
+            entries.add(new GateIndex.Entry(code, (Long) row[1], quantity != null ? quantity : 1,
+                                            Boolean.TRUE.equals(row[3]), toMinutes((LocalDateTime) row[4])));
+            if (eventName == null) {
+                eventName = (String) row[5];
+            }
+        }
+
+        GateIndex index = new GateIndex(eventId, eventName, entries);
+        indexes.put(eventId, index);
+
+        log.info("🚪 Gate index loaded for event {}: {} codes ({} skipped) in {} ms",
+                 eventId, index.size(), skipped, System.currentTimeMillis() - started);
+
+        Map<String, Object> stats = stats(index);
+        stats.put("skipped", skipped);
+        return stats;
+    }
+
+    public boolean evict(Long eventId) {
+        return indexes.remove(eventId) != null;
+    }
+
+    public Map<String, Object> getStats(Long eventId) {
+        GateIndex index = indexes.get(eventId);
+        if (index == null) {
+            throw new RuntimeException("Aucun index chargé pour l'événement: " + eventId);
+        }
+        return stats(index);
+    }
+
+    public Map<String, Object> getStats() {
+        double lookups = hits.count() + misses.count();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("events", indexes.values().stream().map(this::stats).toList());
+        stats.put("hits", (long) hits.count());
+        stats.put("misses", (long) misses.count());
+        stats.put("hitRate", lookups > 0 ? hits.count() / lookups : 0.0);
+        stats.put("writeConflicts", (long) writeConflicts.count());
+        stats.put("writeFailures", (long) writeFailures.count());
+        return stats;
+    }
+
+    /**
+     * Decides a scan from the loaded indexes. Returns empty when no index knows the code, throws
+     * when the code is known but must be refused, and otherwise records the scan before returning.
+     */
+    public Optional<Map<String, Object>> tryScan(String uniqueCode, String scannerId) {
+        Map<String, Object> result = scanIndexed(uniqueCode, scannerId);
+        if (result == null) {
+            return Optional.empty();
+        }
+        if (!Boolean.TRUE.equals(result.get("success"))) {
+            throw new RuntimeException((String) result.get("message"));
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * Same decision as {@link #tryScan} but reports refusals as a result with {@code success=false};
+     * returns {@code null} when no index knows the code.
+     */
+    public Map<String, Object> scanIndexed(String uniqueCode, String scannerId) {
+        Admission admission = admit(uniqueCode);
+        if (admission == null) {
+            return null;
+        }
+        if (admission.refusal() != null) {
+            return admission.refusal();
+        }
+        GateIndex index = admission.index();
+        int slot = admission.slot();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("uniqueCode", uniqueCode);
+        QRCode claimed;
+        try {
+            claimed = persistScan(index, uniqueCode, scannerId);
+            if (claimed == null) {
+                response.put("success", false);
+                response.put("message", "Code déjà utilisé");
+                return response;
+            }
+        } catch (RuntimeException e) {
+            index.release(slot);
+            writeFailures.increment();
+            log.error("❌ Failed to persist indexed scan of {}: {}", uniqueCode, e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Passage non enregistré, veuillez scanner à nouveau");
+            return response;
+        }
+
+        response.put("success", true);
+        response.put("message", "Check-in réussi!");
+        response.put("bookingId", index.bookingId(slot));
+        response.put("eventId", index.eventId());
+        response.put("eventName", index.eventName());
+        response.put("userName", claimed.getUserName());
+        response.put("quantity", index.quantity(slot));
+        response.put("scannerId", scannerId);
+        response.put("timestamp", LocalDateTime.now().toString());
+        return response;
+    }
+
+    /**
+     * The in-memory half of a scan: refuses used, expired and revoked codes, and claims the slot of
+     * an admissible one with a compare-and-set so concurrent scans of it are refused. The caller
+     * still has to claim the code in the database. Returns null when no index knows the code. Inside
+     * a transaction the slot is given back if the transaction rolls back.
+     */
+    Admission admit(String uniqueCode) {
+        if (indexes.isEmpty()) {
+            return null;
+        }
+        long code = GateIndex.pack(uniqueCode);
+        if (code == GateIndex.NOT_PACKABLE) {
+            return null;
+        }
+
+        int nowMinutes = (int) (System.currentTimeMillis() / 60_000);
+        int[] slot = new int[1];
+        for (GateIndex index : indexes.values()) {
+            GateIndex.Outcome outcome = index.admit(code, nowMinutes, slot);
+            if (outcome == GateIndex.Outcome.MISS) {
+                continue;
+            }
+            hits.increment();
+
+            if (outcome != GateIndex.Outcome.ADMITTED) {
+                Map<String, Object> refusal = new HashMap<>();
+                refusal.put("uniqueCode", uniqueCode);
+                refusal.put("success", false);
+                refusal.put("message", switch (outcome) {
+                    case EXPIRED -> "Code expiré";
+                    case REVOKED -> "Code non trouvé: " + uniqueCode;
+                    default -> "Code déjà utilisé";
+                });
+                return new Admission(refusal, index, slot[0]);
+            }
+
+            releaseOnRollback(index, slot[0]);
+            return new Admission(null, index, slot[0]);
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Keeps the indexes in step with scans decided by the database path on this instance. Inside a
+     * transaction the code is only marked once it commits: a rolled-back scan must not leave a valid
+     * ticket refused from memory.
+     */
+    public void markUsed(String uniqueCode) {
+        long code = GateIndex.pack(uniqueCode);
+        if (code == GateIndex.NOT_PACKABLE || indexes.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            indexes.values().forEach(index -> index.markUsed(code));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                indexes.values().forEach(index -> index.markUsed(code));
+            }
+        });
+    }
+
+    public void revokeBookings(List<Long> bookingIds) {
+        if (indexes.isEmpty() || bookingIds == null || bookingIds.isEmpty()) {
+            return;
+        }
+        HashSet<Long> ids = new HashSet<>(bookingIds);
+        int revoked = indexes.values().stream().mapToInt(index -> index.revokeBookings(ids)).sum();
+        if (revoked > 0) {
+            log.info("🚪 Revoked {} indexed codes for {} deleted bookings", revoked, ids.size());
+        }
+    }
+
+    private void releaseOnRollback(GateIndex index, int slot) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        index.release(slot);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Claims the code in the database and returns it, or null when it was already used there (another
+     * instance, or a scan the index had not seen yet). When called inside a caller's transaction the
+     * claim commits with it.
+     */
+    private QRCode persistScan(GateIndex index, String uniqueCode, String scannerId) {
+        QRCode claimed = transactionTemplate.execute(status -> {
+            Optional<QRCode> qrCode = qrCodeRepository.claimByUniqueCode(uniqueCode);
+            qrCode.ifPresent(qr -> {
+                checkInService.recordScan(qr, qr.getEventId() != null ? qr.getEventId() : index.eventId(),
+                                          scannerId, "QR_CODE_SCANNER", null);
+                manifestChangeLog.recordUsed(qr);
+            });
+            return qrCode.orElse(null);
+        });
+        if (claimed == null) {
+            writeConflicts.increment();
+            log.warn("⚠️ Indexed scan of {} was already recorded in the database", uniqueCode);
+        }
+        return claimed;
+    }
+
+    /**
+     * Outcome of {@link #admit}: either a refusal to return as is, or a claimed slot.
+     */
+    record Admission(Map<String, Object> refusal, GateIndex index, int slot) {
+    }
+
+    private Map<String, Object> stats(GateIndex index) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("eventId", index.eventId());
+        stats.put("eventName", index.eventName());
+        stats.put("codes", index.size());
+        stats.put("used", index.usedCount());
+        stats.put("capacity", index.capacity());
+        stats.put("approximateBytes", index.approximateBytes());
+        stats.put("loadedAt", index.loadedAt());
+        return stats;
+    }
+
+    private static int toMinutes(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) (dateTime.atZone(ZoneId.systemDefault()).toEpochSecond() / 60);
+    }
+}
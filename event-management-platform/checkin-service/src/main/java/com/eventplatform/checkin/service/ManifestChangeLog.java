@@ -0,0 +1,99 @@
+package com.eventplatform.checkin.service;
+
+import com.eventplatform.checkin.entity.ManifestChange.ChangeType;
+import com.eventplatform.checkin.entity.QRCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Appends changes to the scanner manifest delta log. Codes without an event id were generated
+ * before events were tracked and never appear in a manifest, so they are skipped. Rows go through
+ * one JDBC batch per call since identity ids would otherwise force an insert per row.
+ * <p>
+ * Identity ids are handed out at insert, not at commit, so a reader could see id 12 before a slower
+ * transaction commits id 11. Rows are therefore versioned after they commit by
+ * {@link #assignVersions}, which runs one at a time across instances: every version it hands out is
+ * higher than any version already visible, so a scanner following versions never skips a change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ManifestChangeLog {
+    
+    private static final String INSERT_CHANGE =
+        "INSERT INTO manifest_changes (event_id, unique_code, change_type, created_at) VALUES (?, ?, ?, ?)";
+    
+    // The first run after versions were introduced starts above the old id-based versions, so
+    // scanners that still hold one replay the log instead of skipping it.
+    private static final String ASSIGN_VERSIONS =
+        "UPDATE manifest_changes c SET version = p.base + p.rn " +
+        "FROM (SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS rn, " +
+        "             (SELECT COALESCE(MAX(version), MAX(id), 0) FROM manifest_changes) AS base " +
+        "      FROM manifest_changes WHERE version IS NULL ORDER BY id LIMIT ?) p " +
+        "WHERE c.id = p.id";
+    
+    private static final long VERSIONING_LOCK = 0x4d414e4946455354L;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Value("${checkin.scanner-sync.versioning-batch-size:10000}")
+    private int versioningBatchSize;
+    
+    @Transactional
+    public void recordAdded(Collection<QRCode> qrCodes) {
+        record(qrCodes, ChangeType.ADDED);
+    }
+    
+    @Transactional
+    public void recordUsed(QRCode qrCode) {
+        record(List.of(qrCode), ChangeType.USED);
+    }
+    
+    @Transactional
+    public void recordUsed(Collection<QRCode> qrCodes) {
+        record(qrCodes, ChangeType.USED);
+    }
+    
+    @Transactional
+    public void recordRevoked(Collection<QRCode> qrCodes) {
+        record(qrCodes, ChangeType.REVOKED);
+    }
+    
+    /**
+     * Versions the committed changes that have none yet, in its own transaction. Skips when another
+     * call holds the versioning lock; the rows it misses are picked up by the next call.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int assignVersions() {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, VERSIONING_LOCK);
+        if (!Boolean.TRUE.equals(locked)) {
+            return 0;
+        }
+        int versioned = jdbcTemplate.update(ASSIGN_VERSIONS, versioningBatchSize);
+        if (versioned > 0) {
+            log.debug("Versioned {} manifest changes", versioned);
+        }
+        return versioned;
+    }
+    
+    private void record(Collection<QRCode> qrCodes, ChangeType type) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = qrCodes.stream()
+                .filter(qr -> qr.getEventId() != null && qr.getUniqueCode() != null)
+                .map(qr -> new Object[] { qr.getEventId(), qr.getUniqueCode(), type.name(), now })
+                .toList();
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_CHANGE, rows);
+        }
+    }
+}
@@ -1,40 +1,77 @@
 package com.eventplatform.checkin.service;
 
+import com.eventplatform.checkin.config.ExecutorConfig;
+import com.eventplatform.checkin.entity.OutboundEmail;
+import com.eventplatform.checkin.entity.OutboundEmailAttachment;
 import com.eventplatform.checkin.entity.QRCode;
 import com.eventplatform.checkin.repository.QRCodeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
-import lombok.RequiredArgsConstructor;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.imageio.ImageIO;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class QRCodeEmailService {
     
     private final QRCodeRepository qrCodeRepository;
+    private final ManifestChangeLog manifestChangeLog;
+    private final QRPayloadSigner qrPayloadSigner;
+    private final QRRenderer qrRenderer;
     private final JavaMailSender mailSender;
     private final ObjectMapper objectMapper;
+    private final EmailOutbox emailOutbox;
+    private final Executor renderExecutor;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final long renderTimeoutMs;
+    
+    public QRCodeEmailService(QRCodeRepository qrCodeRepository,
+                              ManifestChangeLog manifestChangeLog,
+                              QRPayloadSigner qrPayloadSigner,
+                              QRRenderer qrRenderer,
+                              JavaMailSender mailSender,
+                              ObjectMapper objectMapper,
+                              EmailOutbox emailOutbox,
+                              @Qualifier(ExecutorConfig.QR_RENDER_EXECUTOR) Executor renderExecutor,
+                              MeterRegistry meterRegistry,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${checkin.qr-render.timeout-ms:10000}") long renderTimeoutMs) {
+        this.qrCodeRepository = qrCodeRepository;
+        this.manifestChangeLog = manifestChangeLog;
+        this.qrPayloadSigner = qrPayloadSigner;
+        this.qrRenderer = qrRenderer;
+        this.mailSender = mailSender;
+        this.objectMapper = objectMapper;
+        this.emailOutbox = emailOutbox;
+        this.renderExecutor = renderExecutor;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = transactionTemplate;
+        this.renderTimeoutMs = renderTimeoutMs;
+    }
     
    
-    public QRCode generateAndSendQRCodeByEmail(Long bookingId, String confirmationCode,
+    public QRCode generateAndSendQRCodeByEmail(Long bookingId, Long eventId, String confirmationCode,
                                               String userEmail, String userName,
                                               String eventName, Integer quantity,
                                               Double totalPrice) {
@@ -65,11 +102,10 @@ public class QRCodeEmailService {
             
             String jsonData = objectMapper.writeValueAsString(qrData);
             
-            String qrImageBase64 = generateQRCodeImage(jsonData);
-            
             QRCode qrCode = new QRCode();
             qrCode.setId(UUID.randomUUID().toString());
             qrCode.setBookingId(bookingId);
+            qrCode.setEventId(eventId);
             qrCode.setConfirmationCode(confirmationCode);
             qrCode.setUniqueCode(uniqueCode);
             qrCode.setUserEmail(userEmail);
@@ -82,12 +118,18 @@ public class QRCodeEmailService {
             qrCode.setExpiresAt(LocalDateTime.now().plusDays(7));
             qrCode.setIsUsed(false);
             qrCode.setScanCount(0);
+            qrCode.setQrData(qrPayloadSigner.sign(qrCode));
+            byte[] image = generateQRCodeImage(qrCode.getQrData());
             
-            QRCode savedQR = qrCodeRepository.save(qrCode);
+            // The ticket and its email commit together: no ticket without an email, no email without a ticket
+            QRCode savedQR = transactionTemplate.execute(status -> {
+                QRCode saved = qrCodeRepository.save(qrCode);
+                manifestChangeLog.recordAdded(List.of(saved));
+                queueQRCodeEmail(userEmail, userName, saved, image);
+                return saved;
+            });
             
-            sendQRCodeEmail(userEmail, userName, savedQR, qrImageBase64);
-            
-            log.info("✅ QR code generated and sent by email for booking: {}", bookingId);
+            log.info("✅ QR code generated and queued for email for booking: {}", bookingId);
             
             return savedQR;
             
@@ -98,7 +140,7 @@ public class QRCodeEmailService {
     }
     
     
-    public List<QRCode> generateAndSendQRCodesByEmail(Long bookingId, String confirmationCode,
+    public List<QRCode> generateAndSendQRCodesByEmail(Long bookingId, Long eventId, String confirmationCode,
                                                      String userEmail, String userName,
                                                      String eventName, Integer quantity,
                                                      Double totalPrice) {
@@ -106,8 +148,6 @@ public class QRCodeEmailService {
         try {
             log.info("🔄 Generating {} QR codes for booking: {}", quantity, bookingId);
             
-            List<QRCode> generatedQRCodes = new ArrayList<>();
-            
             List<QRCode> existingQR = qrCodeRepository.findByBookingId(bookingId);
             
             if (!existingQR.isEmpty()) {
@@ -125,49 +165,20 @@ public class QRCodeEmailService {
             commonData.put("generatedAt", LocalDateTime.now().toString());
             commonData.put("expiresAt", LocalDateTime.now().plusDays(7).toString());
             
-            List<String> qrImagesBase64 = new ArrayList<>();
+            List<BuiltTicket> tickets = buildTickets(commonData, bookingId, eventId, confirmationCode,
+                                                     userEmail, userName, eventName, quantity, totalPrice);
+            Map<String, byte[]> images = new HashMap<>();
+            tickets.forEach(ticket -> images.put(ticket.qrCode().getId(), ticket.image()));
             
-            for (int i = 1; i <= quantity; i++) {
-                String uniqueCode = generateUniqueCode();
-                
-                Map<String, Object> qrData = new HashMap<>(commonData);
-                qrData.put("uniqueCode", uniqueCode);
-                qrData.put("ticketNumber", i);
-                qrData.put("totalTickets", quantity);
-                qrData.put("ticketId", String.format("%s-%03d", confirmationCode, i));
-                
-                String jsonData = objectMapper.writeValueAsString(qrData);
-                String qrImageBase64 = generateQRCodeImage(jsonData);
-                qrImagesBase64.add(qrImageBase64);
-                
-                QRCode qrCode = new QRCode();
-                qrCode.setId(UUID.randomUUID().toString());
-                qrCode.setBookingId(bookingId);
-                qrCode.setConfirmationCode(confirmationCode);
-                qrCode.setUniqueCode(uniqueCode);
-                qrCode.setUserEmail(userEmail);
-                qrCode.setUserName(userName);
-                qrCode.setEventName(eventName);
-                qrCode.setQuantity(1);
-                qrCode.setTicketNumber(i);
-                qrCode.setTotalTickets(quantity);
-                qrCode.setTotalPrice(totalPrice / quantity);
-                qrCode.setData(jsonData);
-                qrCode.setCreatedAt(LocalDateTime.now());
-                qrCode.setExpiresAt(LocalDateTime.now().plusDays(7));
-                qrCode.setIsUsed(false);
-                qrCode.setScanCount(0);
-                
-                QRCode savedQR = qrCodeRepository.save(qrCode);
-                generatedQRCodes.add(savedQR);
-                
-                log.info("✅ Generated QR code {}/{}: {}", i, quantity, uniqueCode);
-            }
+            List<QRCode> generatedQRCodes = transactionTemplate.execute(status -> {
+                List<QRCode> saved = qrCodeRepository.saveAll(tickets.stream().map(BuiltTicket::qrCode).toList());
+                manifestChangeLog.recordAdded(saved);
+                queueMultipleQRCodesEmail(userEmail, userName, saved, images,
+                                          confirmationCode, eventName, quantity, totalPrice);
+                return saved;
+            });
             
-            sendMultipleQRCodesEmail(userEmail, userName, generatedQRCodes, qrImagesBase64, 
-                                   confirmationCode, eventName, quantity, totalPrice);
-            
-            log.info("✅ {} QR codes generated and sent by email for booking: {}", quantity, bookingId);
+            log.info("✅ {} QR codes generated and queued for email for booking: {}", quantity, bookingId);
             
             return generatedQRCodes;
             
@@ -178,77 +189,180 @@ public class QRCodeEmailService {
     }
     
    
-    private String generateUniqueCode() {
-        String part1 = UUID.randomUUID().toString().substring(0, 5).toUpperCase();
-        String part2 = UUID.randomUUID().toString().substring(0, 5).toUpperCase();
-        return "EVT-" + part1 + "-" + part2;
+    /**
+     * A signed ticket and the PNG its email will attach.
+     */
+    private record BuiltTicket(QRCode qrCode, byte[] image) {
     }
-  
-    private String generateQRCodeImage(String data) throws WriterException, IOException {
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        BitMatrix bitMatrix = qrCodeWriter.encode(data, BarcodeFormat.QR_CODE, 250, 250);
+    
+    /**
+     * Builds, signs and renders every ticket of a booking in parallel on the render pool. The first
+     * failure, or the deadline passing, cancels the tickets not yet started and fails the whole
+     * booking, since a partial set of tickets is never persisted.
+     */
+    private List<BuiltTicket> buildTickets(Map<String, Object> commonData, Long bookingId, Long eventId,
+                                       String confirmationCode, String userEmail, String userName,
+                                       String eventName, Integer quantity, Double totalPrice) {
+        long started = System.nanoTime();
         
-        BufferedImage qrImage = MatrixToImageWriter.toBufferedImage(bitMatrix);
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(qrImage, "PNG", baos);
+        List<CompletableFuture<BuiltTicket>> futures = new ArrayList<>(quantity);
+        CompletableFuture<BuiltTicket> firstFailure = new CompletableFuture<>();
+        for (int i = 1; i <= quantity; i++) {
+            int ticketNumber = i;
+            CompletableFuture<BuiltTicket> future = CompletableFuture.supplyAsync(() -> buildTicket(
+                    commonData, bookingId, eventId, confirmationCode, userEmail, userName,
+                    eventName, ticketNumber, quantity, totalPrice), renderExecutor);
+            future.whenComplete((ticket, error) -> {
+                if (error != null) {
+                    firstFailure.completeExceptionally(error);
+                }
+            });
+            futures.add(future);
+        }
         
-        return Base64.getEncoder().encodeToString(baos.toByteArray());
+        String outcome = "failed";
+        try {
+            CompletableFuture.anyOf(CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)), firstFailure)
+                    .get(renderTimeoutMs, TimeUnit.MILLISECONDS);
+            List<BuiltTicket> tickets = futures.stream().map(CompletableFuture::join).toList();
+            outcome = "success";
+            return tickets;
+        } catch (TimeoutException e) {
+            outcome = "timeout";
+            throw new RuntimeException("Génération des billets trop longue (" + renderTimeoutMs + " ms)");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Génération des billets interrompue");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Échec de génération d'un billet: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            if (!"success".equals(outcome)) {
+                futures.forEach(future -> future.cancel(true));
+            }
+            long elapsed = System.nanoTime() - started;
+            meterRegistry.timer("checkin.qr.generation", "outcome", outcome).record(elapsed, TimeUnit.NANOSECONDS);
+            meterRegistry.counter("checkin.qr.generation.tickets", "outcome", outcome).increment(quantity);
+            log.info("🎫 Built {} tickets for booking {} in {} ms ({})",
+                     quantity, bookingId, TimeUnit.NANOSECONDS.toMillis(elapsed), outcome);
+        }
     }
     
-   
-    private void sendQRCodeEmail(String toEmail, String userName, QRCode qrCode, 
-                               String qrImageBase64) throws MessagingException, IOException {
-        
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+    private BuiltTicket buildTicket(Map<String, Object> commonData, Long bookingId, Long eventId,
+                               String confirmationCode, String userEmail, String userName,
+                               String eventName, int ticketNumber, int quantity, Double totalPrice) {
+        String uniqueCode = generateUniqueCode();
         
-        helper.setFrom("noreply@eventplatform.com", "GoEvent");
-        helper.setTo(toEmail);
-        helper.setSubject("🎫 Votre billet électronique - " + qrCode.getEventName());
+        Map<String, Object> qrData = new HashMap<>(commonData);
+        qrData.put("uniqueCode", uniqueCode);
+        qrData.put("ticketNumber", ticketNumber);
+        qrData.put("totalTickets", quantity);
+        qrData.put("ticketId", String.format("%s-%03d", confirmationCode, ticketNumber));
         
-        String htmlContent = buildQRCodeEmailHTML(userName, qrCode, qrImageBase64);
-        helper.setText(htmlContent, true);
+        QRCode qrCode = new QRCode();
+        qrCode.setId(UUID.randomUUID().toString());
+        qrCode.setBookingId(bookingId);
+        qrCode.setEventId(eventId);
+        qrCode.setConfirmationCode(confirmationCode);
+        qrCode.setUniqueCode(uniqueCode);
+        qrCode.setUserEmail(userEmail);
+        qrCode.setUserName(userName);
+        qrCode.setEventName(eventName);
+        qrCode.setQuantity(1);
+        qrCode.setTicketNumber(ticketNumber);
+        qrCode.setTotalTickets(quantity);
+        qrCode.setTotalPrice(totalPrice / quantity);
+        try {
+            qrCode.setData(objectMapper.writeValueAsString(qrData));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize ticket data: " + e.getMessage(), e);
+        }
+        qrCode.setCreatedAt(LocalDateTime.now());
+        qrCode.setExpiresAt(LocalDateTime.now().plusDays(7));
+        qrCode.setIsUsed(false);
+        qrCode.setScanCount(0);
+        qrCode.setQrData(qrPayloadSigner.sign(qrCode));
         
-        byte[] qrImageBytes = Base64.getDecoder().decode(qrImageBase64);
-        helper.addAttachment("qrcode-billet.png", 
-            new ByteArrayResource(qrImageBytes), 
-            "image/png");
+        byte[] image = generateQRCodeImage(qrCode.getQrData());
         
-        mailSender.send(message);
-        log.info("✅ QR code email sent to: {}", toEmail);
+        log.debug("Built ticket {}/{}: {}", ticketNumber, quantity, uniqueCode);
+        return new BuiltTicket(qrCode, image);
+    }
+    
+    private String generateUniqueCode() {
+        String part1 = UUID.randomUUID().toString().substring(0, 5).toUpperCase();
+        String part2 = UUID.randomUUID().toString().substring(0, 5).toUpperCase();
+        return "EVT-" + part1 + "-" + part2;
+    }
+  
+    private byte[] generateQRCodeImage(String data) {
+        BitMatrix modules = qrRenderer.encode(data, ErrorCorrectionLevel.L, 4);
+        return qrRenderer.png(modules, 250);
     }
     
-    private void sendMultipleQRCodesEmail(String toEmail, String userName, 
-                                        List<QRCode> qrCodes, List<String> qrImagesBase64,
-                                        String confirmationCode, String eventName,
-                                        Integer quantity, Double totalPrice) 
-            throws MessagingException, IOException {
+   
+    private void queueQRCodeEmail(String toEmail, String userName, QRCode qrCode, byte[] image) {
+        emailOutbox.enqueue(OutboundEmail.Kind.TICKET, toEmail,
+                            "🎫 Votre billet électronique - " + qrCode.getEventName(),
+                            buildQRCodeEmailHTML(userName, qrCode),
+                            List.of(qrCode), Map.of(qrCode.getId(), image));
+    }
+    
+    private void queueMultipleQRCodesEmail(String toEmail, String userName, List<QRCode> qrCodes,
+                                           Map<String, byte[]> images, String confirmationCode, String eventName,
+                                           Integer quantity, Double totalPrice) {
+        emailOutbox.enqueue(OutboundEmail.Kind.TICKETS, toEmail,
+                            "🎫 Vos " + quantity + " billets électroniques - " + eventName,
+                            buildMultipleQRCodesEmailHTML(userName, qrCodes, confirmationCode,
+                                                          eventName, quantity, totalPrice),
+                            qrCodes, images);
+    }
+    
+    /**
+     * Builds the message for a queued email from the images stored with it; tickets queued without
+     * one are rendered again from their code. Tickets deleted since the email was queued are left out.
+     */
+    MimeMessage toMimeMessage(OutboundEmail email) throws MessagingException, IOException {
+        List<String> ids = List.of(email.getQrCodeIds().split(","));
+        Map<String, QRCode> byId = new HashMap<>();
+        qrCodeRepository.findAllById(ids).forEach(qrCode -> byId.put(qrCode.getId(), qrCode));
+        if (byId.isEmpty()) {
+            throw new IllegalStateException("Billets supprimés, email annulé");
+        }
+        Map<String, byte[]> images = new HashMap<>();
+        for (OutboundEmailAttachment attachment : emailOutbox.attachments(email)) {
+            images.put(attachment.getQrCodeId(), attachment.getContent());
+        }
         
         MimeMessage message = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
         
         helper.setFrom("noreply@eventplatform.com", "GoEvent");
-        helper.setTo(toEmail);
-        helper.setSubject("🎫 Vos " + quantity + " billets électroniques - " + eventName);
-        
-        String htmlContent = buildMultipleQRCodesEmailHTML(userName, qrCodes, confirmationCode, 
-                                                          eventName, quantity, totalPrice);
-        helper.setText(htmlContent, true);
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getHtmlBody(), true);
         
-        for (int i = 0; i < qrImagesBase64.size(); i++) {
-            byte[] qrImageBytes = Base64.getDecoder().decode(qrImagesBase64.get(i));
-            helper.addAttachment(String.format("qrcode-billet-%d-%03d.png", 
-                    qrCodes.get(i).getBookingId(), i + 1),
-                new ByteArrayResource(qrImageBytes), 
-                "image/png");
+        int index = 0;
+        for (String id : ids) {
+            QRCode qrCode = byId.get(id);
+            index++;
+            if (qrCode == null) {
+                continue;
+            }
+            String filename = email.getKind() == OutboundEmail.Kind.TICKET
+                    ? "qrcode-billet.png"
+                    : String.format("qrcode-billet-%d-%03d.png", qrCode.getBookingId(), index);
+            byte[] image = images.get(id);
+            if (image == null) {
+                image = generateQRCodeImage(qrCode.getQrData());
+            }
+            helper.addAttachment(filename, new ByteArrayResource(image), "image/png");
         }
         
-        mailSender.send(message);
-        log.info("✅ {} QR codes email sent to: {}", quantity, toEmail);
+        return message;
     }
     
    
-    private String buildQRCodeEmailHTML(String userName, QRCode qrCode, String qrImageBase64) {
+    private String buildQRCodeEmailHTML(String userName, QRCode qrCode) {
         return "<!DOCTYPE html>" +
                "<html lang='fr'>" +
                "<head>" +
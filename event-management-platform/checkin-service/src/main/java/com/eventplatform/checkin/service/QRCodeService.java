@@ -6,25 +6,17 @@ import com.eventplatform.checkin.entity.CheckIn;
 import com.eventplatform.checkin.repository.QRCodeRepository;
 import com.eventplatform.checkin.repository.CheckInRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.EncodeHintType;
-import com.google.zxing.WriterException;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
-import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -33,17 +25,24 @@ import java.util.stream.Collectors;
 @Slf4j
 public class QRCodeService {
     
+    private static final int MAX_ADMIN_PAGE_SIZE = 500;
+    
     private final QRCodeRepository qrCodeRepository;
     private final CheckInRepository checkInRepository;
     private final ObjectMapper objectMapper;
     private final CheckInService checkInService;
+    private final GateIndexService gateIndexService;
+    private final ManifestChangeLog manifestChangeLog;
+    private final QRPayloadSigner qrPayloadSigner;
+    private final QRImageService qrImageService;
+    private final TransactionTemplate transactionTemplate;
      
     public List<QRCode> findByBookingId(Long bookingId) {
         return qrCodeRepository.findByBookingId(bookingId);
     }
     
-    @Transactional
-    public Map<String, Object> scanByUniqueCode(String uniqueCode, String scannerId) {
+    public Map<String, Object> scanByUniqueCode(String scanned, String scannerId) {
+        String uniqueCode = qrPayloadSigner.resolveUniqueCode(scanned);
         log.info("🔍 Scanning unique code: {}", uniqueCode);
         
         if (!uniqueCode.startsWith("EVT-")) {
@@ -51,28 +50,20 @@ public class QRCodeService {
             throw new RuntimeException("Format de code invalide. Le code doit commencer par 'EVT-'");
         }
     
-        QRCode qrCode = qrCodeRepository.findByUniqueCode(uniqueCode)
-                .orElseThrow(() -> new RuntimeException("Code non trouvé: " + uniqueCode));
-        
-        if (qrCode.getIsUsed()) {
-            throw new RuntimeException("Code déjà utilisé");
-        }
-        
-        if (LocalDateTime.now().isAfter(qrCode.getExpiresAt())) {
-            throw new RuntimeException("Code expiré");
+        Optional<Map<String, Object>> indexed = gateIndexService.tryScan(uniqueCode, scannerId);
+        if (indexed.isPresent()) {
+            return indexed.get();
         }
         
-        qrCode.setIsUsed(true);
-        qrCode.setUsedAt(LocalDateTime.now());
-        qrCode.setScanCount(qrCode.getScanCount() + 1);
-        qrCodeRepository.save(qrCode);
-        
-        checkInService.createCheckIn(
-            qrCode.getBookingId(),
-            null, null, qrCode.getConfirmationCode(),
-            scannerId,
-            scannerId, qrCode.getQuantity()
-        );
+        QRCode qrCode = transactionTemplate.execute(status -> {
+            QRCode claimed = qrCodeRepository.claimByUniqueCode(uniqueCode)
+                    .orElseThrow(() -> scanRejection(uniqueCode));
+            
+            checkInService.recordScan(claimed, claimed.getEventId(), scannerId, null, null);
+            manifestChangeLog.recordUsed(claimed);
+            return claimed;
+        });
+        gateIndexService.markUsed(uniqueCode);
         
         return Map.of(
             "success", true,
@@ -87,6 +78,16 @@ public class QRCodeService {
         );
     }
    
+    private RuntimeException scanRejection(String uniqueCode) {
+        QRCode qrCode = qrCodeRepository.findByUniqueCode(uniqueCode)
+                .orElseThrow(() -> new RuntimeException("Code non trouvé: " + uniqueCode));
+        
+        if (!qrCode.getIsUsed() && LocalDateTime.now().isAfter(qrCode.getExpiresAt())) {
+            return new RuntimeException("Code expiré");
+        }
+        return new RuntimeException("Code déjà utilisé");
+    }
+   
     public Map<String, Object> getQRCodeInfo(String uniqueCode) {
         try {
             log.info("🔍 Getting QR code info for: {}", uniqueCode);
@@ -208,171 +209,121 @@ public class QRCodeService {
     }
     
     private void createCheckInRecord(QRCode qrCode, String scannerId, int quantity) {
-        try {
-            log.info("📝 Creating check-in for booking {} with {} tickets", 
-                     qrCode.getBookingId(), quantity);
-            
-            checkInService.createCheckIn(
-                qrCode.getBookingId(),
-                null, 
-                null, 
-                scannerId,
-                "QR Code Scanner",
-                "Entrée principale",
-                quantity
-            );
-            
-        } catch (Exception e) {
-            log.error("Error creating check-in record: {}", e.getMessage());
-        }
+        log.info("📝 Creating check-in for booking {} with {} tickets", 
+                 qrCode.getBookingId(), quantity);
+        
+        // A failure here must roll the claim back, otherwise the ticket is used without a check-in
+        checkInService.recordScan(qrCode, qrCode.getEventId(), scannerId,
+                                  "QR Code Scanner", "Entrée principale", quantity);
     }
     
-  @Transactional
-public Map<String, Object> scanBookingConfirmationCode(String confirmationCode, String scannerId, Integer quantityToScan) {
-    log.info("🔍 Scanning booking: {}, quantity: {}", confirmationCode, quantityToScan);
-    
-    try {
-        List<QRCode> qrCodes = qrCodeRepository.findByConfirmationCode(confirmationCode);
-        
-        if (qrCodes.isEmpty()) {
-            throw new RuntimeException("❌ Aucun QR code trouvé pour: " + confirmationCode);
-        }
-        
-        List<QRCode> availableCodes = qrCodes.stream()
-                .filter(qr -> !qr.getIsUsed())
-                .collect(Collectors.toList());
-        
-        if (availableCodes.isEmpty()) {
-            throw new RuntimeException("❌ Tous les billets sont déjà utilisés pour: " + confirmationCode);
-        }
-        
-        int qty = (quantityToScan != null) ? quantityToScan : 1;
-        int toScan = Math.min(qty, availableCodes.size());
-        
-        List<QRCode> scannedCodes = new ArrayList<>();
-        List<String> scannedTicketNumbers = new ArrayList<>();
+    /**
+     * Checks in up to {@code quantityToScan} unused tickets of a booking. Each ticket is taken with
+     * the same conditional claim as a single scan, so two gates scanning the same booking never admit
+     * the same ticket twice.
+     */
+    @Transactional
+    public Map<String, Object> scanBookingConfirmationCode(String confirmationCode, String scannerId, Integer quantityToScan) {
+        log.info("🔍 Scanning booking: {}, quantity: {}", confirmationCode, quantityToScan);
         
-        for (int i = 0; i < toScan; i++) {
-            QRCode qrCode = availableCodes.get(i);
-            qrCode.setIsUsed(true);
-            qrCode.setUsedAt(LocalDateTime.now());
-            qrCode.setScanCount(qrCode.getScanCount() + 1);
+        try {
+            qrPayloadSigner.checkUnsignedAllowed();
+            int qty = (quantityToScan != null) ? quantityToScan : 1;
+            List<String> scannedTicketNumbers = new ArrayList<>();
+            
+            for (int i = 0; i < qty; i++) {
+                Optional<QRCode> claimed = qrCodeRepository.claimNextByConfirmationCode(confirmationCode);
+                if (claimed.isEmpty()) {
+                    break;
+                }
+                QRCode qrCode = claimed.get();
+                gateIndexService.markUsed(qrCode.getUniqueCode());
+                manifestChangeLog.recordUsed(qrCode);
+                createCheckInRecord(qrCode, scannerId, 1);
+                scannedTicketNumbers.add(String.valueOf(qrCode.getTicketNumber()));
+                
+                log.info("✅ Scanned ticket {}/{}: {} (Ticket #{})", 
+                        i + 1, qty, qrCode.getUniqueCode(), qrCode.getTicketNumber());
+            }
             
-            QRCode saved = qrCodeRepository.save(qrCode);
-            scannedCodes.add(saved);
-            scannedTicketNumbers.add(String.valueOf(qrCode.getTicketNumber()));
+            List<QRCode> qrCodes = qrCodeRepository.findByConfirmationCode(confirmationCode);
+            if (qrCodes.isEmpty()) {
+                throw new RuntimeException("❌ Aucun QR code trouvé pour: " + confirmationCode);
+            }
+            if (scannedTicketNumbers.isEmpty()) {
+                boolean expired = qrCodes.stream()
+                        .anyMatch(qr -> !qr.getIsUsed() && LocalDateTime.now().isAfter(qr.getExpiresAt()));
+                throw new RuntimeException(expired
+                        ? "❌ Billets expirés pour: " + confirmationCode
+                        : "❌ Tous les billets sont déjà utilisés pour: " + confirmationCode);
+            }
             
-            log.info("✅ Scanned ticket {}/{}: {} (Ticket #{})", 
-                    i + 1, toScan, qrCode.getUniqueCode(), qrCode.getTicketNumber());
+            int scanned = scannedTicketNumbers.size();
+            long remaining = qrCodes.stream().filter(qr -> !qr.getIsUsed()).count();
+            return Map.of(
+                "success", true,
+                "message", String.format("Scanned %d/%d tickets", scanned, remaining + scanned),
+                "confirmationCode", confirmationCode,
+                "totalTickets", qrCodes.size(),
+                "availableTickets", remaining + scanned,
+                "scannedTickets", scanned,
+                "scannedTicketNumbers", scannedTicketNumbers,
+                "remainingTickets", remaining,
+                "scannerId", scannerId,
+                "timestamp", LocalDateTime.now()
+            );
             
-            createCheckInRecord(qrCode, scannerId, 1);
+        } catch (Exception e) {
+            log.error("Error scanning booking: {}", e.getMessage(), e);
+            throw new RuntimeException("Scan failed: " + e.getMessage());
         }
-        
-        return Map.of(
-            "success", true,
-            "message", String.format("Scanned %d/%d tickets", toScan, availableCodes.size()),
-            "confirmationCode", confirmationCode,
-            "totalTickets", qrCodes.size(),
-            "availableTickets", availableCodes.size(),
-            "scannedTickets", toScan,
-            "scannedTicketNumbers", scannedTicketNumbers,
-            "remainingTickets", availableCodes.size() - toScan,
-            "scannerId", scannerId,
-            "timestamp", LocalDateTime.now()
-        );
-        
-    } catch (Exception e) {
-        log.error("Error scanning booking: {}", e.getMessage(), e);
-        throw new RuntimeException("Scan failed: " + e.getMessage());
     }
-}
     
     @Transactional
-    public QRCode validateAndScanQRCode(String identifier, String scannerId) {
-        log.info("🔍 Scanning with identifier: {}", identifier);
-        
-        QRCode qrCode = null;
+    public QRCode validateAndScanQRCode(String scanned, String scannerId) {
+        log.info("🔍 Scanning with identifier: {}", scanned);
         
         try {
-            if (identifier.startsWith("BK")) {
-                List<QRCode> qrCodes = qrCodeRepository.findByConfirmationCode(identifier);
-                
-                if (!qrCodes.isEmpty()) {
-                    if (qrCodes.size() > 1) {
-                        log.warn("⚠️ Found {} QR codes for confirmation code: {}", qrCodes.size(), identifier);
-                        
-                        qrCode = qrCodes.stream()
-                                .filter(qr -> !qr.getIsUsed())
-                                .findFirst()
-                                .orElse(null);
-                        
-                        if (qrCode == null) {
-                            qrCode = qrCodes.get(0);
-                            log.info("📊 All tickets used, taking first QR code: {}", qrCode.getId());
-                        } else {
-                            log.info("📊 Selected available QR code: {}", qrCode.getId());
-                        }
-                    } else {
-                        qrCode = qrCodes.get(0);
-                    }
-                    
-                    log.info("✅ Found QR code by confirmationCode: {}", identifier);
-                }
+            String identifier = qrPayloadSigner.resolveUniqueCode(scanned);
+            if (identifier.startsWith("EVT-")) {
+                QRCode qrCode = qrCodeRepository.claimByUniqueCode(identifier)
+                        .orElseThrow(() -> scanRejection(identifier));
+                gateIndexService.markUsed(identifier);
+                manifestChangeLog.recordUsed(qrCode);
+                createCheckInRecord(qrCode, scannerId, 1);
+                return qrCode;
             }
             
-            if (qrCode == null && identifier.contains("-") && identifier.length() == 36) {
-                Optional<QRCode> qrCodeOpt = qrCodeRepository.findById(identifier);
-                if (qrCodeOpt.isPresent()) {
-                    qrCode = qrCodeOpt.get();
-                    log.info("✅ Found QR code by UUID: {}", identifier);
-                }
+            Long bookingId = null;
+            try {
+                bookingId = Long.parseLong(identifier);
+            } catch (NumberFormatException e) {
             }
             
-            if (qrCode == null) {
-                try {
-                    Long bookingId = Long.parseLong(identifier);
-                    List<QRCode> qrCodes = qrCodeRepository.findByBookingId(bookingId);
-                    if (!qrCodes.isEmpty()) {
-                        qrCode = qrCodes.get(0);
-                        log.info("✅ Found QR code by bookingId: {}", bookingId);
-                    }
-                } catch (NumberFormatException e) {
-                }
+            Optional<QRCode> claimed = Optional.empty();
+            if (identifier.startsWith("BK")) {
+                claimed = qrCodeRepository.claimNextByConfirmationCode(identifier);
             }
-            
-            if (qrCode == null) {
-                List<String> availableCodes = qrCodeRepository.findAll().stream()
-                        .map(QRCode::getConfirmationCode)
-                        .filter(Objects::nonNull)
-                        .distinct()
-                        .collect(Collectors.toList());
-                
-                throw new RuntimeException(String.format(
-                    "❌ Aucun QR code trouvé pour: %s%n" +
-                    "Codes disponibles: %s",
-                    identifier, availableCodes
-                ));
+            if (claimed.isEmpty() && identifier.contains("-") && identifier.length() == 36) {
+                claimed = qrCodeRepository.claimById(identifier);
             }
-            
-            if (qrCode.getIsUsed()) {
-                throw new RuntimeException("QR code déjà utilisé");
+            if (claimed.isEmpty() && bookingId != null) {
+                claimed = qrCodeRepository.claimNextByBookingId(bookingId);
             }
             
-            if (LocalDateTime.now().isAfter(qrCode.getExpiresAt())) {
-                throw new RuntimeException("QR code expiré");
+            if (claimed.isEmpty()) {
+                throw scanRejection(identifier, bookingId);
             }
             
-            qrCode.setIsUsed(true);
-            qrCode.setUsedAt(LocalDateTime.now());
-            qrCode.setScanCount(qrCode.getScanCount() + 1);
-            
-            QRCode savedQrCode = qrCodeRepository.save(qrCode);
+            QRCode qrCode = claimed.get();
+            gateIndexService.markUsed(qrCode.getUniqueCode());
+            manifestChangeLog.recordUsed(qrCode);
             log.info("✅ QR code scanné: {} pour booking: {}", 
                      qrCode.getConfirmationCode(), qrCode.getBookingId());
             
-            createCheckInRecord(savedQrCode, scannerId, 1);
+            createCheckInRecord(qrCode, scannerId, 1);
             
-            return savedQrCode;
+            return qrCode;
             
         } catch (Exception e) {
             log.error("Error scanning QR code: {}", e.getMessage(), e);
@@ -380,6 +331,39 @@ public Map<String, Object> scanBookingConfirmationCode(String confirmationCode,
         }
     }
     
+    private RuntimeException scanRejection(String identifier, Long bookingId) {
+        QRCode qrCode = null;
+        
+        if (identifier.startsWith("BK")) {
+            List<QRCode> qrCodes = qrCodeRepository.findByConfirmationCode(identifier);
+            qrCode = qrCodes.stream()
+                    .filter(qr -> !qr.getIsUsed())
+                    .findFirst()
+                    .orElse(qrCodes.isEmpty() ? null : qrCodes.get(0));
+        }
+        
+        if (qrCode == null && identifier.contains("-") && identifier.length() == 36) {
+            qrCode = qrCodeRepository.findById(identifier).orElse(null);
+        }
+        
+        if (qrCode == null && bookingId != null) {
+            List<QRCode> qrCodes = qrCodeRepository.findByBookingId(bookingId);
+            qrCode = qrCodes.stream()
+                    .filter(qr -> !qr.getIsUsed())
+                    .findFirst()
+                    .orElse(qrCodes.isEmpty() ? null : qrCodes.get(0));
+        }
+        
+        if (qrCode == null) {
+            return new RuntimeException("❌ Aucun QR code trouvé pour: " + identifier);
+        }
+        
+        if (!qrCode.getIsUsed() && LocalDateTime.now().isAfter(qrCode.getExpiresAt())) {
+            return new RuntimeException("QR code expiré");
+        }
+        return new RuntimeException("QR code déjà utilisé");
+    }
+    
     public Map<String, Object> getBookingStats(String confirmationCode) {
         try {
             List<QRCode> allCodes = qrCodeRepository.findByConfirmationCode(confirmationCode);
@@ -414,37 +398,23 @@ public Map<String, Object> scanBookingConfirmationCode(String confirmationCode,
         }
     }
     
-    public String generateQRCodeImage(String qrData) {
-        try {
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            Map<EncodeHintType, Object> hints = new HashMap<>();
-            hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
-            hints.put(EncodeHintType.MARGIN, 1);
-            
-            BitMatrix bitMatrix = qrCodeWriter.encode(
-                qrData, 
-                BarcodeFormat.QR_CODE, 
-                250, 250, hints
-            );
-            
-            BufferedImage qrImage = new BufferedImage(
-                250, 250, BufferedImage.TYPE_INT_RGB
-            );
-            
-            for (int x = 0; x < 250; x++) {
-                for (int y = 0; y < 250; y++) {
-                    qrImage.setRGB(x, y, bitMatrix.get(x, y) ? 0x000000 : 0xFFFFFF);
-                }
-            }
-            
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ImageIO.write(qrImage, "PNG", baos);
-            
-            return Base64.getEncoder().encodeToString(baos.toByteArray());
-        } catch (WriterException | IOException e) {
-            log.error("Error generating QR code image: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to generate QR code image");
-        }
+    /**
+     * What a ticket's QR image encodes: the signed payload when the code has one, the legacy JSON
+     * otherwise.
+     */
+    public String qrContent(QRCode qrCode) {
+        return qrCode.getQrData() != null ? qrCode.getQrData() : qrCode.getData();
+    }
+    
+    /**
+     * Rendered PNG of the ticket, served from the image cache after the first request.
+     */
+    public QRImageService.CachedImage qrImage(QRCode qrCode) {
+        return qrImage(qrCode, QRImageService.Format.PNG);
+    }
+    
+    public QRImageService.CachedImage qrImage(QRCode qrCode, QRImageService.Format format) {
+        return qrImageService.image(qrCode, qrContent(qrCode), format);
     }
     
     @Transactional
@@ -546,36 +516,34 @@ public Map<String, Object> scanBookingConfirmationCode(String confirmationCode,
     
  
     @Transactional
-    public Map<String, Object> markAsScannedByAdmin(String uniqueCode, String scannerId) {
+    public Map<String, Object> markAsScannedByAdmin(String scanned, String scannerId) {
         try {
+            String uniqueCode = QRPayloadSigner.isSignedPayload(scanned)
+                    ? qrPayloadSigner.verify(scanned)
+                        .orElseThrow(() -> new RuntimeException("QR code invalide ou falsifié"))
+                        .uniqueCode()
+                    : scanned;
             log.info("🔍 Admin marking as scanned: {}", uniqueCode);
             
-            QRCode qrCode = qrCodeRepository.findByUniqueCode(uniqueCode)
-                .orElseThrow(() -> new RuntimeException("Code non trouvé"));
+            Optional<QRCode> claimed = qrCodeRepository.claimByUniqueCodeIgnoringExpiry(uniqueCode);
             
-            if (qrCode.getIsUsed()) {
+            if (claimed.isEmpty()) {
+                QRCode existing = qrCodeRepository.findByUniqueCode(uniqueCode)
+                    .orElseThrow(() -> new RuntimeException("Code non trouvé"));
+                
                 return Map.of(
                     "success", false,
                     "message", "Code déjà scanné",
                     "alreadyUsed", true,
-                    "originalScanTime", qrCode.getUsedAt()
+                    "originalScanTime", existing.getUsedAt()
                 );
             }
             
-            qrCode.setIsUsed(true);
-            qrCode.setUsedAt(LocalDateTime.now());
-            qrCode.setScanCount(qrCode.getScanCount() + 1);
+            QRCode qrCode = claimed.get();
+            gateIndexService.markUsed(uniqueCode);
+            manifestChangeLog.recordUsed(qrCode);
             
-            QRCode saved = qrCodeRepository.save(qrCode);
-            
-            checkInService.createCheckIn(
-                qrCode.getBookingId(),
-                qrCode.getConfirmationCode(),
-                scannerId,
-                "ADMIN_SCANNER",
-                "Admin Override",
-                qrCode.getQuantity()
-            );
+            checkInService.recordScan(qrCode, qrCode.getEventId(), scannerId, "ADMIN_SCANNER", "Admin Override");
             
             return Map.of(
                 "success", true,
@@ -594,53 +562,39 @@ public Map<String, Object> scanBookingConfirmationCode(String confirmationCode,
         }
     }
  
-    public List<Map<String, Object>> getAdminCheckins(String scannerId, LocalDate date) {
-        List<CheckIn> allCheckins = checkInRepository.findAll(Sort.by(Sort.Direction.DESC, "checkedInAt"));
-        
-        List<CheckIn> filteredCheckins = allCheckins.stream()
-            .filter(checkin -> {
-                if (scannerId != null && !scannerId.isEmpty() && 
-                    !checkin.getScannerId().equals(scannerId)) {
-                    return false;
-                }
-                
-                if (date != null && checkin.getCheckedInAt() != null) {
-                    LocalDateTime checkinDate = checkin.getCheckedInAt();
-                    LocalDateTime startOfDay = date.atStartOfDay();
-                    LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
-                    
-                    return !checkinDate.isBefore(startOfDay) && 
-                           !checkinDate.isAfter(endOfDay);
-                }
-                
-                return true;
-            })
-            .collect(Collectors.toList());
+    /**
+     * One page of check-ins, newest first. {@code date} is a shortcut for a single-day range and
+     * takes precedence over {@code from}/{@code to}.
+     */
+    public Page<Map<String, Object>> getAdminCheckins(String scannerId, Long eventId, LocalDate date,
+                                                      LocalDateTime from, LocalDateTime to,
+                                                      int page, int size) {
+        if (date != null) {
+            from = date.atStartOfDay();
+            to = date.plusDays(1).atStartOfDay();
+        }
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_ADMIN_PAGE_SIZE));
         
-        return filteredCheckins.stream().map(checkin -> {
-            Map<String, Object> checkinMap = new HashMap<>();
-            checkinMap.put("id", checkin.getId());
-            checkinMap.put("bookingId", checkin.getBookingId());
-            checkinMap.put("confirmationCode", checkin.getConfirmationCode());
-            checkinMap.put("scannerId", checkin.getScannerId());
-            checkinMap.put("scannerType", checkin.getScannerType());
-            checkinMap.put("checkedInAt", checkin.getCheckedInAt());
-            checkinMap.put("quantity", checkin.getQuantity());
-            checkinMap.put("location", checkin.getLocation());
-            
-            try {
-                List<QRCode> qrCodes = qrCodeRepository.findByConfirmationCode(checkin.getConfirmationCode());
-                if (!qrCodes.isEmpty()) {
-                    QRCode qrCode = qrCodes.get(0);
-                    checkinMap.put("userName", qrCode.getUserName());
-                    checkinMap.put("eventName", qrCode.getEventName());
+        return checkInRepository.findAdminPage(
+                scannerId != null && !scannerId.isEmpty() ? scannerId : null,
+                eventId, from, to, pageable)
+            .map(checkin -> {
+                Map<String, Object> checkinMap = new HashMap<>();
+                checkinMap.put("id", checkin.getId());
+                checkinMap.put("bookingId", checkin.getBookingId());
+                checkinMap.put("confirmationCode", checkin.getConfirmationCode());
+                checkinMap.put("eventId", checkin.getEventId());
+                checkinMap.put("scannerId", checkin.getScannerId());
+                checkinMap.put("scannerType", checkin.getScannerType());
+                checkinMap.put("checkedInAt", checkin.getCheckedInAt());
+                checkinMap.put("quantity", checkin.getQuantity());
+                checkinMap.put("location", checkin.getLocation());
+                if (checkin.getUserName() != null || checkin.getEventName() != null) {
+                    checkinMap.put("userName", checkin.getUserName());
+                    checkinMap.put("eventName", checkin.getEventName());
                 }
-            } catch (Exception e) {
-                log.warn("Could not fetch user info for checkin: {}", checkin.getId());
-            }
-            
-            return checkinMap;
-        }).collect(Collectors.toList());
+                return checkinMap;
+            });
     }
  
     public Map<String, Object> checkTicketStatus(String identifier) {
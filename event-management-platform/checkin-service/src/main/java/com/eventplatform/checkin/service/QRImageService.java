@@ -0,0 +1,162 @@
+package com.eventplatform.checkin.service;
+
+import com.eventplatform.checkin.entity.QRCode;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Renders ticket QR codes as PNG or SVG and keeps the bytes in a bounded LRU keyed by QR id and content
+ * hash, since a ticket's content never changes once issued. The hash also serves as a strong ETag.
+ * When a disk directory is configured, rendered images are written there too and survive both
+ * eviction and restarts.
+ */
+@Service
+@Slf4j
+public class QRImageService {
+
+    public static final int SIZE = 250;
+
+    // Part of the cache key and ETag, bump when the rendered output changes
+    private static final String RENDER_VERSION = "2|";
+
+    private final QRRenderer qrRenderer;
+    private final Map<String, CachedImage> cache;
+    private final Path diskDir;
+    private final Counter hits;
+    private final Counter diskHits;
+    private final Counter misses;
+
+    public QRImageService(QRRenderer qrRenderer,
+                          @Value("${checkin.qr-image-cache.max-entries:10000}") int maxEntries,
+                          @Value("${checkin.qr-image-cache.disk-dir:}") String diskDir,
+                          MeterRegistry meterRegistry) {
+        this.qrRenderer = qrRenderer;
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedImage> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.diskDir = diskDir.isBlank() ? null : Path.of(diskDir);
+        if (this.diskDir != null) {
+            try {
+                Files.createDirectories(this.diskDir);
+            } catch (IOException e) {
+                throw new IllegalStateException("Répertoire de cache QR inaccessible: " + diskDir, e);
+            }
+        }
+        this.hits = meterRegistry.counter("checkin.qr.image.cache", "result", "hit");
+        this.diskHits = meterRegistry.counter("checkin.qr.image.cache", "result", "disk");
+        this.misses = meterRegistry.counter("checkin.qr.image.cache", "result", "miss");
+    }
+
+    /**
+     * Image of the code's QR content with its ETag, rendered at most once per content and format
+     * while cached.
+     */
+    public CachedImage image(QRCode qrCode, String content, Format format) {
+        String hash = hash(RENDER_VERSION + content);
+        String key = qrCode.getId() + "-" + hash + format.extension;
+
+        CachedImage cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        byte[] bytes = readFromDisk(key);
+        if (bytes != null) {
+            diskHits.increment();
+        } else {
+            misses.increment();
+            bytes = format == Format.SVG ? renderSvg(content) : render(content);
+            writeToDisk(key, bytes);
+        }
+
+        cached = new CachedImage(bytes, "\"" + hash + (format == Format.SVG ? "-svg" : "") + "\"");
+        synchronized (cache) {
+            cache.put(key, cached);
+        }
+        return cached;
+    }
+
+    public byte[] render(String content) {
+        return qrRenderer.png(qrRenderer.encode(content, ErrorCorrectionLevel.H, 1), SIZE);
+    }
+
+    public byte[] renderSvg(String content) {
+        return qrRenderer.svg(qrRenderer.encode(content, ErrorCorrectionLevel.H, 1), SIZE);
+    }
+
+    private byte[] readFromDisk(String key) {
+        if (diskDir == null) {
+            return null;
+        }
+        Path file = diskDir.resolve(key);
+        try {
+            return Files.exists(file) ? Files.readAllBytes(file) : null;
+        } catch (IOException e) {
+            log.warn("⚠️ Failed to read cached QR image {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, byte[] bytes) {
+        if (diskDir == null) {
+            return;
+        }
+        Path file = diskDir.resolve(key);
+        try {
+            Path tmp = Files.createTempFile(diskDir, key, ".tmp");
+            Files.write(tmp, bytes);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("⚠️ Failed to write cached QR image {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String hash(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public enum Format {
+        PNG(".png"),
+        SVG(".svg");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    public record CachedImage(byte[] bytes, String etag) {
+
+        public String base64() {
+            return Base64.getEncoder().encodeToString(bytes);
+        }
+    }
+}
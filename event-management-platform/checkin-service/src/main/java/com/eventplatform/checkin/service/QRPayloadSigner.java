@@ -0,0 +1,195 @@
+package com.eventplatform.checkin.service;
+
+import com.eventplatform.checkin.entity.QRCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Signs and verifies the payload printed in ticket QR codes:
+ * {@code EVT1.<keyId>.<body>.<mac>}, where the body is the base64url of
+ * {@code uniqueCode|bookingId|eventId|expiresAtEpochSeconds} and the mac is the first 16 bytes of
+ * HMAC-SHA256 over {@code EVT1.<keyId>.<body>}. New payloads use the active key; any configured key
+ * still verifies, so keys rotate by adding a new id, switching the active one and dropping the old
+ * id once its tickets have expired. Scanners are provisioned with the same key set out of band.
+ * <p>
+ * With {@code require-signed} the scan paths refuse anything that is not a signed payload (plain
+ * unique codes, booking ids, confirmation codes). Running with the built-in development key is
+ * refused in that mode and reported loudly otherwise, since anyone can read that key here.
+ */
+@Service
+@Slf4j
+public class QRPayloadSigner {
+
+    public static final String PREFIX = "EVT1.";
+
+    static final String DEFAULT_SECRET = "change-me-qr-signing-key";
+
+    private static final int MAC_BYTES = 16;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Map<String, SecretKeySpec> keys = new HashMap<>();
+    private final String activeKeyId;
+    private final boolean requireSigned;
+    private final ThreadLocal<Map<String, Mac>> macs = ThreadLocal.withInitial(HashMap::new);
+
+    public QRPayloadSigner(@Value("${checkin.qr-signing.keys:k1:" + DEFAULT_SECRET + "}") String keys,
+                           @Value("${checkin.qr-signing.active-key-id:k1}") String activeKeyId,
+                           @Value("${checkin.qr-signing.require-signed:false}") boolean requireSigned) {
+        boolean defaultSecret = false;
+        for (String entry : keys.split(",")) {
+            int separator = entry.indexOf(':');
+            if (separator <= 0 || separator == entry.length() - 1) {
+                throw new IllegalStateException("Clé de signature QR mal formée, format attendu id:secret");
+            }
+            String id = entry.substring(0, separator).trim();
+            String secret = entry.substring(separator + 1).trim();
+            defaultSecret |= DEFAULT_SECRET.equals(secret);
+            this.keys.put(id, new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        }
+        if (!this.keys.containsKey(activeKeyId)) {
+            throw new IllegalStateException("Clé de signature QR active inconnue: " + activeKeyId);
+        }
+        if (defaultSecret) {
+            if (requireSigned) {
+                throw new IllegalStateException(
+                    "checkin.qr-signing.require-signed est activé avec la clé de développement publique; configurez QR_SIGNING_KEYS");
+            }
+            log.error("🚨 QR payloads are signed with the public development key '{}': anyone can forge tickets. " +
+                      "Set QR_SIGNING_KEYS before going to production.", DEFAULT_SECRET);
+        }
+        this.activeKeyId = activeKeyId;
+        this.requireSigned = requireSigned;
+        log.info("🔑 QR payload signing with key {} ({} keys accepted)", activeKeyId, this.keys.size());
+    }
+
+    public static boolean isSignedPayload(String value) {
+        return value != null && value.startsWith(PREFIX);
+    }
+
+    public String sign(QRCode qrCode) {
+        String body = ENCODER.encodeToString((qrCode.getUniqueCode() + "|" + qrCode.getBookingId() + "|" +
+                (qrCode.getEventId() != null ? qrCode.getEventId() : "") + "|" +
+                qrCode.getExpiresAt().atZone(ZoneId.systemDefault()).toEpochSecond()).getBytes(StandardCharsets.UTF_8));
+        String signed = PREFIX + activeKeyId + "." + body;
+        return signed + "." + ENCODER.encodeToString(mac(activeKeyId, signed));
+    }
+
+    /**
+     * Returns the payload when it is well formed and carries a valid signature from a known key.
+     * Expiry is reported, not enforced, so callers can choose the message.
+     */
+    public Optional<Payload> verify(String token) {
+        if (!isSignedPayload(token)) {
+            return Optional.empty();
+        }
+        int macStart = token.lastIndexOf('.');
+        int keyEnd = token.indexOf('.', PREFIX.length());
+        if (keyEnd < 0 || macStart <= keyEnd) {
+            return Optional.empty();
+        }
+        String keyId = token.substring(PREFIX.length(), keyEnd);
+        if (!keys.containsKey(keyId)) {
+            return Optional.empty();
+        }
+
+        try {
+            byte[] expected = mac(keyId, token.substring(0, macStart));
+            if (!MessageDigest.isEqual(expected, DECODER.decode(token.substring(macStart + 1)))) {
+                return Optional.empty();
+            }
+            String[] fields = new String(DECODER.decode(token.substring(keyEnd + 1, macStart)), StandardCharsets.UTF_8)
+                    .split("\\|", -1);
+            if (fields.length != 4) {
+                return Optional.empty();
+            }
+            LocalDateTime expiresAt = LocalDateTime.ofInstant(Instant.ofEpochSecond(Long.parseLong(fields[3])),
+                                                              ZoneId.systemDefault());
+            return Optional.of(new Payload(
+                fields[0],
+                Long.parseLong(fields[1]),
+                fields[2].isEmpty() ? null : Long.parseLong(fields[2]),
+                expiresAt,
+                keyId
+            ));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Resolves what a scanner read into a unique code: signed payloads are verified and unwrapped,
+     * anything else is returned unchanged for the regular lookup, unless unsigned codes are refused.
+     */
+    public String resolveUniqueCode(String scanned) {
+        if (!isSignedPayload(scanned)) {
+            return resolveUnsigned(scanned);
+        }
+        Payload payload = verify(scanned)
+                .orElseThrow(() -> new RuntimeException("QR code invalide ou falsifié"));
+        if (LocalDateTime.now().isAfter(payload.expiresAt())) {
+            throw new RuntimeException("Code expiré");
+        }
+        return payload.uniqueCode();
+    }
+
+    /**
+     * Same as {@link #resolveUniqueCode} for scans made earlier, e.g. offline: expiry is left to the
+     * caller, who judges it against the scan time rather than now.
+     */
+    public String resolveScannedCode(String scanned) {
+        if (!isSignedPayload(scanned)) {
+            return resolveUnsigned(scanned);
+        }
+        return verify(scanned)
+                .map(Payload::uniqueCode)
+                .orElseThrow(() -> new RuntimeException("QR code invalide ou falsifié"));
+    }
+
+    /**
+     * For scan paths that only take unsigned identifiers (booking confirmation codes): refuses them
+     * when {@code require-signed} is on.
+     */
+    public void checkUnsignedAllowed() {
+        if (requireSigned) {
+            throw new RuntimeException("QR code non signé refusé");
+        }
+    }
+
+    private String resolveUnsigned(String scanned) {
+        checkUnsignedAllowed();
+        return scanned;
+    }
+
+    private byte[] mac(String keyId, String data) {
+        try {
+            Mac mac = macs.get().get(keyId);
+            if (mac == null) {
+                mac = Mac.getInstance("HmacSHA256");
+                mac.init(keys.get(keyId));
+                macs.get().put(keyId, mac);
+            }
+            return Arrays.copyOf(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)), MAC_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Signature QR impossible", e);
+        }
+    }
+
+    public record Payload(String uniqueCode, Long bookingId, Long eventId, LocalDateTime expiresAt, String keyId) {
+    }
+}
@@ -0,0 +1,210 @@
+package com.eventplatform.checkin.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Rasterizes QR codes without going through {@code BufferedImage} and {@code ImageIO}: the module
+ * matrix is scaled straight into the scanlines of a 1-bit grayscale PNG, using per-thread scratch
+ * buffers so that the returned array is the only allocation that grows with the image. SVG output
+ * draws one path of horizontal runs in module units and scales it with the viewBox.
+ */
+@Component
+public class QRRenderer {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] IHDR = {'I', 'H', 'D', 'R'};
+    private static final byte[] IDAT = {'I', 'D', 'A', 'T'};
+    private static final byte[] IEND = {'I', 'E', 'N', 'D'};
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Encodes the content at one pixel per module, quiet zone included.
+     */
+    public BitMatrix encode(String content, ErrorCorrectionLevel errorCorrection, int margin) {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.ERROR_CORRECTION, errorCorrection);
+        hints.put(EncodeHintType.MARGIN, margin);
+        try {
+            return new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, 0, 0, hints);
+        } catch (WriterException e) {
+            throw new RuntimeException("Failed to encode QR code: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * PNG of the modules scaled to {@code size} pixels, centred the same way ZXing scales its
+     * matrices: the largest whole number of pixels per module, remaining pixels split as padding.
+     */
+    public byte[] png(BitMatrix modules, int size) {
+        int inputSize = modules.getWidth();
+        int outputSize = Math.max(size, inputSize);
+        int scale = outputSize / inputSize;
+        int padding = (outputSize - inputSize * scale) / 2;
+        int stride = 1 + (outputSize + 7) / 8;
+
+        Scratch buffers = scratch.get();
+        byte[] raw = buffers.raw(stride * outputSize);
+        byte[] row = buffers.row(stride);
+
+        int rowOffset = 0;
+        for (int y = 0; y < outputSize; y++) {
+            int moduleY = (y - padding) / scale;
+            if (y >= padding && moduleY < inputSize && (y - padding) % scale != 0) {
+                // Same module row as the previous scanline
+                System.arraycopy(row, 0, raw, rowOffset, stride);
+            } else {
+                Arrays.fill(row, (byte) 0xFF);
+                row[0] = 0;
+                if (y >= padding && moduleY < inputSize) {
+                    for (int moduleX = 0; moduleX < inputSize; moduleX++) {
+                        if (modules.get(moduleX, moduleY)) {
+                            int x = padding + moduleX * scale;
+                            for (int end = x + scale; x < end; x++) {
+                                row[1 + (x >> 3)] &= (byte) ~(0x80 >>> (x & 7));
+                            }
+                        }
+                    }
+                }
+                System.arraycopy(row, 0, raw, rowOffset, stride);
+            }
+            rowOffset += stride;
+        }
+
+        Deflater deflater = buffers.deflater;
+        deflater.reset();
+        deflater.setInput(raw, 0, rowOffset);
+        deflater.finish();
+
+        // Signature, IHDR chunk and the IDAT header go first; IDAT data is deflated in place after them
+        int idatData = PNG_SIGNATURE.length + 25 + 8;
+        byte[] out = buffers.out(idatData + rowOffset / 4 + 64);
+        int length = idatData;
+        while (!deflater.finished()) {
+            if (length == out.length) {
+                out = buffers.grow();
+            }
+            length += deflater.deflate(out, length, out.length - length);
+        }
+        int idatLength = length - idatData;
+        if (length + 16 > out.length) {
+            out = buffers.grow();
+        }
+
+        int pos = 0;
+        System.arraycopy(PNG_SIGNATURE, 0, out, pos, PNG_SIGNATURE.length);
+        pos += PNG_SIGNATURE.length;
+
+        pos = writeInt(out, pos, 13);
+        int ihdrStart = pos;
+        System.arraycopy(IHDR, 0, out, pos, 4);
+        pos = writeInt(out, pos + 4, outputSize);
+        pos = writeInt(out, pos, outputSize);
+        out[pos++] = 1; // bit depth
+        out[pos++] = 0; // grayscale
+        out[pos++] = 0; // deflate
+        out[pos++] = 0; // adaptive filtering, every row uses filter None
+        out[pos++] = 0; // no interlace
+        pos = writeInt(out, pos, crc(buffers.crc, out, ihdrStart, pos - ihdrStart));
+
+        pos = writeInt(out, pos, idatLength);
+        System.arraycopy(IDAT, 0, out, pos, 4);
+        pos = writeInt(out, length, crc(buffers.crc, out, pos, 4 + idatLength));
+
+        pos = writeInt(out, pos, 0);
+        System.arraycopy(IEND, 0, out, pos, 4);
+        pos = writeInt(out, pos + 4, crc(buffers.crc, out, pos, 4));
+
+        return Arrays.copyOf(out, pos);
+    }
+
+    public byte[] svg(BitMatrix modules, int size) {
+        int n = modules.getWidth();
+        StringBuilder svg = new StringBuilder(256 + n * n);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(size)
+           .append("\" height=\"").append(size)
+           .append("\" viewBox=\"0 0 ").append(n).append(' ').append(n)
+           .append("\" shape-rendering=\"crispEdges\"><rect width=\"").append(n)
+           .append("\" height=\"").append(n).append("\" fill=\"#fff\"/><path fill=\"#000\" d=\"");
+
+        for (int y = 0; y < n; y++) {
+            int x = 0;
+            while (x < n) {
+                if (!modules.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < n && modules.get(x, y)) {
+                    x++;
+                }
+                svg.append('M').append(start).append(' ').append(y)
+                   .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+
+        svg.append("\"/></svg>");
+        return svg.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int writeInt(byte[] out, int pos, int value) {
+        out[pos] = (byte) (value >>> 24);
+        out[pos + 1] = (byte) (value >>> 16);
+        out[pos + 2] = (byte) (value >>> 8);
+        out[pos + 3] = (byte) value;
+        return pos + 4;
+    }
+
+    private static int crc(CRC32 crc, byte[] data, int offset, int length) {
+        crc.reset();
+        crc.update(data, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static final class Scratch {
+        private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        private final CRC32 crc = new CRC32();
+        private byte[] raw = new byte[0];
+        private byte[] row = new byte[0];
+        private byte[] out = new byte[0];
+
+        byte[] raw(int length) {
+            if (raw.length < length) {
+                raw = new byte[length];
+            }
+            return raw;
+        }
+
+        byte[] row(int length) {
+            if (row.length != length) {
+                row = new byte[length];
+            }
+            return row;
+        }
+
+        byte[] out(int length) {
+            if (out.length < length) {
+                out = new byte[length];
+            }
+            return out;
+        }
+
+        byte[] grow() {
+            out = Arrays.copyOf(out, out.length * 2);
+            return out;
+        }
+    }
+}
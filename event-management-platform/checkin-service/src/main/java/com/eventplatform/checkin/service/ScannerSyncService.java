@@ -0,0 +1,308 @@
+package com.eventplatform.checkin.service;
+
+import com.eventplatform.checkin.dto.OfflineScanBatchDTO;
+import com.eventplatform.checkin.entity.CheckIn;
+import com.eventplatform.checkin.entity.ManifestChange;
+import com.eventplatform.checkin.entity.QRCode;
+import com.eventplatform.checkin.repository.CheckInRepository;
+import com.eventplatform.checkin.repository.ManifestChangeRepository;
+import com.eventplatform.checkin.repository.QRCodeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Offline sync protocol for gate scanners. A scanner downloads a signed manifest of an event
+ * (a Bloom filter of the codes valid at a given version), then keeps it current with signed deltas
+ * read from the change log, and uploads the scans it made while offline in batches. Versions follow
+ * commit order (see {@link ManifestChangeLog}), so a change is never served after one that
+ * committed later.
+ */
+@Service
+@Slf4j
+public class ScannerSyncService {
+
+    private final QRCodeRepository qrCodeRepository;
+    private final CheckInRepository checkInRepository;
+    private final ManifestChangeRepository manifestChangeRepository;
+    private final ManifestChangeLog manifestChangeLog;
+    private final GateIndexService gateIndexService;
+    private final QRPayloadSigner qrPayloadSigner;
+    private final SecretKeySpec signingKey;
+    private final double falsePositiveRate;
+    private final int deltaPageSize;
+    private final int maxBatchSize;
+
+    private final Map<Long, Manifest> manifests = new ConcurrentHashMap<>();
+
+    public ScannerSyncService(QRCodeRepository qrCodeRepository,
+                              CheckInRepository checkInRepository,
+                              ManifestChangeRepository manifestChangeRepository,
+                              ManifestChangeLog manifestChangeLog,
+                              GateIndexService gateIndexService,
+                              QRPayloadSigner qrPayloadSigner,
+                              @Value("${checkin.scanner-sync.signing-key:change-me-scanner-sync-key}") String signingKey,
+                              @Value("${checkin.scanner-sync.false-positive-rate:0.001}") double falsePositiveRate,
+                              @Value("${checkin.scanner-sync.delta-page-size:5000}") int deltaPageSize,
+                              @Value("${checkin.scanner-sync.max-batch-size:1000}") int maxBatchSize) {
+        this.qrCodeRepository = qrCodeRepository;
+        this.checkInRepository = checkInRepository;
+        this.manifestChangeRepository = manifestChangeRepository;
+        this.manifestChangeLog = manifestChangeLog;
+        this.gateIndexService = gateIndexService;
+        this.qrPayloadSigner = qrPayloadSigner;
+        this.signingKey = new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.falsePositiveRate = falsePositiveRate;
+        this.deltaPageSize = deltaPageSize;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Full manifest of an event. The filter is built once per version and shared by every gate;
+     * only the signature, which binds the gate id, is computed per request.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getManifest(Long eventId, String gateId) {
+        manifestChangeLog.assignVersions();
+        long version = manifestChangeRepository.findLatestVersion(eventId);
+        Manifest manifest = manifests.get(eventId);
+
+        if (manifest == null || manifest.version() != version) {
+            List<String> codes = qrCodeRepository.findValidUniqueCodesByEventId(eventId);
+            BloomFilter filter = new BloomFilter(codes.size(), falsePositiveRate);
+            codes.forEach(filter::add);
+            manifest = new Manifest(version, codes.size(), filter, LocalDateTime.now());
+            manifests.put(eventId, manifest);
+            log.info("📦 Built scanner manifest for event {} at version {}: {} codes, {} bytes",
+                     eventId, version, codes.size(), filter.bits().length);
+        }
+
+        String bits = Base64.getEncoder().encodeToString(manifest.filter().bits());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("eventId", eventId);
+        response.put("gateId", gateId);
+        response.put("version", manifest.version());
+        response.put("codes", manifest.codes());
+        response.put("hashScheme", BloomFilter.HASH_SCHEME);
+        response.put("numBits", manifest.filter().numBits());
+        response.put("numHashes", manifest.filter().numHashes());
+        response.put("bits", bits);
+        response.put("generatedAt", manifest.generatedAt().toString());
+        response.put("signature", sign("manifest", eventId, gateId, manifest.version(),
+                                       manifest.filter().numBits(), manifest.filter().numHashes(), bits));
+        return response;
+    }
+
+    /**
+     * Changes after {@code since}, oldest first. A scanner applies them in order: ADDED makes a code
+     * valid, USED and REVOKED make it invalid.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getDelta(Long eventId, String gateId, long since) {
+        manifestChangeLog.assignVersions();
+        List<ManifestChange> changes = manifestChangeRepository
+                .findByEventIdAndVersionGreaterThanOrderByVersionAsc(eventId, since, Limit.of(deltaPageSize + 1));
+
+        boolean hasMore = changes.size() > deltaPageSize;
+        if (hasMore) {
+            changes = changes.subList(0, deltaPageSize);
+        }
+        long toVersion = changes.isEmpty() ? since : changes.get(changes.size() - 1).getVersion();
+
+        List<String> entries = changes.stream()
+                .map(change -> change.getChangeType().name().charAt(0) + ":" + change.getUniqueCode())
+                .toList();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("eventId", eventId);
+        response.put("gateId", gateId);
+        response.put("fromVersion", since);
+        response.put("toVersion", toVersion);
+        response.put("changes", entries);
+        response.put("hasMore", hasMore);
+        response.put("signature", sign("delta", eventId, gateId, since, toVersion, String.join(",", entries)));
+        return response;
+    }
+
+    /**
+     * Merges scans recorded offline. Uploads are idempotent: within the batch and against the
+     * database, the earliest scan of a code wins and every other scan of it is reported as a
+     * duplicate, so re-sending a batch after a lost response changes nothing. Scanners may upload
+     * the signed payload they read; it is verified and unwrapped to its unique code first. A ticket
+     * scanned offline before the pass already recorded for it got in twice and is reported as a
+     * double entry.
+     */
+    @Transactional
+    public Map<String, Object> mergeOfflineScans(Long eventId, OfflineScanBatchDTO batch) {
+        List<OfflineScanBatchDTO.Scan> scans = batch.getScans() != null ? batch.getScans() : List.of();
+        if (scans.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Lot trop volumineux: " + scans.size() + " scans (max " + maxBatchSize + ")");
+        }
+
+        LocalDateTime latestAccepted = LocalDateTime.now().plusMinutes(5);
+        Map<OfflineScanBatchDTO.Scan, String> codes = new IdentityHashMap<>();
+        Map<OfflineScanBatchDTO.Scan, String> invalid = new IdentityHashMap<>();
+        Map<String, OfflineScanBatchDTO.Scan> earliest = new LinkedHashMap<>();
+        for (OfflineScanBatchDTO.Scan scan : scans) {
+            if (scan.getUniqueCode() == null || scan.getScannedAt() == null || scan.getScannedAt().isAfter(latestAccepted)) {
+                continue;
+            }
+            String code;
+            try {
+                code = qrPayloadSigner.resolveScannedCode(scan.getUniqueCode());
+            } catch (RuntimeException e) {
+                invalid.put(scan, e.getMessage());
+                continue;
+            }
+            codes.put(scan, code);
+            earliest.merge(code, scan, (a, b) -> b.getScannedAt().isBefore(a.getScannedAt()) ? b : a);
+        }
+
+        Map<String, QRCode> qrCodes = earliest.isEmpty() ? Map.of()
+                : qrCodeRepository.findByUniqueCodeInForUpdate(earliest.keySet()).stream()
+                        .collect(Collectors.toMap(QRCode::getUniqueCode, Function.identity(), (a, b) -> a));
+
+        Map<String, Map<String, Object>> winners = new HashMap<>();
+        List<CheckIn> checkIns = new ArrayList<>();
+        for (Map.Entry<String, OfflineScanBatchDTO.Scan> entry : earliest.entrySet()) {
+            winners.put(entry.getKey(), mergeScan(eventId, batch, entry.getValue(), qrCodes.get(entry.getKey()), checkIns));
+        }
+        checkInRepository.saveAll(checkIns);
+
+        List<Map<String, Object>> results = new ArrayList<>(scans.size());
+        int accepted = 0;
+        int duplicates = 0;
+        int doubleEntries = 0;
+        int rejected = 0;
+        for (OfflineScanBatchDTO.Scan scan : scans) {
+            Map<String, Object> result;
+            if (scan.getUniqueCode() == null || scan.getScannedAt() == null) {
+                result = result(scan, "REJECTED", "Code ou horodatage manquant");
+            } else if (scan.getScannedAt().isAfter(latestAccepted)) {
+                result = result(scan, "REJECTED", "Horodatage dans le futur");
+            } else if (invalid.containsKey(scan)) {
+                result = result(scan, "REJECTED", invalid.get(scan));
+            } else if (earliest.get(codes.get(scan)) != scan) {
+                result = result(scan, "DUPLICATE", "Scan plus ancien présent dans le lot");
+            } else {
+                result = winners.get(codes.get(scan));
+            }
+
+            switch ((String) result.get("status")) {
+                case "ACCEPTED", "ALREADY_RECORDED" -> accepted++;
+                case "DUPLICATE" -> duplicates++;
+                case "DOUBLE_ENTRY" -> doubleEntries++;
+                default -> rejected++;
+            }
+            results.add(result);
+        }
+
+        log.info("📥 Merged {} offline scans from gate {} for event {}: {} accepted, {} duplicates, {} double entries, {} rejected",
+                 scans.size(), batch.getGateId(), eventId, accepted, duplicates, doubleEntries, rejected);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("eventId", eventId);
+        response.put("gateId", batch.getGateId());
+        response.put("received", scans.size());
+        response.put("accepted", accepted);
+        response.put("duplicates", duplicates);
+        response.put("doubleEntries", doubleEntries);
+        response.put("rejected", rejected);
+        response.put("results", results);
+        return response;
+    }
+
+    private Map<String, Object> mergeScan(Long eventId, OfflineScanBatchDTO batch, OfflineScanBatchDTO.Scan scan,
+                                          QRCode qrCode, List<CheckIn> checkIns) {
+        if (qrCode == null || !eventId.equals(qrCode.getEventId())) {
+            return result(scan, "REJECTED", "Code inconnu pour cet événement");
+        }
+        if (scan.getScannedAt().isAfter(qrCode.getExpiresAt())) {
+            return result(scan, "REJECTED", "Code expiré");
+        }
+
+        if (!qrCode.getIsUsed()) {
+            qrCode.setIsUsed(true);
+            qrCode.setUsedAt(scan.getScannedAt());
+            qrCode.setScanCount(qrCode.getScanCount() + 1);
+            checkIns.add(CheckIn.builder()
+                .bookingId(qrCode.getBookingId())
+                .confirmationCode(qrCode.getConfirmationCode())
+                .eventId(eventId)
+                .userId(1L)
+                .scannerId(batch.getScannerId() != null ? batch.getScannerId() : "OFFLINE_SCANNER")
+                .scannerType("OFFLINE_SCANNER")
+                .location(batch.getGateId() != null ? batch.getGateId() : "MAIN_ENTRANCE")
+                .deviceInfo("offline:" + qrCode.getUniqueCode())
+                .quantity(qrCode.getQuantity())
+                .status("CHECKED_IN")
+                .checkInTime(scan.getScannedAt())
+                .checkedInAt(scan.getScannedAt())
+                .build());
+            manifestChangeLog.recordUsed(qrCode);
+            gateIndexService.markUsed(qrCode.getUniqueCode());
+            return result(scan, "ACCEPTED", null);
+        }
+
+        if (qrCode.getUsedAt() == null || qrCode.getUsedAt().isAfter(scan.getScannedAt())) {
+            log.warn("🚨 Double entry for {}: scanned offline at gate {} at {}, pass already recorded at {}",
+                     qrCode.getUniqueCode(), batch.getGateId(), scan.getScannedAt(), qrCode.getUsedAt());
+            Map<String, Object> result = result(scan, "DOUBLE_ENTRY", "Billet scanné hors ligne avant un passage déjà enregistré");
+            result.put("originalScanTime", qrCode.getUsedAt() != null ? qrCode.getUsedAt().toString() : null);
+            return result;
+        }
+        if (qrCode.getUsedAt().isEqual(scan.getScannedAt())) {
+            return result(scan, "ALREADY_RECORDED", null);
+        }
+
+        Map<String, Object> result = result(scan, "DUPLICATE", "Code déjà utilisé");
+        result.put("originalScanTime", qrCode.getUsedAt().toString());
+        return result;
+    }
+
+    private static Map<String, Object> result(OfflineScanBatchDTO.Scan scan, String status, String message) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("uniqueCode", scan.getUniqueCode());
+        result.put("scannedAt", scan.getScannedAt() != null ? scan.getScannedAt().toString() : null);
+        result.put("status", status);
+        if (message != null) {
+            result.put("message", message);
+        }
+        return result;
+    }
+
+    private String sign(Object... parts) {
+        String payload = Arrays.stream(parts).map(String::valueOf).collect(Collectors.joining("|"));
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(signingKey);
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Signature du manifeste impossible", e);
+        }
+    }
+
+    private record Manifest(long version, int codes, BloomFilter filter, LocalDateTime generatedAt) {
+    }
+}
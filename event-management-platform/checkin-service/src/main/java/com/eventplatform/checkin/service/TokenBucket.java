@@ -0,0 +1,40 @@
+package com.eventplatform.checkin.service;
+
+/**
+ * Blocking token bucket: refills at {@code ratePerSecond} up to {@code capacity} tokens and makes
+ * callers wait for a token instead of failing. Shared by all threads that draw from it.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double ratePerSecond, int capacity) {
+        if (ratePerSecond <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Débit et capacité doivent être positifs");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    void acquire() throws InterruptedException {
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+                refilledAt = now;
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                }
+                waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            }
+            Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.eventplatform.checkin.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the filter against an independent implementation of the documented scheme, since scanners
+ * rebuild the lookups from that description alone.
+ */
+class BloomFilterTest {
+
+    @Test
+    void sizesTheFilterForTheTargetRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        // m = -n ln p / (ln 2)^2, k = m / n ln 2
+        assertThat(filter.numBits()).isEqualTo(95_851);
+        assertThat(filter.numHashes()).isEqualTo(7);
+        assertThat(filter.bits()).hasSize((95_851 + 7) / 8);
+    }
+
+    @Test
+    void containsEveryAddedCode() {
+        BloomFilter filter = new BloomFilter(5_000, 0.01);
+        for (int i = 0; i < 5_000; i++) {
+            filter.add(code(i));
+        }
+        for (int i = 0; i < 5_000; i++) {
+            assertThat(mightContain(filter, code(i))).as(code(i)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTarget() {
+        BloomFilter filter = new BloomFilter(5_000, 0.01);
+        for (int i = 0; i < 5_000; i++) {
+            filter.add(code(i));
+        }
+        int falsePositives = 0;
+        int probes = 50_000;
+        for (int i = 5_000; i < 5_000 + probes; i++) {
+            if (mightContain(filter, code(i))) {
+                falsePositives++;
+            }
+        }
+        assertThat((double) falsePositives / probes).isLessThan(0.02);
+    }
+
+    @Test
+    void fnv1aMatchesTheReferenceVectors() {
+        assertThat(fnv1a64("")).isEqualTo(0xcbf29ce484222325L);
+        assertThat(fnv1a64("a")).isEqualTo(0xaf63dc4c8601ec8cL);
+        assertThat(fnv1a64("foobar")).isEqualTo(0x85944171f73967e8L);
+    }
+
+    private static String code(int i) {
+        return String.format("EVT-%05X-%05X", i >>> 20, i & 0xFFFFF);
+    }
+
+    private static boolean mightContain(BloomFilter filter, String code) {
+        long hash = fnv1a64(code);
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = hash >>> 32;
+        for (int i = 0; i < filter.numHashes(); i++) {
+            int bit = (int) ((h1 + i * h2) % filter.numBits());
+            if ((filter.bits()[bit / 8] & (1 << (bit % 8))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long fnv1a64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xFF);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
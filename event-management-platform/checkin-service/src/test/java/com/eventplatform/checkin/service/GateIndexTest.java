@@ -0,0 +1,147 @@
+package com.eventplatform.checkin.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GateIndexTest {
+
+    private static final int NOW = 1_000_000;
+
+    @Test
+    void packsOnlyTheUniqueCodeShape() {
+        assertThat(GateIndex.pack("EVT-00000-00001")).isEqualTo(1L);
+        assertThat(GateIndex.pack("EVT-FFFFF-FFFFF")).isEqualTo((1L << 40) - 1);
+        assertThat(GateIndex.pack("EVT-A1B2C-3D4E5")).isEqualTo(GateIndex.pack("EVT-a1b2c-3d4e5"));
+
+        assertThat(GateIndex.pack(null)).isEqualTo(GateIndex.NOT_PACKABLE);
+        assertThat(GateIndex.pack("EVT-A1B2C-3D4E")).isEqualTo(GateIndex.NOT_PACKABLE);
+        assertThat(GateIndex.pack("EVT-A1B2C_3D4E5")).isEqualTo(GateIndex.NOT_PACKABLE);
+        assertThat(GateIndex.pack("EVT-A1B2G-3D4E5")).isEqualTo(GateIndex.NOT_PACKABLE);
+        assertThat(GateIndex.pack("BK-A1B2C-3D4E5X")).isEqualTo(GateIndex.NOT_PACKABLE);
+    }
+
+    @Test
+    void admitsACodeOnce() {
+        long code = GateIndex.pack("EVT-A1B2C-3D4E5");
+        GateIndex index = new GateIndex(7L, "Concert", List.of(new GateIndex.Entry(code, 42L, 3, false, NOW + 60)));
+        int[] slot = new int[1];
+
+        assertThat(index.admit(code, NOW, slot)).isEqualTo(GateIndex.Outcome.ADMITTED);
+        assertThat(index.bookingId(slot[0])).isEqualTo(42L);
+        assertThat(index.quantity(slot[0])).isEqualTo(3);
+        assertThat(index.admit(code, NOW, slot)).isEqualTo(GateIndex.Outcome.ALREADY_USED);
+        assertThat(index.usedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void refusesUsedExpiredRevokedAndUnknownCodes() {
+        long used = GateIndex.pack("EVT-00000-00001");
+        long expired = GateIndex.pack("EVT-00000-00002");
+        long revoked = GateIndex.pack("EVT-00000-00003");
+        GateIndex index = new GateIndex(7L, "Concert", List.of(
+            new GateIndex.Entry(used, 1L, 1, true, NOW + 60),
+            new GateIndex.Entry(expired, 2L, 1, false, NOW),
+            new GateIndex.Entry(revoked, 3L, 1, false, NOW + 60)));
+        index.revokeBookings(Set.of(3L));
+        int[] slot = new int[1];
+
+        assertThat(index.admit(used, NOW, slot)).isEqualTo(GateIndex.Outcome.ALREADY_USED);
+        assertThat(index.admit(expired, NOW, slot)).isEqualTo(GateIndex.Outcome.EXPIRED);
+        assertThat(index.admit(revoked, NOW, slot)).isEqualTo(GateIndex.Outcome.REVOKED);
+        assertThat(index.admit(GateIndex.pack("EVT-00000-00004"), NOW, slot)).isEqualTo(GateIndex.Outcome.MISS);
+        assertThat(index.admit(GateIndex.NOT_PACKABLE, NOW, slot)).isEqualTo(GateIndex.Outcome.MISS);
+    }
+
+    @Test
+    void releasedSlotCanBeAdmittedAgain() {
+        long code = GateIndex.pack("EVT-A1B2C-3D4E5");
+        GateIndex index = new GateIndex(7L, "Concert", List.of(new GateIndex.Entry(code, 42L, 1, false, NOW + 60)));
+        int[] slot = new int[1];
+
+        assertThat(index.admit(code, NOW, slot)).isEqualTo(GateIndex.Outcome.ADMITTED);
+        index.release(slot[0]);
+        assertThat(index.admit(code, NOW, slot)).isEqualTo(GateIndex.Outcome.ADMITTED);
+    }
+
+    @Test
+    void markUsedRefusesLaterScans() {
+        long code = GateIndex.pack("EVT-A1B2C-3D4E5");
+        GateIndex index = new GateIndex(7L, "Concert", List.of(new GateIndex.Entry(code, 42L, 1, false, NOW + 60)));
+
+        assertThat(index.markUsed(code)).isTrue();
+        assertThat(index.markUsed(code)).isFalse();
+        assertThat(index.admit(code, NOW, new int[1])).isEqualTo(GateIndex.Outcome.ALREADY_USED);
+        assertThat(index.markUsed(GateIndex.pack("EVT-00000-00009"))).isFalse();
+    }
+
+    @Test
+    void findsEveryCodeOfALargeEvent() {
+        List<GateIndex.Entry> entries = new ArrayList<>();
+        for (long code = 1; code <= 100_000; code++) {
+            // Spread over the whole 40 bits so probes wrap around the table
+            entries.add(new GateIndex.Entry(code * 10_995_116L, code, 1, false, NOW + 60));
+        }
+        GateIndex index = new GateIndex(7L, "Festival", entries);
+        int[] slot = new int[1];
+
+        assertThat(index.size()).isEqualTo(100_000);
+        assertThat(index.capacity()).isGreaterThanOrEqualTo(100_000 * 4 / 3);
+        for (GateIndex.Entry entry : entries) {
+            assertThat(index.admit(entry.code(), NOW, slot)).isEqualTo(GateIndex.Outcome.ADMITTED);
+            assertThat(index.bookingId(slot[0])).isEqualTo(entry.bookingId());
+        }
+        assertThat(index.usedCount()).isEqualTo(100_000);
+    }
+
+    @Test
+    void duplicateEntriesKeepTheLastOne() {
+        long code = GateIndex.pack("EVT-A1B2C-3D4E5");
+        GateIndex index = new GateIndex(7L, "Concert", List.of(
+            new GateIndex.Entry(code, 1L, 1, true, NOW + 60),
+            new GateIndex.Entry(code, 2L, 1, false, NOW + 60)));
+        int[] slot = new int[1];
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.admit(code, NOW, slot)).isEqualTo(GateIndex.Outcome.ADMITTED);
+        assertThat(index.bookingId(slot[0])).isEqualTo(2L);
+    }
+
+    @Test
+    void concurrentScansOfOneCodeAdmitOnlyOne() throws Exception {
+        long code = GateIndex.pack("EVT-A1B2C-3D4E5");
+        GateIndex index = new GateIndex(7L, "Concert", List.of(new GateIndex.Entry(code, 42L, 1, false, NOW + 60)));
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<GateIndex.Outcome>> outcomes = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                outcomes.add(executor.submit(() -> {
+                    start.await();
+                    return index.admit(code, NOW, new int[1]);
+                }));
+            }
+            start.countDown();
+
+            int admitted = 0;
+            for (Future<GateIndex.Outcome> outcome : outcomes) {
+                if (outcome.get(10, TimeUnit.SECONDS) == GateIndex.Outcome.ADMITTED) {
+                    admitted++;
+                }
+            }
+            assertThat(admitted).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
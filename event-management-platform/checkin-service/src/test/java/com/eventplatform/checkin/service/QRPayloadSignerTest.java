@@ -0,0 +1,117 @@
+package com.eventplatform.checkin.service;
+
+import com.eventplatform.checkin.entity.QRCode;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QRPayloadSignerTest {
+
+    private static final String KEYS = "k1:first-test-secret,k2:second-test-secret";
+
+    private final QRPayloadSigner signer = new QRPayloadSigner(KEYS, "k1", false);
+
+    @Test
+    void verifiesWhatItSigns() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(7).truncatedTo(ChronoUnit.SECONDS);
+        String token = signer.sign(ticket("EVT-A1B2C-3D4E5", 42L, 7L, expiresAt));
+
+        assertThat(token).startsWith(QRPayloadSigner.PREFIX + "k1.");
+        QRPayloadSigner.Payload payload = signer.verify(token).orElseThrow();
+        assertThat(payload.uniqueCode()).isEqualTo("EVT-A1B2C-3D4E5");
+        assertThat(payload.bookingId()).isEqualTo(42L);
+        assertThat(payload.eventId()).isEqualTo(7L);
+        assertThat(payload.expiresAt()).isEqualTo(expiresAt);
+        assertThat(payload.keyId()).isEqualTo("k1");
+    }
+
+    @Test
+    void keepsAMissingEventId() {
+        String token = signer.sign(ticket("EVT-A1B2C-3D4E5", 42L, null, LocalDateTime.now().plusDays(1)));
+
+        assertThat(signer.verify(token).orElseThrow().eventId()).isNull();
+    }
+
+    @Test
+    void rejectsTamperedPayloads() {
+        String token = signer.sign(ticket("EVT-A1B2C-3D4E5", 42L, 7L, LocalDateTime.now().plusDays(1)));
+        String forgedBody = signer.sign(ticket("EVT-FFFFF-FFFFF", 42L, 7L, LocalDateTime.now().plusDays(1)));
+        int macStart = token.lastIndexOf('.');
+
+        assertThat(signer.verify(forgedBody.substring(0, forgedBody.lastIndexOf('.')) + token.substring(macStart))).isEmpty();
+        assertThat(signer.verify(token.substring(0, macStart + 1) + "AAAAAAAAAAAAAAAAAAAAAA")).isEmpty();
+        assertThat(signer.verify(token.replace("EVT1.k1.", "EVT1.k2."))).isEmpty();
+        assertThat(signer.verify(token.replace("EVT1.k1.", "EVT1.k9."))).isEmpty();
+        assertThat(signer.verify(token.substring(0, macStart))).isEmpty();
+        assertThat(signer.verify("EVT1.k1.%%%.%%%")).isEmpty();
+        assertThat(signer.verify("EVT-A1B2C-3D4E5")).isEmpty();
+        assertThat(signer.verify(null)).isEmpty();
+    }
+
+    @Test
+    void rejectsPayloadsSignedWithAnotherSecret() {
+        QRPayloadSigner other = new QRPayloadSigner("k1:someone-else", "k1", false);
+        String token = other.sign(ticket("EVT-A1B2C-3D4E5", 42L, 7L, LocalDateTime.now().plusDays(1)));
+
+        assertThat(signer.verify(token)).isEmpty();
+    }
+
+    @Test
+    void oldKeysStillVerifyAfterRotation() {
+        String oldToken = signer.sign(ticket("EVT-A1B2C-3D4E5", 42L, 7L, LocalDateTime.now().plusDays(1)));
+        QRPayloadSigner rotated = new QRPayloadSigner(KEYS, "k2", false);
+
+        assertThat(rotated.verify(oldToken)).isPresent();
+        assertThat(rotated.sign(ticket("EVT-A1B2C-3D4E5", 42L, 7L, LocalDateTime.now().plusDays(1))))
+                .startsWith(QRPayloadSigner.PREFIX + "k2.");
+    }
+
+    @Test
+    void expiryIsEnforcedForLiveScansOnly() {
+        String token = signer.sign(ticket("EVT-A1B2C-3D4E5", 42L, 7L, LocalDateTime.now().minusMinutes(5)));
+
+        assertThatThrownBy(() -> signer.resolveUniqueCode(token)).hasMessage("Code expiré");
+        assertThat(signer.resolveScannedCode(token)).isEqualTo("EVT-A1B2C-3D4E5");
+    }
+
+    @Test
+    void forgedPayloadsAreNeverResolved() {
+        assertThatThrownBy(() -> signer.resolveUniqueCode("EVT1.k1.abc.def")).hasMessage("QR code invalide ou falsifié");
+        assertThatThrownBy(() -> signer.resolveScannedCode("EVT1.k1.abc.def")).hasMessage("QR code invalide ou falsifié");
+    }
+
+    @Test
+    void unsignedCodesPassUnlessSignaturesAreRequired() {
+        assertThat(signer.resolveUniqueCode("EVT-A1B2C-3D4E5")).isEqualTo("EVT-A1B2C-3D4E5");
+
+        QRPayloadSigner strict = new QRPayloadSigner(KEYS, "k1", true);
+        String token = strict.sign(ticket("EVT-A1B2C-3D4E5", 42L, 7L, LocalDateTime.now().plusDays(1)));
+        assertThat(strict.resolveUniqueCode(token)).isEqualTo("EVT-A1B2C-3D4E5");
+        assertThatThrownBy(() -> strict.resolveUniqueCode("EVT-A1B2C-3D4E5")).hasMessage("QR code non signé refusé");
+        assertThatThrownBy(() -> strict.resolveScannedCode("EVT-A1B2C-3D4E5")).hasMessage("QR code non signé refusé");
+        assertThatThrownBy(strict::checkUnsignedAllowed).hasMessage("QR code non signé refusé");
+    }
+
+    @Test
+    void refusesInvalidKeyConfiguration() {
+        assertThatThrownBy(() -> new QRPayloadSigner("k1", "k1", false)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new QRPayloadSigner("k1:", "k1", false)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new QRPayloadSigner(KEYS, "k3", false)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new QRPayloadSigner("k1:" + QRPayloadSigner.DEFAULT_SECRET, "k1", true))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(new QRPayloadSigner("k1:" + QRPayloadSigner.DEFAULT_SECRET, "k1", false)).isNotNull();
+    }
+
+    private static QRCode ticket(String uniqueCode, Long bookingId, Long eventId, LocalDateTime expiresAt) {
+        QRCode qrCode = new QRCode();
+        qrCode.setUniqueCode(uniqueCode);
+        qrCode.setBookingId(bookingId);
+        qrCode.setEventId(eventId);
+        qrCode.setExpiresAt(expiresAt);
+        return qrCode;
+    }
+}
@@ -0,0 +1,114 @@
+package com.eventplatform.checkin.service;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QRRendererTest {
+
+    private static final String CONTENT =
+            "EVT1.k1.RVZULUE3QzJGLTlEMEUxfDE4MzQ1fDQyfDE3OTM0NTYwMDA.bXk3cWJ2LWhVd0RrTnRWcA";
+
+    private final QRRenderer renderer = new QRRenderer();
+
+    @Test
+    void writesAOneBitGrayscalePng() {
+        byte[] png = renderer.png(renderer.encode(CONTENT, ErrorCorrectionLevel.H, 1), 250);
+
+        assertThat(Arrays.copyOf(png, 8)).containsExactly(0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n');
+        assertThat(new String(png, 12, 4, StandardCharsets.US_ASCII)).isEqualTo("IHDR");
+        assertThat(png[24]).as("bit depth").isEqualTo((byte) 1);
+        assertThat(png[25]).as("colour type").isEqualTo((byte) 0);
+        assertThat(new String(png, png.length - 8, 4, StandardCharsets.US_ASCII)).isEqualTo("IEND");
+    }
+
+    @Test
+    void matchesZxingScalingPixelForPixel() throws Exception {
+        for (int size : new int[] {250, 300, 57}) {
+            BufferedImage image = decode(renderer.png(renderer.encode(CONTENT, ErrorCorrectionLevel.H, 1), size));
+
+            Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+            hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
+            hints.put(EncodeHintType.MARGIN, 1);
+            BitMatrix expected = new QRCodeWriter().encode(CONTENT, BarcodeFormat.QR_CODE, size, size, hints);
+
+            assertThat(image.getWidth()).isEqualTo(expected.getWidth());
+            assertThat(image.getHeight()).isEqualTo(expected.getHeight());
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    boolean black = (image.getRGB(x, y) & 0xFFFFFF) == 0;
+                    assertThat(black).as("pixel %d,%d at %d px", x, y, size).isEqualTo(expected.get(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    void scansBackToTheContent() throws Exception {
+        BufferedImage image = decode(renderer.png(renderer.encode(CONTENT, ErrorCorrectionLevel.L, 4), 250));
+
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+        assertThat(new QRCodeReader().decode(bitmap).getText()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void reusedBuffersDoNotLeakIntoSmallerImages() throws Exception {
+        BitMatrix modules = renderer.encode(CONTENT, ErrorCorrectionLevel.H, 1);
+        byte[] small = renderer.png(modules, 100);
+
+        renderer.png(renderer.encode(CONTENT + CONTENT, ErrorCorrectionLevel.H, 1), 1000);
+
+        assertThat(renderer.png(modules, 100)).isEqualTo(small);
+        assertThat(decode(small).getWidth()).isEqualTo(100);
+    }
+
+    @Test
+    void svgDrawsEveryDarkModule() {
+        BitMatrix modules = renderer.encode(CONTENT, ErrorCorrectionLevel.H, 1);
+        String svg = new String(renderer.svg(modules, 250), StandardCharsets.UTF_8);
+        int n = modules.getWidth();
+
+        assertThat(svg).startsWith("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"250\" height=\"250\"")
+                       .contains("viewBox=\"0 0 " + n + " " + n + "\"")
+                       .endsWith("\"/></svg>");
+
+        int dark = 0;
+        for (int y = 0; y < n; y++) {
+            for (int x = 0; x < n; x++) {
+                if (modules.get(x, y)) {
+                    dark++;
+                }
+            }
+        }
+        int drawn = 0;
+        String path = svg.substring(svg.indexOf(" d=\"") + 4, svg.lastIndexOf('"'));
+        for (String run : path.split("z")) {
+            drawn += Integer.parseInt(run.substring(run.indexOf('h') + 1, run.indexOf('v')));
+        }
+        assertThat(drawn).isEqualTo(dark);
+    }
+
+    private static BufferedImage decode(byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertThat(image).isNotNull();
+        return image;
+    }
+}
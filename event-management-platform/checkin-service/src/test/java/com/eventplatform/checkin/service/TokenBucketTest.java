@@ -0,0 +1,74 @@
+package com.eventplatform.checkin.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketTest {
+
+    @Test
+    void rejectsNonPositiveSettings() {
+        assertThatThrownBy(() -> new TokenBucket(0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void burstIsServedImmediately() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 5);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            bucket.acquire();
+        }
+        assertThat(elapsedMillis(started)).isLessThan(500);
+    }
+
+    @Test
+    void waitsForTheRateOnceTheBurstIsSpent() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(20, 1);
+        bucket.acquire();
+
+        long started = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            bucket.acquire();
+        }
+        // Four tokens at 20 per second take 200 ms
+        assertThat(elapsedMillis(started)).isGreaterThanOrEqualTo(180);
+    }
+
+    @Test
+    void threadsShareTheRate() throws Exception {
+        TokenBucket bucket = new TokenBucket(50, 1);
+        bucket.acquire();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            long started = System.nanoTime();
+            List<Future<?>> acquired = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                acquired.add(executor.submit(() -> {
+                    bucket.acquire();
+                    return null;
+                }));
+            }
+            for (Future<?> future : acquired) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            // Twenty tokens at 50 per second take 400 ms whatever the number of threads
+            assertThat(elapsedMillis(started)).isGreaterThanOrEqualTo(360);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    }
+}
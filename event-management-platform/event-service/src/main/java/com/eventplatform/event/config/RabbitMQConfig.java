@@ -18,6 +18,7 @@ public class RabbitMQConfig {
     public static final String EVENT_CREATED_QUEUE = "event.created.queue";
     public static final String EVENT_UPDATED_QUEUE = "event.updated.queue";
     public static final String EVENT_DELETED_QUEUE = "event.deleted.queue";
+    public static final String TICKET_AVAILABILITY_ROUTING_KEY = "ticket-type.availability";
     
     @Bean
     public TopicExchange eventExchange() {
@@ -100,16 +100,18 @@ public class EventController {
     @PostMapping("/{id}/reserve")
     public ResponseEntity<Map<String, Object>> reserveTickets(
             @PathVariable Long id,
-            @RequestParam Integer quantity) {
-        boolean success = eventService.reserveTickets(id, quantity);
+            @RequestParam Integer quantity,
+            @RequestParam(required = false) String reservationId) {
+        boolean success = eventService.reserveTickets(id, quantity, reservationId);
         return ResponseEntity.ok(Map.of("success", success));
     }
     
     @PostMapping("/{id}/release")
     public ResponseEntity<Void> releaseTickets(
             @PathVariable Long id,
-            @RequestParam Integer quantity) {
-        eventService.releaseTickets(id, quantity);
+            @RequestParam Integer quantity,
+            @RequestParam(required = false) String reservationId) {
+        eventService.releaseTickets(id, quantity, reservationId);
         return ResponseEntity.ok().build();
     }
     
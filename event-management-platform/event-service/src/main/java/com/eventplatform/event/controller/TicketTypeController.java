@@ -75,9 +75,10 @@ public class TicketTypeController {
     @PostMapping("/ticket-types/{ticketTypeId}/reserve")
     public ResponseEntity<Map<String, Object>> reserveTicketType(
             @PathVariable Long ticketTypeId,
-            @RequestParam Integer quantity) {
+            @RequestParam Integer quantity,
+            @RequestParam(required = false) String reservationId) {
         try {
-            boolean success = eventService.reserveTicketType(ticketTypeId, quantity);
+            boolean success = eventService.reserveTicketType(ticketTypeId, quantity, reservationId);
             return ResponseEntity.ok(Map.of("success", success));
         } catch (Exception e) {
             log.error("Error reserving ticket type {}: {}", ticketTypeId, e.getMessage());
@@ -89,9 +90,10 @@ public class TicketTypeController {
     @PostMapping("/ticket-types/{ticketTypeId}/release")
     public ResponseEntity<Void> releaseTicketType(
             @PathVariable Long ticketTypeId,
-            @RequestParam Integer quantity) {
+            @RequestParam Integer quantity,
+            @RequestParam(required = false) String reservationId) {
         try {
-            eventService.releaseTicketType(ticketTypeId, quantity);
+            eventService.releaseTicketType(ticketTypeId, quantity, reservationId);
             return ResponseEntity.ok().build();
         } catch (Exception e) {
             log.error("Error releasing ticket type {}: {}", ticketTypeId, e.getMessage());
@@ -0,0 +1,55 @@
+package com.eventplatform.event.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A reservation made under a caller-chosen id, so the caller can retry a reserve or a release
+ * without taking or giving back tickets twice. A release that arrives before its reserve is kept
+ * as RELEASED so the late reserve is refused.
+ */
+@Entity
+@Table(name = "ticket_reservations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketReservation {
+    
+    @Id
+    @Column(length = 64)
+    private String id;
+    
+    @Column
+    private Long eventId;
+    
+    @Column
+    private Long ticketTypeId;
+    
+    @Column(nullable = false)
+    private Integer quantity;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReservationStatus status;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+    
+    public enum ReservationStatus {
+        RESERVED,
+        RELEASED
+    }
+}
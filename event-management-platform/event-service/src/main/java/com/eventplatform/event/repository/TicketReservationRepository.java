@@ -0,0 +1,19 @@
+package com.eventplatform.event.repository;
+
+import com.eventplatform.event.entity.TicketReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TicketReservationRepository extends JpaRepository<TicketReservation, String> {
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM TicketReservation r WHERE r.id = :id")
+    Optional<TicketReservation> findByIdForUpdate(@Param("id") String id);
+}
@@ -1,13 +1,17 @@
 package com.eventplatform.event.service;
 
+import com.eventplatform.event.config.RabbitMQConfig;
 import com.eventplatform.event.dto.TicketTypeDTO;
 import com.eventplatform.event.entity.Event;
 import com.eventplatform.event.entity.Event.EventCategory;
 import com.eventplatform.event.entity.Event.EventStatus;
+import com.eventplatform.event.entity.TicketReservation;
+import com.eventplatform.event.entity.TicketReservation.ReservationStatus;
 import com.eventplatform.event.entity.TicketType;
 import com.eventplatform.event.exception.EventNotFoundException;
 import com.eventplatform.event.exception.InsufficientTicketsException;
 import com.eventplatform.event.repository.EventRepository;
+import com.eventplatform.event.repository.TicketReservationRepository;
 import com.eventplatform.event.repository.TicketTypeRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -15,7 +19,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -30,6 +37,7 @@ public class EventService {
     private final EventRepository eventRepository;
     private final RabbitTemplate rabbitTemplate;
     private final TicketTypeRepository ticketTypeRepository;
+    private final TicketReservationRepository reservationRepository;
     private static final String EVENT_EXCHANGE = "event.exchange";
     
     public List<Event> getAllEvents() {
@@ -127,6 +135,8 @@ public Event createEvent(Event event, List<TicketType> ticketTypes) {
         updateEventCounters(ticketType.getEvent().getId());
         updateEventFromTicketTypes(ticketType.getEvent().getId());
         
+        publishTicketAvailability(ticketType);
+        
         log.info("Reserved {} tickets of type {} for event {}", 
                  quantity, ticketType.getName(), ticketType.getEvent().getId());
         return true;
@@ -250,6 +260,7 @@ private void updateEventPriceFromTicketTypes(Long eventId) {
         TicketType updatedTicketType = ticketTypeRepository.save(ticketType);
         
         updateEventPriceFromTicketTypes(ticketType.getEvent().getId());
+        publishTicketAvailability(updatedTicketType);
         
         log.info("Ticket type updated: {} (ID: {})", ticketTypeDTO.getName(), ticketTypeId);
         return updatedTicketType;
@@ -267,6 +278,7 @@ private void updateEventPriceFromTicketTypes(Long eventId) {
         ticketTypeRepository.save(ticketType);
         
         updateEventPriceFromTicketTypes(eventId);
+        publishTicketAvailability(ticketType);
         
         log.info("Ticket type deactivated: {}", ticketTypeId);
     }
@@ -381,6 +393,105 @@ public void updateEventCounters(Long eventId) {
                 .sum();
     }
     
+    /**
+     * Reserves under {@code reservationId} when one is given: a retried reserve with the same id
+     * takes no more tickets, and one whose release already arrived is refused.
+     */
+    @Transactional
+    public synchronized boolean reserveTicketType(Long ticketTypeId, Integer quantity, String reservationId) {
+        if (reservationId != null && reservationRepository.findById(reservationId).map(this::isStillReserved).orElse(false)) {
+            return true;
+        }
+        boolean reserved = reserveTicketType(ticketTypeId, quantity);
+        recordReservation(reservationId, null, ticketTypeId, quantity);
+        return reserved;
+    }
+    
+    /**
+     * Releases the reservation made under {@code reservationId}, once. A reservation that was never
+     * made is remembered as released so that a late reserve cannot take the tickets.
+     */
+    @Transactional
+    public void releaseTicketType(Long ticketTypeId, Integer quantity, String reservationId) {
+        if (reservationId == null) {
+            releaseTicketType(ticketTypeId, quantity);
+            return;
+        }
+        Integer reserved = releaseReservation(reservationId, null, ticketTypeId, quantity);
+        if (reserved != null) {
+            releaseTicketType(ticketTypeId, reserved);
+        }
+    }
+    
+    @Transactional
+    public synchronized boolean reserveTickets(Long eventId, Integer quantity, String reservationId) {
+        if (reservationId != null && reservationRepository.findById(reservationId).map(this::isStillReserved).orElse(false)) {
+            return true;
+        }
+        boolean reserved = reserveTickets(eventId, quantity);
+        recordReservation(reservationId, eventId, null, quantity);
+        return reserved;
+    }
+    
+    @Transactional
+    public void releaseTickets(Long eventId, Integer quantity, String reservationId) {
+        if (reservationId == null) {
+            releaseTickets(eventId, quantity);
+            return;
+        }
+        Integer reserved = releaseReservation(reservationId, eventId, null, quantity);
+        if (reserved != null) {
+            releaseTickets(eventId, reserved);
+        }
+    }
+    
+    private boolean isStillReserved(TicketReservation reservation) {
+        if (reservation.getStatus() == ReservationStatus.RELEASED) {
+            throw new RuntimeException("La réservation " + reservation.getId() + " a déjà été annulée");
+        }
+        return true;
+    }
+    
+    private void recordReservation(String reservationId, Long eventId, Long ticketTypeId, Integer quantity) {
+        if (reservationId == null) {
+            return;
+        }
+        TicketReservation reservation = new TicketReservation();
+        reservation.setId(reservationId);
+        reservation.setEventId(eventId);
+        reservation.setTicketTypeId(ticketTypeId);
+        reservation.setQuantity(quantity);
+        reservation.setStatus(ReservationStatus.RESERVED);
+        reservationRepository.save(reservation);
+    }
+    
+    /**
+     * Marks the reservation released and returns how many tickets it held, or null when there is
+     * nothing to give back.
+     */
+    private Integer releaseReservation(String reservationId, Long eventId, Long ticketTypeId, Integer quantity) {
+        TicketReservation reservation = reservationRepository.findByIdForUpdate(reservationId).orElse(null);
+        if (reservation == null) {
+            reservation = new TicketReservation();
+            reservation.setId(reservationId);
+            reservation.setEventId(eventId);
+            reservation.setTicketTypeId(ticketTypeId);
+            reservation.setQuantity(quantity);
+            reservation.setStatus(ReservationStatus.RELEASED);
+            reservationRepository.save(reservation);
+            log.info("Release of unknown reservation {} recorded, nothing to give back", reservationId);
+            return null;
+        }
+        if (reservation.getStatus() == ReservationStatus.RELEASED) {
+            log.info("Reservation {} was already released", reservationId);
+            return null;
+        }
+        reservation.setStatus(ReservationStatus.RELEASED);
+        reservation.setUpdatedAt(LocalDateTime.now());
+        reservationRepository.save(reservation);
+        return reservation.getQuantity();
+    }
+    
     public Integer getTotalCapacity(Long eventId) {
         List<TicketType> ticketTypes = ticketTypeRepository.findByEventIdAndIsActiveTrue(eventId);
         return ticketTypes.stream()
@@ -405,6 +516,7 @@ public void updateEventCounters(Long eventId) {
         ticketTypeRepository.save(ticketType);
         updateEventCounters(ticketType.getEvent().getId());
         updateEventFromTicketTypes(ticketType.getEvent().getId());
+        publishTicketAvailability(ticketType);
         
         log.info("Released {} tickets of type {} for event {}", 
                  quantity, ticketType.getName(), ticketType.getEvent().getId());
@@ -471,6 +583,35 @@ public Event updateEvent(Long id, Event eventDetails) {
         return event.getAvailableTickets() >= quantity;
     }
     
+    /**
+     * Tells booking-service the new stock of a ticket type once the surrounding transaction has
+     * committed, so its sold-out cache never sees a reservation that was rolled back.
+     */
+    private void publishTicketAvailability(TicketType ticketType) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("ticketTypeId", ticketType.getId());
+        message.put("eventId", ticketType.getEvent().getId());
+        message.put("name", ticketType.getName());
+        message.put("availableTickets", ticketType.getAvailableTickets());
+        message.put("active", ticketType.getIsActive());
+        
+        Runnable send = () -> {
+            message.put("timestamp", System.currentTimeMillis());
+            publishEvent(RabbitMQConfig.TICKET_AVAILABILITY_ROUTING_KEY, message, ticketType.getEvent().getId());
+        };
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send.run();
+                }
+            });
+        } else {
+            send.run();
+        }
+    }
+    
   private void publishEvent(String routingKey, Object message, Long eventId) {
         try {
             rabbitTemplate.convertAndSend(EVENT_EXCHANGE, routingKey, message);
@@ -229,20 +229,26 @@ export const checkinService = {
     }
   },
   
+  // The endpoint is paged; fetch every page so callers still get the full list
   getAdminCheckins: async (scannerId, date) => {
     try {
-      let url = '/api/qr-codes/admin/checkins';
-      const params = new URLSearchParams();
+      const pageSize = 500;
+      const checkins = [];
       
-      if (scannerId) params.append('scannerId', scannerId);
-      if (date) params.append('date', date.toISOString().split('T')[0]);
-      
-      if (params.toString()) {
-        url += `?${params.toString()}`;
+      for (let page = 0; ; page++) {
+        const params = new URLSearchParams();
+        if (scannerId) params.append('scannerId', scannerId);
+        if (date) params.append('date', date.toISOString().split('T')[0]);
+        params.append('page', page);
+        params.append('size', pageSize);
+        
+        const response = await api.get(`/api/qr-codes/admin/checkins?${params.toString()}`);
+        checkins.push(...response.data);
+        if (response.data.length < pageSize) {
+          break;
+        }
       }
-      
-      const response = await api.get(url);
-      return response.data;
+      return checkins;
     } catch (error) {
       console.error('Error fetching admin checkins:', error);
       throw error;